@@ -0,0 +1,34 @@
+package com.currency.app.benchmark;
+
+import com.currency.app.CurrencyAppApplication;
+import com.currency.app.client.ExternalExchangeRateClient;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * Boots the application against the embedded H2 database of the {@code test} profile, with the external
+ * provider replaced by a synthetic one.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(ExternalExchangeRateClient exchangeRateClient) {
+        return new SpringApplicationBuilder(CurrencyAppApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off",
+                            "spring.jpa.show-sql=false",
+                            "logging.level.root=WARN",
+                            "logging.level.com.currency.app=WARN",
+                            "logging.level.org.hibernate.SQL=WARN",
+                            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .initializers(context -> ((GenericApplicationContext) context).registerBean(
+                        "benchmarkExchangeRateClient", ExternalExchangeRateClient.class, () -> exchangeRateClient,
+                        definition -> definition.setPrimary(true)))
+                .run();
+    }
+}
@@ -0,0 +1,51 @@
+package com.currency.app.benchmark;
+
+import com.currency.app.client.ExternalExchangeRateClient;
+import com.currency.app.client.dto.ExternalRateDto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Synthetic rate data shaped like the real provider output: every currency quoted against every other one
+ * with 6 decimal places.
+ */
+final class BenchmarkRates {
+
+    private BenchmarkRates() {
+    }
+
+    static List<String> currencyCodes(int count) {
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            codes.add("" + (char) ('A' + i / 676) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26));
+        }
+        return codes;
+    }
+
+    static Map<String, Map<String, BigDecimal>> snapshot(List<String> codes) {
+        Map<String, Map<String, BigDecimal>> rates = new HashMap<>();
+        for (String baseCurrency : codes) {
+            Map<String, BigDecimal> quotes = new HashMap<>();
+            for (String targetCurrency : codes) {
+                if (!targetCurrency.equals(baseCurrency)) {
+                    quotes.put(targetCurrency, BigDecimal.valueOf(ThreadLocalRandom.current().nextLong(1, 200_000_000), 6));
+                }
+            }
+            rates.put(baseCurrency, quotes);
+        }
+        return rates;
+    }
+
+    static ExternalExchangeRateClient client(List<String> codes) {
+        return () -> {
+            List<ExternalRateDto> rates = new ArrayList<>();
+            snapshot(codes).forEach((baseCurrency, quotes) -> rates.add(new ExternalRateDto(baseCurrency, quotes)));
+            return rates;
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.currency.app.benchmark;
+
+import com.currency.app.repository.ExchangeRateRepository;
+import com.currency.app.service.DatabaseRateStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseRateStorageBenchmark {
+
+    @Param({"10", "170"})
+    private int currencyCount;
+
+    private ConfigurableApplicationContext context;
+
+    private DatabaseRateStorage databaseRateStorage;
+
+    private List<String> codes;
+
+    private Map<String, Map<String, BigDecimal>> snapshot;
+
+    @Setup
+    public void setUp() {
+        codes = BenchmarkRates.currencyCodes(currencyCount);
+        snapshot = BenchmarkRates.snapshot(codes);
+        context = BenchmarkApplication.start(BenchmarkRates.client(codes));
+        databaseRateStorage = context.getBean(DatabaseRateStorage.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearHistory() {
+        context.getBean(ExchangeRateRepository.class).deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void updateRate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        databaseRateStorage.updateRate(codes.get(random.nextInt(codes.size())), codes.get(random.nextInt(codes.size())),
+                                       BigDecimal.valueOf(random.nextLong(1, 200_000_000), 6));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void updateRates() {
+        databaseRateStorage.updateRates(snapshot);
+    }
+}
@@ -0,0 +1,62 @@
+package com.currency.app.benchmark;
+
+import com.currency.app.controller.dto.ExchangeRateDto;
+import com.currency.app.service.InMemoryRateStorage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExchangeRateDtoSerializationBenchmark {
+
+    @Param({"10", "170"})
+    private int currencyCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ExchangeRateDto hashMapDto;
+
+    private ExchangeRateDto snapshotDto;
+
+    @Setup
+    public void setUp() {
+        List<String> codes = BenchmarkRates.currencyCodes(currencyCount);
+        Map<String, Map<String, BigDecimal>> snapshot = BenchmarkRates.snapshot(codes);
+        InMemoryRateStorage rateStorage = new InMemoryRateStorage();
+        rateStorage.updateRates(snapshot);
+
+        String baseCurrency = codes.get(0);
+        hashMapDto = new ExchangeRateDto(baseCurrency, snapshot.get(baseCurrency));
+        snapshotDto = new ExchangeRateDto(baseCurrency, rateStorage.getAllRatesForCurrency(baseCurrency));
+    }
+
+    @Benchmark
+    public byte[] serializeHashMapRates() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(hashMapDto);
+    }
+
+    @Benchmark
+    public byte[] serializeSnapshotRates() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(snapshotDto);
+    }
+}
@@ -0,0 +1,60 @@
+package com.currency.app.benchmark;
+
+import com.currency.app.repository.ExchangeRateRepository;
+import com.currency.app.service.ExchangeRateUpdateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full refresh: synthetic provider call, in-memory publish and H2 persistence through the transactional proxy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExchangeRateUpdateServiceBenchmark {
+
+    @Param({"10", "170"})
+    private int currencyCount;
+
+    private ConfigurableApplicationContext context;
+
+    private ExchangeRateUpdateService updateService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(BenchmarkRates.client(BenchmarkRates.currencyCodes(currencyCount)));
+        updateService = context.getBean(ExchangeRateUpdateService.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearHistory() {
+        context.getBean(ExchangeRateRepository.class).deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void updateRates() {
+        updateService.updateRates();
+    }
+}
@@ -0,0 +1,66 @@
+package com.currency.app.benchmark;
+
+import com.currency.app.service.InMemoryRateStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InMemoryRateStorageBenchmark {
+
+    @Param({"10", "170"})
+    private int currencyCount;
+
+    private InMemoryRateStorage rateStorage;
+
+    private List<String> codes;
+
+    private Map<String, Map<String, BigDecimal>> snapshot;
+
+    @Setup
+    public void setUp() {
+        codes = BenchmarkRates.currencyCodes(currencyCount);
+        snapshot = BenchmarkRates.snapshot(codes);
+        rateStorage = new InMemoryRateStorage();
+        rateStorage.updateRates(snapshot);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> getAllRatesForCurrency() {
+        return rateStorage.getAllRatesForCurrency(randomCode());
+    }
+
+    @Benchmark
+    public void getAllRatesForCurrencyAndReadValues(Blackhole blackhole) {
+        rateStorage.getAllRatesForCurrency(randomCode()).forEach((code, rate) -> blackhole.consume(rate));
+    }
+
+    @Benchmark
+    public void updateRates() {
+        rateStorage.updateRates(snapshot);
+    }
+
+    private String randomCode() {
+        return codes.get(ThreadLocalRandom.current().nextInt(codes.size()));
+    }
+}
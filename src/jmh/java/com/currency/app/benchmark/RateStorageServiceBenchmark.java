@@ -0,0 +1,79 @@
+package com.currency.app.benchmark;
+
+import com.currency.app.service.DatabaseRateStorage;
+import com.currency.app.service.InMemoryRateStorage;
+import com.currency.app.service.RateStorageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot reads are served by the in-memory tier, cold reads target a base currency that only exists in H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateStorageServiceBenchmark {
+
+    @Param({"10", "170"})
+    private int currencyCount;
+
+    private ConfigurableApplicationContext context;
+
+    private RateStorageService rateStorageService;
+
+    private List<String> hotCodes;
+
+    private String coldCode;
+
+    @Setup
+    public void setUp() {
+        List<String> codes = BenchmarkRates.currencyCodes(currencyCount);
+        context = BenchmarkApplication.start(BenchmarkRates.client(codes));
+        rateStorageService = context.getBean(RateStorageService.class);
+
+        Map<String, Map<String, BigDecimal>> snapshot = BenchmarkRates.snapshot(codes);
+        context.getBean(DatabaseRateStorage.class).updateRates(snapshot);
+
+        coldCode = codes.get(0);
+        hotCodes = codes.subList(1, codes.size());
+        Map<String, Map<String, BigDecimal>> hotSnapshot = new HashMap<>(snapshot);
+        hotSnapshot.remove(coldCode);
+        context.getBean(InMemoryRateStorage.class).updateRates(hotSnapshot);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> getAllRatesForCurrencyHot() {
+        return rateStorageService.getAllRatesForCurrency(hotCodes.get(ThreadLocalRandom.current().nextInt(hotCodes.size())));
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> getAllRatesForCurrencyCold() {
+        return rateStorageService.getAllRatesForCurrency(coldCode);
+    }
+}
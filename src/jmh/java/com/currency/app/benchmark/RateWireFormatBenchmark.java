@@ -0,0 +1,96 @@
+package com.currency.app.benchmark;
+
+import com.currency.app.controller.RateTableCodec;
+import com.currency.app.controller.dto.RateTableDto;
+import com.currency.app.service.InMemoryRateStorage;
+import com.currency.app.service.RateSnapshot;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON rate table of {@code GET /api/v1/currencies/rates} with the compact Protobuf and CBOR tables:
+ * encoding from the published snapshot and decoding on the client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateWireFormatBenchmark {
+
+    private static final TypeReference<Map<String, Map<String, BigDecimal>>> RATES = new TypeReference<>() {
+    };
+
+    @Param({"10", "170"})
+    private int currencyCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private RateSnapshot snapshot;
+
+    private byte[] json;
+
+    private byte[] protobuf;
+
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> codes = BenchmarkRates.currencyCodes(currencyCount);
+        InMemoryRateStorage rateStorage = new InMemoryRateStorage();
+        rateStorage.updateRates(BenchmarkRates.snapshot(codes));
+        snapshot = rateStorage.getSnapshot();
+
+        json = encodeJson();
+        protobuf = encodeProtobuf();
+        cbor = encodeCbor();
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(snapshot.getAllRates());
+    }
+
+    @Benchmark
+    public byte[] encodeProtobuf() {
+        return RateTableCodec.toProtobuf(RateTableCodec.fromSnapshot(snapshot));
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() {
+        return RateTableCodec.toCbor(RateTableCodec.fromSnapshot(snapshot));
+    }
+
+    @Benchmark
+    public Map<String, Map<String, BigDecimal>> decodeJson() throws IOException {
+        return objectMapper.readValue(json, RATES);
+    }
+
+    @Benchmark
+    public RateTableDto decodeProtobuf() throws IOException {
+        return RateTableCodec.fromProtobuf(protobuf);
+    }
+
+    @Benchmark
+    public RateTableDto decodeCbor() throws IOException {
+        return RateTableCodec.fromCbor(cbor);
+    }
+}
@@ -0,0 +1,155 @@
+package com.currency.app.benchmark;
+
+import com.currency.app.config.ConcurrencyLimitedDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of request handling while the database is slow. A background load keeps {@code slowRequests} requests
+ * in flight that each hold one of the {@value #POOL_SIZE} pooled connections for {@code dbLatencyMillis}; the
+ * benchmark measures a request answered from memory next to them.
+ * <p>
+ * {@code platform} runs requests on {@value #MAX_REQUEST_THREADS} threads like Tomcat's default pool, so requests
+ * stuck waiting for the database hold every thread and the in-memory request queues behind them. {@code virtual}
+ * runs every request on its own virtual thread behind a {@link ConcurrencyLimitedDataSource}, so only the
+ * database requests wait. The {@code virtual} mode needs Java 21:
+ * mvn -Pbenchmarks,java21 test-compile exec:exec -Djmh.includes=SlowDatabaseLoad
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class SlowDatabaseLoadBenchmark {
+
+    private static final int MAX_REQUEST_THREADS = 200;
+
+    private static final int POOL_SIZE = 10;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"20"})
+    private int dbLatencyMillis;
+
+    @Param({"100", "1000"})
+    private int slowRequests;
+
+    private Executor requests;
+
+    private ExecutorService platformRequests;
+
+    private DataSource dataSource;
+
+    private Map<String, Map<String, BigDecimal>> rates;
+
+    private List<String> codes;
+
+    private Thread load;
+
+    @Setup
+    public void setUp() {
+        codes = BenchmarkRates.currencyCodes(170);
+        rates = BenchmarkRates.snapshot(codes);
+        dataSource = new ConcurrencyLimitedDataSource(slowDatabase(), POOL_SIZE, Duration.ofMinutes(1));
+        if ("virtual".equals(threads)) {
+            requests = new VirtualThreadTaskExecutor("request-");
+        } else {
+            platformRequests = Executors.newFixedThreadPool(MAX_REQUEST_THREADS);
+            requests = platformRequests;
+        }
+
+        Semaphore inFlight = new Semaphore(slowRequests);
+        load = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    inFlight.acquire();
+                    requests.execute(() -> {
+                        try {
+                            queryDatabase();
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "slow-database-load");
+        load.setDaemon(true);
+        load.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        load.interrupt();
+        load.join();
+        if (platformRequests != null) {
+            platformRequests.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> inMemoryRequest() throws Exception {
+        String baseCurrency = codes.get(ThreadLocalRandom.current().nextInt(codes.size()));
+        CompletableFuture<Map<String, BigDecimal>> response = new CompletableFuture<>();
+        requests.execute(() -> response.complete(rates.get(baseCurrency)));
+        return response.get();
+    }
+
+    private void queryDatabase() {
+        try (Connection ignored = dataSource.getConnection()) {
+            Thread.sleep(dbLatencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DataSource slowDatabase() {
+        Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                                                                    (proxy, method, args) -> null);
+        return new AbstractDataSource() {
+            @Override
+            public Connection getConnection() {
+                return connection;
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) {
+                return connection;
+            }
+        };
+    }
+}
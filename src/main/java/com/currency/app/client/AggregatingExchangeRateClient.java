@@ -0,0 +1,379 @@
+package com.currency.app.client;
+
+import com.currency.app.client.dto.ExternalRateDto;
+import com.currency.app.config.ProviderProperties;
+import com.currency.app.exception.ExchangeRateProviderException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Combines several rate providers into one.
+ * All available providers are queried in parallel and their base currencies are merged as they stream in: either
+ * the first valid answer for a base is used ({@link ProviderProperties.AggregationMode#HEDGED}) or every pair gets
+ * the median of the quotes that arrived within the aggregation timeout ({@link ProviderProperties.AggregationMode#MEDIAN}),
+ * a base being passed on as soon as every provider still running has quoted it. A provider that fails part-way
+ * keeps the bases it delivered. The time until each base arrives is recorded in a per-provider timer; providers
+ * whose p99 exceeds the budget are skipped for a cooldown period, unless no other provider is left.
+ */
+public class AggregatingExchangeRateClient implements ExternalExchangeRateClient, AutoCloseable {
+
+    private static final int MEDIAN_SCALE = 6;
+
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+    private final List<Provider> providers;
+
+    private final ProviderProperties.Aggregation aggregation;
+
+    private final Clock clock;
+
+    private final ExecutorService executor;
+
+    public AggregatingExchangeRateClient(Map<String, ? extends ExternalExchangeRateClient> providers,
+                                         ProviderProperties.Aggregation aggregation, MeterRegistry meterRegistry) {
+        this(providers, aggregation, meterRegistry, Clock.systemUTC());
+    }
+
+    AggregatingExchangeRateClient(Map<String, ? extends ExternalExchangeRateClient> providers,
+                                  ProviderProperties.Aggregation aggregation, MeterRegistry meterRegistry, Clock clock) {
+        this.aggregation = aggregation;
+        this.clock = clock;
+        this.providers = providers.entrySet()
+                                  .stream()
+                                  .map(provider -> new Provider(provider.getKey(), provider.getValue(), meterRegistry))
+                                  .toList();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "rate-aggregator-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public List<ExternalRateDto> getCurrentExchangeRates() {
+        List<ExternalRateDto> rates = new ArrayList<>();
+        fetchExchangeRates(rates::add);
+        return rates;
+    }
+
+    /**
+     * Passes every merged base currency to the sink as soon as it is complete, and the remaining ones once the
+     * providers are done or the aggregation timeout is reached. Throws only if no base currency could be delivered.
+     */
+    @Override
+    public void fetchExchangeRates(Consumer<ExternalRateDto> sink) {
+        List<Provider> available = availableProviders();
+        BlockingQueue<Delivery> deliveries = new LinkedBlockingQueue<>();
+        long start = System.nanoTime();
+        List<Future<?>> fetches = new ArrayList<>(available.size());
+        for (int i = 0; i < available.size(); i++) {
+            Provider provider = available.get(i);
+            int index = i;
+            fetches.add(executor.submit(() -> {
+                RuntimeException failure = null;
+                try {
+                    provider.fetch(start, rates -> deliveries.add(new Delivery(index, rates, null)));
+                } catch (RuntimeException e) {
+                    failure = e;
+                } finally {
+                    deliveries.add(new Delivery(index, null, failure));
+                }
+            }));
+        }
+
+        Merge merge = new Merge(available.size(), sink);
+        ExchangeRateProviderException failure = new ExchangeRateProviderException("No rate provider answered in time");
+        long deadline = start + aggregation.getTimeout().toNanos();
+        try {
+            while (merge.running() > 0) {
+                Delivery delivery = deliveries.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (delivery == null) {
+                    break;
+                }
+                if (delivery.rates() != null) {
+                    merge.add(delivery.provider(), delivery.rates());
+                } else {
+                    if (delivery.failure() != null) {
+                        failure.addSuppressed(delivery.failure());
+                    }
+                    merge.done(delivery.provider());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExchangeRateProviderException("Interrupted while waiting for rate providers", e);
+        } finally {
+            fetches.forEach(fetch -> fetch.cancel(true));
+        }
+
+        Instant now = clock.instant();
+        for (int i = 0; i < available.size(); i++) {
+            if (!merge.isDone(i)) {
+                available.get(i).recordTimeout(System.nanoTime() - start);
+            }
+            available.get(i).checkLatency(now);
+        }
+        merge.flush();
+        if (merge.delivered() == 0) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Names of the providers currently skipped because of their latency.
+     */
+    public List<String> getExcludedProviders() {
+        Instant now = clock.instant();
+        return providers.stream().filter(provider -> !provider.isAvailable(now)).map(Provider::name).toList();
+    }
+
+    @Override
+    public void close() throws Exception {
+        executor.shutdownNow();
+        for (Provider provider : providers) {
+            if (provider.client() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private List<Provider> availableProviders() {
+        Instant now = clock.instant();
+        List<Provider> available = providers.stream().filter(provider -> provider.isAvailable(now)).toList();
+        return available.isEmpty() ? providers : available;
+    }
+
+    private static BigDecimal median(List<BigDecimal> rates) {
+        rates.sort(null);
+        int middle = rates.size() / 2;
+        if (rates.size() % 2 == 1) {
+            return rates.get(middle);
+        }
+        return rates.get(middle - 1).add(rates.get(middle)).divide(TWO, MEDIAN_SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Quotes of one base currency delivered by a provider, or the end of that provider's fetch when {@code rates}
+     * is {@code null}, with the exception it failed with, if any.
+     */
+    private record Delivery(int provider, ExternalRateDto rates, RuntimeException failure) {
+    }
+
+    /**
+     * Merge state of one refresh, only touched by the calling thread.
+     */
+    private final class Merge {
+
+        private final BitSet done;
+
+        private final int providerCount;
+
+        private final Consumer<ExternalRateDto> sink;
+
+        private final Map<String, PendingBase> pending = new LinkedHashMap<>();
+
+        private final Set<String> merged = new HashSet<>();
+
+        private int delivered;
+
+        private Merge(int providerCount, Consumer<ExternalRateDto> sink) {
+            this.providerCount = providerCount;
+            this.done = new BitSet(providerCount);
+            this.sink = sink;
+        }
+
+        private int running() {
+            return providerCount - done.cardinality();
+        }
+
+        private boolean isDone(int provider) {
+            return done.get(provider);
+        }
+
+        private int delivered() {
+            return delivered;
+        }
+
+        private void add(int provider, ExternalRateDto rates) {
+            if (rates.getQuotes() == null || rates.getQuotes().isEmpty() || merged.contains(rates.getSource())) {
+                return;
+            }
+            if (aggregation.getMode() == ProviderProperties.AggregationMode.HEDGED) {
+                merged.add(rates.getSource());
+                deliver(rates);
+                return;
+            }
+            PendingBase base = pending.computeIfAbsent(rates.getSource(), PendingBase::new);
+            base.add(provider, rates.getQuotes());
+            if (base.isComplete()) {
+                complete(base);
+            }
+        }
+
+        private void done(int provider) {
+            done.set(provider);
+            for (PendingBase base : List.copyOf(pending.values())) {
+                if (base.isComplete()) {
+                    complete(base);
+                }
+            }
+        }
+
+        private void flush() {
+            for (PendingBase base : List.copyOf(pending.values())) {
+                complete(base);
+            }
+        }
+
+        private void complete(PendingBase base) {
+            pending.remove(base.source);
+            merged.add(base.source);
+            Map<String, BigDecimal> medians = new HashMap<>();
+            base.quotes.forEach((pair, rates) -> {
+                if (rates.size() >= aggregation.getQuorum()) {
+                    medians.put(pair, median(rates));
+                }
+            });
+            if (!medians.isEmpty()) {
+                deliver(new ExternalRateDto(base.source, medians));
+            }
+        }
+
+        private void deliver(ExternalRateDto rates) {
+            delivered++;
+            sink.accept(rates);
+        }
+
+        private final class PendingBase {
+
+            private final String source;
+
+            private final BitSet answered = new BitSet(providerCount);
+
+            private final Map<String, List<BigDecimal>> quotes = new HashMap<>();
+
+            private PendingBase(String source) {
+                this.source = source;
+            }
+
+            private void add(int provider, Map<String, BigDecimal> providerQuotes) {
+                answered.set(provider);
+                providerQuotes.forEach((pair, rate) -> quotes.computeIfAbsent(pair, key -> new ArrayList<>()).add(rate));
+            }
+
+            /**
+             * Whether every provider has either quoted this base or finished without it.
+             */
+            private boolean isComplete() {
+                BitSet settled = (BitSet) answered.clone();
+                settled.or(done);
+                return settled.cardinality() == providerCount;
+            }
+        }
+    }
+
+    private final class Provider {
+
+        private final String name;
+
+        private final ExternalExchangeRateClient client;
+
+        private final Timer latency;
+
+        private final AtomicInteger samples = new AtomicInteger();
+
+        private volatile Instant excludedUntil = Instant.MIN;
+
+        private Provider(String name, ExternalExchangeRateClient client, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.client = client;
+            this.latency = Timer.builder("currency.provider.latency")
+                                .description("Time from the start of a refresh until a provider delivered a base currency")
+                                .tag("provider", name)
+                                .publishPercentiles(0.5, 0.99)
+                                .publishPercentileHistogram()
+                                .distributionStatisticExpiry(aggregation.getLatencyWindow())
+                                .register(meterRegistry);
+        }
+
+        private String name() {
+            return name;
+        }
+
+        private ExternalExchangeRateClient client() {
+            return client;
+        }
+
+        private boolean isAvailable(Instant now) {
+            return !now.isBefore(excludedUntil);
+        }
+
+        /**
+         * Streams the rates of the provider, recording for every base how long after {@code start} it arrived.
+         * A failed fetch is recorded once, with the time it took to fail.
+         */
+        private void fetch(long start, Consumer<ExternalRateDto> sink) {
+            try {
+                client.fetchExchangeRates(rates -> {
+                    record(System.nanoTime() - start);
+                    sink.accept(rates);
+                });
+            } catch (RuntimeException e) {
+                record(System.nanoTime() - start);
+                throw e;
+            }
+        }
+
+        private void recordTimeout(long nanos) {
+            record(nanos);
+        }
+
+        private void record(long nanos) {
+            latency.record(nanos, TimeUnit.NANOSECONDS);
+            samples.incrementAndGet();
+        }
+
+        /**
+         * Excludes the provider when enough samples were recorded since it was last excluded and the p99 of the
+         * latency window exceeds the budget.
+         */
+        private void checkLatency(Instant now) {
+            if (samples.get() >= aggregation.getMinLatencySamples() && p99Nanos() > aggregation.getLatencyBudget().toNanos()) {
+                excludedUntil = now.plus(aggregation.getExclusionCooldown());
+                samples.set(0);
+            }
+        }
+
+        private double p99Nanos() {
+            for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+                if (percentile.percentile() == 0.99) {
+                    return percentile.value(TimeUnit.NANOSECONDS);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -3,8 +3,17 @@ package com.currency.app.client;
 import com.currency.app.client.dto.ExternalRateDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ExternalExchangeRateClient {
 
     List<ExternalRateDto> getCurrentExchangeRates();
+
+    /**
+     * Passes the quotes of every base currency to the sink as soon as they are available.
+     * The sink is always called on the calling thread.
+     */
+    default void fetchExchangeRates(Consumer<ExternalRateDto> sink) {
+        getCurrentExchangeRates().forEach(sink);
+    }
 }
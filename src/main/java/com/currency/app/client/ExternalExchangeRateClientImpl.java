@@ -1,13 +1,14 @@
 package com.currency.app.client;
 
 import com.currency.app.client.dto.ExternalRateDto;
-import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.security.SecureRandom;
 import java.util.*;
 
-@Component
+/**
+ * Simulated provider used when no HTTP provider endpoint is configured.
+ */
 public class ExternalExchangeRateClientImpl implements ExternalExchangeRateClient {
 
     private static final List<String> AVAILABLE_CURRENCIES = Arrays.asList(
@@ -37,10 +38,9 @@ public class ExternalExchangeRateClientImpl implements ExternalExchangeRateClien
 
             for (String targetCurrency : AVAILABLE_CURRENCIES) {
                 if (!targetCurrency.equals(baseCurrency)) {
-                    String quotePair = baseCurrency + targetCurrency;
                     BigDecimal baseRate = getBaseRate(baseCurrency, targetCurrency);
                     BigDecimal currentRate = generateRandomRate(baseRate);
-                    quotes.put(quotePair, currentRate);
+                    quotes.put(targetCurrency, currentRate);
                 }
             }
 
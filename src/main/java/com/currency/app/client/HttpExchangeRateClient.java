@@ -0,0 +1,153 @@
+package com.currency.app.client;
+
+import com.currency.app.client.dto.ExternalRateDto;
+import com.currency.app.config.ProviderProperties;
+import com.currency.app.exception.ExchangeRateProviderException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Fetches quotes from an HTTP provider with one request per base currency.
+ * Requests run concurrently on a pool bounded by the provider's {@code max-concurrency}, each with its own
+ * timeout and retried with exponential backoff. Results are handed to the caller in completion order, so a
+ * refresh takes as long as the slowest request rather than the sum of all of them.
+ */
+public class HttpExchangeRateClient implements ExternalExchangeRateClient, AutoCloseable {
+
+    private final String name;
+
+    private final ProviderProperties.Endpoint endpoint;
+
+    private final List<String> currencies;
+
+    private final ObjectMapper objectMapper;
+
+    private final HttpClient httpClient;
+
+    private final ExecutorService executor;
+
+    public HttpExchangeRateClient(String name, ProviderProperties.Endpoint endpoint, List<String> currencies, ObjectMapper objectMapper) {
+        this.name = name;
+        this.endpoint = endpoint;
+        this.currencies = List.copyOf(currencies);
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(endpoint.getConnectTimeout()).build();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(endpoint.getMaxConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "rate-provider-" + name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public List<ExternalRateDto> getCurrentExchangeRates() {
+        List<ExternalRateDto> rates = new ArrayList<>(currencies.size());
+        fetchExchangeRates(rates::add);
+        return rates;
+    }
+
+    /**
+     * Delivers every base currency that could be fetched, then throws if any of them failed after all retries.
+     */
+    @Override
+    public void fetchExchangeRates(Consumer<ExternalRateDto> sink) {
+        CompletionService<ExternalRateDto> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<ExternalRateDto>> futures = new ArrayList<>(currencies.size());
+        currencies.forEach(baseCurrency -> futures.add(completionService.submit(() -> fetch(baseCurrency))));
+
+        ExchangeRateProviderException failure = null;
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    sink.accept(completionService.take().get());
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = new ExchangeRateProviderException("Failed to fetch exchange rates from " + name);
+                    }
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExchangeRateProviderException("Interrupted while fetching exchange rates from " + name, e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private ExternalRateDto fetch(String baseCurrency) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint.getBaseUrl() + "/live?source=" + baseCurrency))
+                                         .timeout(endpoint.getRequestTimeout())
+                                         .header("Accept", "application/json")
+                                         .GET()
+                                         .build();
+        Duration backoff = endpoint.getInitialBackoff();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                int status = response.statusCode();
+                if (status == 200) {
+                    ExternalRateDto rates = objectMapper.readValue(response.body(), ExternalRateDto.class);
+                    if (rates.getSource() == null) {
+                        rates.setSource(baseCurrency);
+                    }
+                    return rates;
+                }
+                if (!isRetryable(status) || attempt >= endpoint.getMaxAttempts()) {
+                    throw new ExchangeRateProviderException(name + " returned HTTP " + status + " for " + baseCurrency);
+                }
+            } catch (IOException e) {
+                if (attempt >= endpoint.getMaxAttempts()) {
+                    throw new IOException("Failed to fetch " + baseCurrency + " from " + name + " after " + attempt + " attempts", e);
+                }
+            }
+
+            Thread.sleep(jitter(backoff));
+            backoff = min(backoff.multipliedBy(2), endpoint.getMaxBackoff());
+        }
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    private static long jitter(Duration backoff) {
+        long millis = backoff.toMillis();
+        return millis / 2 + ThreadLocalRandom.current().nextLong(millis / 2 + 1);
+    }
+
+    private static Duration min(Duration duration, Duration other) {
+        return duration.compareTo(other) <= 0 ? duration : other;
+    }
+}
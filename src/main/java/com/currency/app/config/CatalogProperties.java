@@ -0,0 +1,17 @@
+package com.currency.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "currency.catalog")
+public class CatalogProperties {
+
+    /**
+     * How long the in-process currency catalog is served before it is reloaded, so currencies added on other
+     * nodes show up. Local changes reload it immediately.
+     */
+    private Duration refreshInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,33 @@
+package com.currency.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.RoundingMode;
+
+@Data
+@ConfigurationProperties(prefix = "currency.conversion")
+public class ConversionProperties {
+
+    /**
+     * Currency used to triangulate pairs that have no direct or inverse quote.
+     */
+    private String pivotCurrency = "USD";
+
+    /**
+     * Number of decimal places of converted amounts.
+     */
+    private int scale = 2;
+
+    private RoundingMode roundingMode = RoundingMode.HALF_EVEN;
+
+    /**
+     * Number of batch items parsed, converted and written together; bounds the memory of a batch request.
+     */
+    private int batchChunkSize = 1024;
+
+    /**
+     * Threads converting a batch chunk in parallel.
+     */
+    private int batchParallelism = Runtime.getRuntime().availableProcessors();
+}
@@ -0,0 +1,22 @@
+package com.currency.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "currency.database")
+public class DatabaseProperties {
+
+    /**
+     * Maximum number of connections handed out at once when running on virtual threads; 0 uses the maximum size
+     * of the connection pool.
+     */
+    private int maxConcurrency = 0;
+
+    /**
+     * How long a caller waits for a connection permit before the request fails.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,33 @@
+package com.currency.app.config;
+
+import com.currency.app.client.AggregatingExchangeRateClient;
+import com.currency.app.client.ExternalExchangeRateClient;
+import com.currency.app.client.ExternalExchangeRateClientImpl;
+import com.currency.app.client.HttpExchangeRateClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+public class ExchangeRateClientConfig {
+
+    @Bean
+    public ExternalExchangeRateClient exchangeRateClient(ProviderProperties providerProperties, ObjectMapper objectMapper,
+                                                          MeterRegistry meterRegistry) {
+        Map<String, HttpExchangeRateClient> clients = new LinkedHashMap<>();
+        providerProperties.getEndpoints()
+                          .forEach((name, endpoint) -> clients.put(name, new HttpExchangeRateClient(name, endpoint, providerProperties.getCurrencies(), objectMapper)));
+
+        if (clients.isEmpty()) {
+            return new ExternalExchangeRateClientImpl();
+        }
+        if (clients.size() == 1) {
+            return clients.values().iterator().next();
+        }
+        return new AggregatingExchangeRateClient(clients, providerProperties.getAggregation(), meterRegistry);
+    }
+}
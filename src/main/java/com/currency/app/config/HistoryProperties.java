@@ -0,0 +1,36 @@
+package com.currency.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "currency.history")
+public class HistoryProperties {
+
+    /**
+     * Cron expression of the job creating partitions, rolling up and expiring rate history.
+     */
+    private String maintenanceCron = "0 5 * * * *";
+
+    /**
+     * Number of future monthly partitions kept ready on PostgreSQL.
+     */
+    private int partitionsAhead = 2;
+
+    /**
+     * How long raw rates are kept. The latest rate of every pair is always kept.
+     */
+    private Duration rawRetention = Duration.ofDays(90);
+
+    /**
+     * How long hourly rollups are kept; daily rollups are kept forever.
+     */
+    private Duration hourlyRetention = Duration.ofDays(400);
+
+    /**
+     * Largest number of points a single history request may ask for.
+     */
+    private int maxHistoryPoints = 10_000;
+}
@@ -0,0 +1,108 @@
+package com.currency.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "currency.provider")
+public class ProviderProperties {
+
+    /**
+     * Base currencies requested from the providers, one request per currency.
+     */
+    private List<String> currencies = List.of("USD", "EUR", "GBP", "JPY", "AUD", "CAD", "CHF", "PLN", "SEK", "NOK");
+
+    /**
+     * HTTP rate providers by name. Without any endpoint the built-in simulated provider is used.
+     */
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    /**
+     * How the answers are combined when more than one endpoint is configured.
+     */
+    private Aggregation aggregation = new Aggregation();
+
+    @Data
+    public static class Endpoint {
+
+        /**
+         * Provider URL; quotes of a base currency are requested from {@code <base-url>/live?source=<code>}.
+         */
+        private String baseUrl;
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        private Duration requestTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Attempts per base currency, including the first one.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Delay before the first retry, doubled after every further failure up to {@code max-backoff}.
+         */
+        private Duration initialBackoff = Duration.ofMillis(200);
+
+        private Duration maxBackoff = Duration.ofSeconds(2);
+
+        /**
+         * Maximum number of requests in flight against this provider.
+         */
+        private int maxConcurrency = 8;
+    }
+
+    @Data
+    public static class Aggregation {
+
+        private AggregationMode mode = AggregationMode.MEDIAN;
+
+        /**
+         * Minimum number of providers that must quote a pair for it to be used in {@code MEDIAN} mode.
+         */
+        private int quorum = 1;
+
+        /**
+         * Longest a refresh waits for providers; answers arriving later are ignored.
+         */
+        private Duration timeout = Duration.ofSeconds(10);
+
+        /**
+         * Providers whose p99 latency, the time from the start of a refresh until a base currency arrives, exceeds
+         * this budget are skipped for {@code exclusion-cooldown}.
+         */
+        private Duration latencyBudget = Duration.ofSeconds(5);
+
+        /**
+         * How long latency samples count towards the p99. Keep it no longer than {@code exclusion-cooldown}, or a
+         * provider coming back from a cooldown is judged on the samples that excluded it.
+         */
+        private Duration latencyWindow = Duration.ofMinutes(10);
+
+        /**
+         * Number of samples, one per delivered base currency, required since the last exclusion before a provider
+         * can be excluded.
+         */
+        private int minLatencySamples = 5;
+
+        private Duration exclusionCooldown = Duration.ofMinutes(10);
+    }
+
+    public enum AggregationMode {
+
+        /**
+         * All providers are asked at once and the first valid answer wins.
+         */
+        HEDGED,
+
+        /**
+         * All providers are asked at once and every pair gets the median of the quotes that arrived in time.
+         */
+        MEDIAN
+    }
+}
@@ -0,0 +1,114 @@
+package com.currency.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "currency.rates")
+public class RateProperties {
+
+    /**
+     * Cron expression of the scheduled rate refresh.
+     */
+    private String refreshCron = "0 0 * * * *";
+
+    /**
+     * Rates that moved by less than this since the published value are not stored again,
+     * only confirmed as still valid. The default ignores moves below the stored precision of 6 decimals.
+     */
+    private BigDecimal changeTolerance = new BigDecimal("0.000001");
+
+    /**
+     * How long a rate stream stays open before the client has to reconnect.
+     */
+    private Duration streamTimeout = Duration.ofMinutes(30);
+
+    /**
+     * Threads writing rate updates to stream subscribers.
+     */
+    private int streamSenderThreads = 4;
+
+    /**
+     * Rate updates queued per stream subscriber; a subscriber whose queue overflows is disconnected.
+     */
+    private int streamQueueCapacity = 16;
+
+    /**
+     * Longest a single event may take to be written to a stream subscriber before it is disconnected.
+     */
+    private Duration streamSendTimeout = Duration.ofSeconds(10);
+
+    /**
+     * How far back the in-memory tier keeps the history of every pair.
+     */
+    private Duration historyRetention = Duration.ofDays(7);
+
+    /**
+     * Granularity of the in-memory history; later changes within the same slot replace earlier ones.
+     */
+    private Duration historyResolution = Duration.ofHours(1);
+
+    /**
+     * Local file the published rates are copied to after every refresh and warmed up from at startup.
+     * Warm-up reads the database when no file is configured, the file is missing or it is older than {@link #snapshotMaxAge}.
+     */
+    private Path snapshotFile;
+
+    /**
+     * Oldest snapshot file still used for warm-up.
+     */
+    private Duration snapshotMaxAge = Duration.ofHours(2);
+
+    /**
+     * How long a base currency without any stored rates is answered as empty without querying the database again.
+     */
+    private Duration negativeCacheTtl = Duration.ofMinutes(1);
+
+    /**
+     * Most base currencies remembered as having no rates.
+     */
+    private int negativeCacheSize = 10_000;
+
+    /**
+     * Whether tiers that allow it, such as the database, are written asynchronously after the in-memory tier.
+     */
+    private boolean writeBehind = true;
+
+    /**
+     * Writes queued per write-behind tier before writers have to wait for the queue to drain.
+     */
+    private int writeBehindQueueCapacity = 10_000;
+
+    /**
+     * How long shutdown waits for queued writes to be applied.
+     */
+    private Duration writeBehindDrainTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Most writes applied to a write-behind tier in one batch.
+     */
+    private int writeBehindFlushSize = 50;
+
+    /**
+     * Longest time a write waits for its batch to fill up; also the delay before a failed batch is retried.
+     */
+    private Duration writeBehindFlushInterval = Duration.ofSeconds(1);
+
+    /**
+     * How often a batch is retried when a write-behind tier rejects it for a reason other than a transient one, such
+     * as a constraint violation; its writes are then applied one by one and those still failing are dead-lettered.
+     */
+    private int writeBehindMaxRetries = 5;
+
+    /**
+     * Directory of the journals that keep queued writes across crashes, one file per write-behind tier.
+     * Without it, writes still queued when the process dies are lost. Dead-lettered writes are appended to a
+     * {@code .dead-letter} journal next to it. Must be absolute, so the journals do not move with the working
+     * directory the process happens to be started from.
+     */
+    private Path writeBehindJournalDir;
+}
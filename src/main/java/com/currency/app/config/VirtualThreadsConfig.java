@@ -0,0 +1,65 @@
+package com.currency.app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Settings that only apply with {@code spring.threads.virtual.enabled=true} on Java 21, where Spring Boot already
+ * runs Tomcat requests, {@code @Scheduled} jobs and the application task executor on virtual threads.
+ * <p>
+ * The database is then the scarce resource, so the data source is wrapped in a
+ * {@link ConcurrencyLimitedDataSource}. The JPA/JDBC path was audited for pinning: HikariCP 5.1 and the PostgreSQL
+ * driver 42.7 guard I/O with locks instead of monitors, and the few places in this application that blocked while
+ * holding a monitor (the currency catalog reload, the write-behind queue and its journal) use locks as well.
+ * The remaining {@code synchronized} sections only guard short in-memory work. Run with
+ * {@code -Djdk.tracePinnedThreads=short} to report any pinning that remains.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    @Bean
+    static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(ObjectProvider<DatabaseProperties> databaseProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                DatabaseProperties properties = databaseProperties.getObject();
+                int maxConcurrency = properties.getMaxConcurrency();
+                if (maxConcurrency <= 0) {
+                    if (!(dataSource instanceof HikariDataSource hikari)) {
+                        return bean;
+                    }
+                    maxConcurrency = hikari.getMaximumPoolSize();
+                }
+                return new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, properties.getAcquireTimeout());
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder concurrencyLimitedDataSourceMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream()
+                                      .filter(ConcurrencyLimitedDataSource.class::isInstance)
+                                      .map(ConcurrencyLimitedDataSource.class::cast)
+                                      .forEach(limited -> {
+                                          Gauge.builder("currency.database.permits.available", limited, ConcurrencyLimitedDataSource::getAvailablePermits)
+                                               .description("Database connection permits not in use")
+                                               .register(registry);
+                                          Gauge.builder("currency.database.permits.waiting", limited, ConcurrencyLimitedDataSource::getQueueLength)
+                                               .description("Threads waiting for a database connection permit")
+                                               .register(registry);
+                                      });
+    }
+}
@@ -0,0 +1,52 @@
+package com.currency.app.controller;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Reads the content codings a client accepts from its {@code Accept-Encoding} header.
+ */
+final class AcceptEncoding {
+
+    private static final String GZIP = "gzip";
+
+    private static final String WILDCARD = "*";
+
+    private AcceptEncoding() {
+    }
+
+    /**
+     * Returns whether gzip is accepted: listed with a non-zero quality, or not listed while the wildcard is.
+     * {@code x-gzip} does not count, since the response is labelled {@code gzip}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return false;
+        }
+        double wildcardQuality = 0;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            if (name.equalsIgnoreCase(GZIP)) {
+                return quality(parameters) > 0;
+            }
+            if (name.equals(WILDCARD)) {
+                wildcardQuality = quality(parameters);
+            }
+        }
+        return wildcardQuality > 0;
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.length() > 2 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,135 @@
+package com.currency.app.controller;
+
+import com.currency.app.config.ConversionProperties;
+import com.currency.app.controller.dto.ConversionDto;
+import com.currency.app.controller.dto.ConversionRequestDto;
+import com.currency.app.exception.RateNotFoundException;
+import com.currency.app.service.CrossRateTable;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Converts batches of amounts as a stream.
+ * The request is read in chunks with Jackson's streaming parser, each chunk is converted on a bounded
+ * fork-join pool and written out before the next one is parsed, so memory stays constant regardless of the
+ * batch size. Items that cannot be converted are reported inline with an error instead of failing the batch.
+ */
+@Component
+public class BatchConversionProcessor {
+
+    private final ObjectMapper objectMapper;
+
+    private final int chunkSize;
+
+    private final ForkJoinPool conversionPool;
+
+    public BatchConversionProcessor(ObjectMapper objectMapper, ConversionProperties conversionProperties) {
+        this.objectMapper = objectMapper;
+        this.chunkSize = conversionProperties.getBatchChunkSize();
+        this.conversionPool = new ForkJoinPool(conversionProperties.getBatchParallelism());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        conversionPool.shutdown();
+    }
+
+    /**
+     * Reads either a JSON array or newline-delimited JSON objects and writes the results in the same order,
+     * as a JSON array or as NDJSON.
+     */
+    public void convert(CrossRateTable crossRates, InputStream input, OutputStream output, boolean ndjson) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(input);
+             JsonGenerator generator = objectMapper.createGenerator(output)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+
+            boolean array = parser.nextToken() == JsonToken.START_ARRAY;
+            if (array) {
+                parser.nextToken();
+            }
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+
+            ConversionRequestDto[] requests = new ConversionRequestDto[chunkSize];
+            ConversionDto[] results = new ConversionDto[chunkSize];
+            int size;
+            while ((size = readChunk(parser, requests)) > 0) {
+                int chunk = size;
+                conversionPool.submit(() -> IntStream.range(0, chunk)
+                                                     .parallel()
+                                                     .forEach(i -> results[i] = convert(crossRates, requests[i])))
+                              .join();
+                for (int i = 0; i < chunk; i++) {
+                    generator.writeObject(results[i]);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                }
+                generator.flush();
+            }
+
+            JsonToken end = parser.currentToken();
+            if (array ? end != JsonToken.END_ARRAY : end != null) {
+                throw new JsonParseException(parser, "Expected conversion object but found " + end);
+            }
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    public ConversionDto convert(CrossRateTable crossRates, String from, String to, BigDecimal amount) {
+        return ConversionDto.builder()
+                            .from(from)
+                            .to(to)
+                            .amount(amount)
+                            .rate(crossRates.getRate(from, to))
+                            .result(crossRates.convert(from, to, amount))
+                            .build();
+    }
+
+    private ConversionDto convert(CrossRateTable crossRates, ConversionRequestDto request) {
+        if (request.getFrom() == null || request.getTo() == null || request.getAmount() == null) {
+            return failed(request, "Missing from, to or amount");
+        }
+        try {
+            return convert(crossRates, request.getFrom(), request.getTo(), request.getAmount());
+        } catch (RateNotFoundException e) {
+            return failed(request, e.getMessage());
+        }
+    }
+
+    private ConversionDto failed(ConversionRequestDto request, String error) {
+        return ConversionDto.builder()
+                            .from(request.getFrom())
+                            .to(request.getTo())
+                            .amount(request.getAmount())
+                            .error(error)
+                            .build();
+    }
+
+    private int readChunk(JsonParser parser, ConversionRequestDto[] requests) throws IOException {
+        int size = 0;
+        while (size < requests.length && parser.currentToken() == JsonToken.START_OBJECT) {
+            requests[size++] = parser.readValueAs(ConversionRequestDto.class);
+            parser.nextToken();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,100 @@
+package com.currency.app.controller;
+
+import com.currency.app.controller.dto.ConversionDto;
+import com.currency.app.controller.dto.ConversionRequestDto;
+import com.currency.app.exception.RateNotFoundException;
+import com.currency.app.service.ConversionService;
+import com.currency.app.service.CrossRateTable;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * REST Controller for converting amounts between currencies.
+ * Rates come from the cross-rate table of the current in-memory snapshot, so pairs without a direct
+ * quote are triangulated through the configured pivot currency.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+@RequestMapping("/api/v1")
+@Tag(name = "Conversion Controller", description = "Currency conversion operations API")
+public class ConversionController {
+
+    private final ConversionService conversionService;
+
+    private final BatchConversionProcessor batchConversionProcessor;
+
+    /**
+     * Converts a single amount.
+     *
+     * @param from   the source currency code
+     * @param to     the target currency code
+     * @param amount the amount in the source currency
+     * @return Conversion result with the applied rate
+     * @throws RateNotFoundException if no rate connects the two currencies
+     */
+    @GetMapping("/convert")
+    @Operation(summary = "Convert amount between currencies")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully converted amount"), @ApiResponse(responseCode = "404", description = "No rate available for the pair"), @ApiResponse(responseCode = "500", description = "Internal server error occurred")})
+    public ConversionDto convert(
+            @Parameter(description = "Source currency code (e.g., USD)", required = true) @RequestParam String from,
+            @Parameter(description = "Target currency code (e.g., EUR)", required = true) @RequestParam String to,
+            @Parameter(description = "Amount to convert", required = true) @RequestParam BigDecimal amount) {
+        return batchConversionProcessor.convert(conversionService.getCrossRates(), from, to, amount);
+    }
+
+    /**
+     * Converts several amounts against the same rate snapshot.
+     *
+     * @param requests the amounts to convert
+     * @return Conversion results in request order
+     * @throws RateNotFoundException if no rate connects one of the pairs
+     */
+    @PostMapping("/convert")
+    @Operation(summary = "Convert several amounts between currencies")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully converted amounts"), @ApiResponse(responseCode = "404", description = "No rate available for one of the pairs"), @ApiResponse(responseCode = "500", description = "Internal server error occurred")})
+    public List<ConversionDto> convertAll(
+            @Parameter(description = "Amounts to convert", required = true) @RequestBody List<ConversionRequestDto> requests) {
+        CrossRateTable crossRates = conversionService.getCrossRates();
+        return requests.stream()
+                       .map(request -> batchConversionProcessor.convert(crossRates, request.getFrom(), request.getTo(), request.getAmount()))
+                       .toList();
+    }
+
+    /**
+     * Converts a large batch of amounts as a stream, pinned to one rate snapshot.
+     * Accepts a JSON array or newline-delimited JSON and answers in the same format.
+     *
+     * @param contentType the request content type, {@code application/json} or {@code application/x-ndjson}
+     * @param body        the stream of {@code {from, to, amount}} objects
+     * @return Conversion results streamed in request order; failed items carry an {@code error} field
+     */
+    @PostMapping(value = "/conversions:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Stream conversions of a large batch of amounts")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Conversion results streamed"), @ApiResponse(responseCode = "500", description = "Internal server error occurred")})
+    public ResponseEntity<StreamingResponseBody> convertBatch(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType);
+        CrossRateTable crossRates = conversionService.getCrossRates();
+        StreamingResponseBody stream = output -> batchConversionProcessor.convert(crossRates, body, output, ndjson);
+
+        return ResponseEntity.ok()
+                             .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                             .body(stream);
+    }
+}
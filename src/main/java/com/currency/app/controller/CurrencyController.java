@@ -1,22 +1,43 @@
 package com.currency.app.controller;
 
+import com.currency.app.controller.RatePayloadCache.RatePayload;
+import com.currency.app.config.HistoryProperties;
 import com.currency.app.controller.dto.CurrencyDto;
 import com.currency.app.controller.dto.ExchangeRateDto;
+import com.currency.app.controller.dto.RateStatsDto;
 import com.currency.app.entity.Currency;
 import com.currency.app.exception.CurrencyAlreadyExistsException;
+import com.currency.app.exception.CurrencyNotFoundException;
+import com.currency.app.exception.InvalidRateQueryException;
 import com.currency.app.mapper.CurrencyMapper;
+import com.currency.app.service.CurrencyCatalog;
 import com.currency.app.service.CurrencyService;
+import com.currency.app.service.RateHistoryService;
+import com.currency.app.service.RateSnapshot;
 import com.currency.app.service.RateStorageService;
+import com.currency.app.service.RefreshSchedule;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +47,7 @@ import java.util.Map;
  * as well as adding new currencies to the system.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/currencies")
 @Tag(name = "Currency Controller", description = "Currency exchange rate operations API")
@@ -37,32 +59,160 @@ public class CurrencyController {
 
     private final CurrencyMapper currencyMapper;
 
+    private final RefreshSchedule refreshSchedule;
+
+    private final RatePayloadCache ratePayloadCache;
+
+    private final RateUpdateBroadcaster rateUpdateBroadcaster;
+
+    private final RateHistoryService rateHistoryService;
+
+    private final RateHistoryWriter rateHistoryWriter;
+
+    private final HistoryProperties historyProperties;
+
     /**
      * Retrieves all currencies currently supported by the system.
+     * The catalog is served from memory and carries a precomputed ETag, so unchanged catalogs are answered
+     * with 304 without touching the database or being serialized.
      *
      * @return List of available currencies
      */
     @GetMapping
     @Operation(summary = "Get all supported currencies")
-    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully retrieved list of currencies"), @ApiResponse(responseCode = "500", description = "Internal server error occurred")})
-    public List<CurrencyDto> getAllCurrencies() {
-        List<Currency> currencies = currencyService.getAllCurrencies();
-        return currencyMapper.toDtoList(currencies);
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully retrieved list of currencies"), @ApiResponse(responseCode = "304", description = "Currency list not modified"), @ApiResponse(responseCode = "500", description = "Internal server error occurred")})
+    public ResponseEntity<List<CurrencyDto>> getAllCurrencies(WebRequest webRequest) {
+        CurrencyCatalog catalog = currencyService.getCatalog();
+        if (webRequest.checkNotModified(catalog.etag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                             .cacheControl(CacheControl.noCache())
+                             .body(currencyMapper.toDtoList(catalog.currencies()));
     }
 
     /**
      * Retrieves current exchange rates for the specified currency code.
+     * Rates served from the in-memory snapshot are written from pre-encoded (optionally gzipped) JSON, carry an
+     * ETag derived from the snapshot version and Last-Modified and may be cached until the next scheduled refresh;
+     * conditional requests are answered with 304 before any rates are read or serialized.
+     * With {@code at} the rates in effect at that time are looked up in the rate history instead.
+     * Clients accepting {@code application/x-protobuf} or {@code application/cbor} get the compact rate table
+     * of {@code /schema/rates.proto} instead of JSON.
      *
      * @param code the three-letter currency code (e.g., "USD", "EUR")
+     * @param at   optional point in time of the rates
      * @return Exchange rates for the specified currency
      */
     @GetMapping("/{code}/rates")
     @Operation(summary = "Get exchange rates for currency")
-    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully retrieved exchange rates"), @ApiResponse(responseCode = "404", description = "Currency not found"), @ApiResponse(responseCode = "500", description = "Internal server error occurred")})
-    public ExchangeRateDto getExchangeRates(
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully retrieved exchange rates"), @ApiResponse(responseCode = "304", description = "Exchange rates not modified"), @ApiResponse(responseCode = "404", description = "Currency not found"), @ApiResponse(responseCode = "500", description = "Internal server error occurred")})
+    public ResponseEntity<?> getExchangeRates(
+            @Parameter(description = "Currency code (e.g., USD)", required = true) @PathVariable String code,
+            @Parameter(description = "Point in time of the rates (e.g., 2024-01-01T12:00:00)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            WebRequest webRequest,
+            HttpServletResponse response) {
+        RateWireFormat format = RateWireFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (at != null) {
+            return rates(code, rateHistoryService.getRatesAt(code, at), format);
+        }
+
+        RateSnapshot snapshot = rateStorageService.getPublishedSnapshot();
+        RatePayload payload = ratePayloadCache.get(code, snapshot);
+        if (payload == null) {
+            return rates(code, rateStorageService.getAllRatesForCurrency(code), format);
+        }
+        return payload(payload, format, snapshot, webRequest, response);
+    }
+
+    /**
+     * Retrieves the current exchange rates of every base currency, keyed by base and then target currency.
+     * The table is encoded once per published snapshot and cached like the rates of a single currency; binary
+     * formats list each currency code once and reference it by index, so they are a fraction of the JSON size.
+     *
+     * @return Exchange rates of all currencies
+     */
+    @GetMapping("/rates")
+    @Operation(summary = "Get exchange rates of all currencies")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully retrieved exchange rates"), @ApiResponse(responseCode = "304", description = "Exchange rates not modified"), @ApiResponse(responseCode = "500", description = "Internal server error occurred")})
+    public ResponseEntity<?> getAllExchangeRates(WebRequest webRequest, HttpServletResponse response) {
+        RateWireFormat format = RateWireFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        RateSnapshot snapshot = rateStorageService.getPublishedSnapshot();
+        return payload(ratePayloadCache.getAll(snapshot), format, snapshot, webRequest, response);
+    }
+
+    /**
+     * Retrieves the current exchange rates for the specified currency code together with their change, low and
+     * high over the last 24 hours, precomputed by the in-memory rate history.
+     *
+     * @param code the three-letter currency code (e.g., "USD", "EUR")
+     * @return Exchange rate statistics for the specified currency
+     * @throws CurrencyNotFoundException if the currency is not in the catalog
+     */
+    @GetMapping("/{code}/rates/stats")
+    @Operation(summary = "Get 24 hour exchange rate statistics for currency")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully retrieved exchange rate statistics"), @ApiResponse(responseCode = "404", description = "Currency not found"), @ApiResponse(responseCode = "500", description = "Internal server error occurred")})
+    public RateStatsDto getExchangeRateStats(
             @Parameter(description = "Currency code (e.g., USD)", required = true) @PathVariable String code) {
-        Map<String, BigDecimal> rates = rateStorageService.getAllRatesForCurrency(code);
-        return new ExchangeRateDto(code, rates);
+        requireCurrency(code);
+        return new RateStatsDto(code, rateStorageService.getRateStats(code));
+    }
+
+    /**
+     * Retrieves the history of one currency pair sampled at a fixed interval.
+     * Every point carries the rate in effect at its time; the series is computed and written while the history
+     * is read, so long ranges are never held in memory.
+     *
+     * @param code     the base currency code
+     * @param target   the target currency code
+     * @param from     start of the series, 30 days before {@code to} by default
+     * @param to       end of the series, now by default
+     * @param interval distance between points as an ISO-8601 duration, one hour by default
+     * @return Sampled rate series
+     * @throws InvalidRateQueryException if the range is empty or has too many points
+     */
+    @GetMapping("/{code}/history")
+    @Operation(summary = "Get sampled exchange rate history of a currency pair")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Rate history streamed"), @ApiResponse(responseCode = "400", description = "Invalid time range or interval"), @ApiResponse(responseCode = "500", description = "Internal server error occurred")})
+    public ResponseEntity<StreamingResponseBody> getRateHistory(
+            @Parameter(description = "Base currency code (e.g., USD)", required = true) @PathVariable String code,
+            @Parameter(description = "Target currency code (e.g., EUR)", required = true) @RequestParam String target,
+            @Parameter(description = "Start of the series (e.g., 2024-01-01T00:00:00)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End of the series (e.g., 2024-01-31T00:00:00)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Interval between points (e.g., PT1H)") @RequestParam(defaultValue = "PT1H") Duration interval) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        if (!start.isBefore(end) || interval.isNegative() || interval.isZero()) {
+            throw new InvalidRateQueryException("History needs 'from' before 'to' and a positive interval");
+        }
+        long points = Duration.between(start, end).dividedBy(interval) + 1;
+        if (points > historyProperties.getMaxHistoryPoints()) {
+            throw new InvalidRateQueryException("History of " + points + " points exceeds the limit of "
+                    + historyProperties.getMaxHistoryPoints() + ", use a longer interval");
+        }
+
+        StreamingResponseBody stream = output -> rateHistoryWriter.write(code, target, start, end, interval, output);
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .body(stream);
+    }
+
+    /**
+     * Streams exchange rate changes for the specified currency code as Server-Sent Events.
+     * The first {@code rates} event carries the full current table, later events only the pairs that changed.
+     *
+     * @param code the three-letter currency code (e.g., "USD", "EUR")
+     * @return Event stream of exchange rate updates
+     * @throws CurrencyNotFoundException if the currency is not in the catalog
+     */
+    @GetMapping(value = "/{code}/rates/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream exchange rate updates for currency")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Exchange rate update stream opened"), @ApiResponse(responseCode = "404", description = "Currency not found"), @ApiResponse(responseCode = "500", description = "Internal server error occurred")})
+    public SseEmitter streamExchangeRates(
+            @Parameter(description = "Currency code (e.g., USD)", required = true) @PathVariable String code) {
+        requireCurrency(code);
+        return rateUpdateBroadcaster.subscribe(code);
     }
 
 
@@ -83,4 +233,40 @@ public class CurrencyController {
         Currency savedCurrency = currencyService.addCurrency(currency);
         return currencyMapper.toDto(savedCurrency);
     }
+
+    private void requireCurrency(String code) {
+        if (!currencyService.getCatalog().contains(code)) {
+            throw new CurrencyNotFoundException("Currency " + code + " not found");
+        }
+    }
+
+    private ResponseEntity<?> rates(String code, Map<String, BigDecimal> rates, RateWireFormat format) {
+        if (format == RateWireFormat.JSON) {
+            return ResponseEntity.ok(new ExchangeRateDto(code, rates));
+        }
+        return ResponseEntity.ok()
+                             .contentType(format.getMediaType())
+                             .body(RateTableCodec.encode(format, RateTableCodec.fromRates(code, rates)));
+    }
+
+    private ResponseEntity<byte[]> payload(RatePayload payload, RateWireFormat format, RateSnapshot snapshot, WebRequest webRequest,
+                                           HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(refreshSchedule.untilNextRefresh())
+                                                                  .mustRevalidate()
+                                                                  .getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = format == RateWireFormat.JSON && AcceptEncoding.acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (webRequest.checkNotModified(gzip ? payload.gzipEtag() : payload.etag(format), snapshot.publishedAt().toEpochMilli())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                             .contentType(format.getMediaType())
+                             .headers(headers -> {
+                                 if (gzip) {
+                                     headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                                 }
+                             })
+                             .body(gzip ? payload.gzip() : payload.body(format));
+    }
 }
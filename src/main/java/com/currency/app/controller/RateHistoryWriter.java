@@ -0,0 +1,56 @@
+package com.currency.app.controller;
+
+import com.currency.app.service.RateHistoryService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes a sampled rate series as JSON while it is being read, one point at a time.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateHistoryWriter {
+
+    private final ObjectMapper objectMapper;
+
+    private final RateHistoryService rateHistoryService;
+
+    public void write(String baseCurrency, String targetCurrency, LocalDateTime from, LocalDateTime to, Duration interval,
+                      OutputStream output) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("baseCurrency", baseCurrency);
+            generator.writeStringField("targetCurrency", targetCurrency);
+            generator.writeStringField("from", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(from));
+            generator.writeStringField("to", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(to));
+            generator.writeStringField("interval", interval.toString());
+            generator.writeArrayFieldStart("points");
+            try {
+                rateHistoryService.sampleHistory(baseCurrency, targetCurrency, from, to, interval, point -> {
+                    try {
+                        generator.writeStartObject();
+                        generator.writeStringField("time", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(point.time()));
+                        generator.writeNumberField("rate", point.rate());
+                        generator.writeEndObject();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+}
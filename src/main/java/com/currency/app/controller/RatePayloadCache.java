@@ -0,0 +1,176 @@
+package com.currency.app.controller;
+
+import com.currency.app.controller.dto.ExchangeRateDto;
+import com.currency.app.controller.dto.RateTableDto;
+import com.currency.app.service.RateSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-base cache of encoded {@link ExchangeRateDto} responses, in JSON and in the binary formats of
+ * {@link RateWireFormat}.
+ * Rates do not change between refreshes, so each base is serialized at most once per change of its rates and
+ * format, the first time that format is requested, and the bytes are written straight to the response. An entry is
+ * replaced as soon as the published snapshot reports a newer version for that base; other bases keep their
+ * payloads. The table of all bases is cached per snapshot version.
+ */
+@Component
+@RequiredArgsConstructor
+public class RatePayloadCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<String, RatePayload> payloads = new ConcurrentHashMap<>();
+
+    private volatile RatePayload allRates;
+
+    /**
+     * Returns the payload of the base currency in the given snapshot, or {@code null} when the snapshot has no rates for it.
+     */
+    public RatePayload get(String baseCurrency, RateSnapshot snapshot) {
+        long version = snapshot.getVersion(baseCurrency);
+        if (version == 0) {
+            return null;
+        }
+
+        RatePayload payload = payloads.get(baseCurrency);
+        if (payload != null && payload.version() >= version) {
+            return payload;
+        }
+        return payloads.compute(baseCurrency, (code, current) -> current != null && current.version() >= version
+                ? current
+                : new RatePayload(version, objectMapper, new ExchangeRateDto(code, snapshot.getRates(code)),
+                                 () -> RateTableCodec.fromSnapshot(snapshot, code)));
+    }
+
+    /**
+     * Returns the payload of the rates of every base currency in the given snapshot, keyed by base and then target
+     * currency in JSON.
+     */
+    public RatePayload getAll(RateSnapshot snapshot) {
+        RatePayload payload = allRates;
+        if (payload == null || payload.version() < snapshot.version()) {
+            payload = new RatePayload(snapshot.version(), objectMapper, snapshot.getAllRates(), () -> RateTableCodec.fromSnapshot(snapshot));
+            allRates = payload;
+        }
+        return payload;
+    }
+
+    /**
+     * Encoded representations of one rate response. Each format, and the gzip of the JSON body, is encoded the first
+     * time it is asked for, and its ETag is the MD5 of exactly the bytes served for it. The tags are strong and do
+     * not depend on the snapshot version, which restarts after a warm-up and differs between nodes.
+     */
+    public static final class RatePayload {
+
+        private final long version;
+
+        private final ObjectMapper objectMapper;
+
+        private final Object rates;
+
+        private final Supplier<RateTableDto> table;
+
+        private final ConcurrentHashMap<RateWireFormat, Encoded> encoded = new ConcurrentHashMap<>();
+
+        private volatile Encoded gzip;
+
+        private RatePayload(long version, ObjectMapper objectMapper, Object rates, Supplier<RateTableDto> table) {
+            this.version = version;
+            this.objectMapper = objectMapper;
+            this.rates = rates;
+            this.table = table;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public byte[] json() {
+            return body(RateWireFormat.JSON);
+        }
+
+        /**
+         * Returns the JSON body compressed with gzip.
+         */
+        public byte[] gzip() {
+            return gzipped().body();
+        }
+
+        public String gzipEtag() {
+            return gzipped().etag();
+        }
+
+        public String etag() {
+            return etag(RateWireFormat.JSON);
+        }
+
+        /**
+         * Returns the uncompressed body in the given format.
+         */
+        public byte[] body(RateWireFormat format) {
+            return encoded(format).body();
+        }
+
+        public String etag(RateWireFormat format) {
+            return encoded(format).etag();
+        }
+
+        private Encoded encoded(RateWireFormat format) {
+            Encoded current = encoded.get(format);
+            return current != null ? current : encoded.computeIfAbsent(format, this::encode);
+        }
+
+        private Encoded gzipped() {
+            Encoded compressed = gzip;
+            if (compressed == null) {
+                compressed = Encoded.of(RatePayloadCache.gzip(json()));
+                gzip = compressed;
+            }
+            return compressed;
+        }
+
+        private Encoded encode(RateWireFormat format) {
+            return Encoded.of(switch (format) {
+                case JSON -> toJson();
+                case PROTOBUF -> RateTableCodec.toProtobuf(table.get());
+                case CBOR -> RateTableCodec.toCbor(table.get());
+            });
+        }
+
+        private byte[] toJson() {
+            try {
+                return objectMapper.writeValueAsBytes(rates);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize rates", e);
+            }
+        }
+    }
+
+    private record Encoded(byte[] body, String etag) {
+
+        private static Encoded of(byte[] body) {
+            return new Encoded(body, '"' + DigestUtils.md5DigestAsHex(body) + '"');
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+            output.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
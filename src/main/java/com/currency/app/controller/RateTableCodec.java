@@ -0,0 +1,288 @@
+package com.currency.app.controller;
+
+import com.currency.app.controller.dto.RateRowDto;
+import com.currency.app.controller.dto.RateTableDto;
+import com.currency.app.service.RateMatrix;
+import com.currency.app.service.RateSnapshot;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the compact {@link RateTableDto} straight from the scaled rates of a {@link RateMatrix} and encodes it as
+ * Protobuf or CBOR. Protobuf is written field by field against {@code /schema/rates.proto} rather than through
+ * generated classes, so the table is encoded without building an intermediate message.
+ */
+public final class RateTableCodec {
+
+    private static final int SCALE = 1;
+
+    private static final int CURRENCIES = 2;
+
+    private static final int ROWS = 3;
+
+    private static final int VERSION = 4;
+
+    private static final int PUBLISHED_AT = 5;
+
+    private static final int ROW_BASE = 1;
+
+    private static final int ROW_TARGETS = 2;
+
+    private static final int ROW_RATES = 3;
+
+    private static final CBORMapper CBOR_MAPPER = new CBORMapper();
+
+    private RateTableCodec() {
+    }
+
+    /**
+     * Returns the table of one base currency: the base is currency 0 and only quoted targets are listed.
+     */
+    public static RateTableDto fromSnapshot(RateSnapshot snapshot, String baseCurrency) {
+        RateMatrix matrix = snapshot.matrix();
+        int base = matrix.indexOf(baseCurrency);
+        List<String> currencies = new ArrayList<>();
+        currencies.add(baseCurrency);
+        List<RateRowDto> rows = new ArrayList<>(1);
+        if (base >= 0) {
+            RateRowDto row = row(matrix, base);
+            for (int i = 0; i < row.getTargets().length; i++) {
+                currencies.add(matrix.codeAt(row.getTargets()[i]));
+                row.getTargets()[i] = i + 1;
+            }
+            row.setBase(0);
+            rows.add(row);
+        }
+        return new RateTableDto(RateMatrix.SCALE, currencies, rows, snapshot.getVersion(baseCurrency), snapshot.publishedAt().toEpochMilli());
+    }
+
+    /**
+     * Returns the table of every base currency that has rates, indexing currencies as the matrix does.
+     */
+    public static RateTableDto fromSnapshot(RateSnapshot snapshot) {
+        RateMatrix matrix = snapshot.matrix();
+        List<String> currencies = new ArrayList<>(matrix.size());
+        List<RateRowDto> rows = new ArrayList<>(matrix.size());
+        for (int base = 0; base < matrix.size(); base++) {
+            currencies.add(matrix.codeAt(base));
+            RateRowDto row = row(matrix, base);
+            if (row.getTargets().length > 0) {
+                rows.add(row);
+            }
+        }
+        return new RateTableDto(RateMatrix.SCALE, currencies, rows, snapshot.version(), snapshot.publishedAt().toEpochMilli());
+    }
+
+    /**
+     * Returns the table of rates that were not served from the published snapshot, so it carries no version.
+     */
+    public static RateTableDto fromRates(String baseCurrency, Map<String, BigDecimal> rates) {
+        List<String> currencies = new ArrayList<>(rates.size() + 1);
+        currencies.add(baseCurrency);
+        int[] targets = new int[rates.size()];
+        long[] scaledRates = new long[rates.size()];
+        int count = 0;
+        for (Map.Entry<String, BigDecimal> rate : rates.entrySet()) {
+            currencies.add(rate.getKey());
+            targets[count] = count + 1;
+            scaledRates[count++] = RateMatrix.toScaled(rate.getValue());
+        }
+        List<RateRowDto> rows = rates.isEmpty() ? List.of() : List.of(new RateRowDto(0, targets, scaledRates));
+        return new RateTableDto(RateMatrix.SCALE, currencies, rows, 0, 0);
+    }
+
+    public static byte[] encode(RateWireFormat format, RateTableDto table) {
+        return switch (format) {
+            case PROTOBUF -> toProtobuf(table);
+            case CBOR -> toCbor(table);
+            case JSON -> throw new IllegalArgumentException("Rate tables are only encoded in binary formats");
+        };
+    }
+
+    public static byte[] toProtobuf(RateTableDto table) {
+        List<RateRowDto> rows = table.getRows();
+        int[] rowSizes = new int[rows.size()];
+        int size = CodedOutputStream.computeInt32Size(SCALE, table.getScale())
+                   + CodedOutputStream.computeInt64Size(VERSION, table.getVersion())
+                   + CodedOutputStream.computeInt64Size(PUBLISHED_AT, table.getPublishedAt());
+        for (String currency : table.getCurrencies()) {
+            size += CodedOutputStream.computeStringSize(CURRENCIES, currency);
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            rowSizes[i] = rowSize(rows.get(i));
+            size += CodedOutputStream.computeTagSize(ROWS) + CodedOutputStream.computeUInt32SizeNoTag(rowSizes[i]) + rowSizes[i];
+        }
+
+        byte[] bytes = new byte[size];
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        try {
+            out.writeInt32(SCALE, table.getScale());
+            for (String currency : table.getCurrencies()) {
+                out.writeString(CURRENCIES, currency);
+            }
+            for (int i = 0; i < rows.size(); i++) {
+                out.writeTag(ROWS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                out.writeUInt32NoTag(rowSizes[i]);
+                writeRow(out, rows.get(i));
+            }
+            out.writeInt64(VERSION, table.getVersion());
+            out.writeInt64(PUBLISHED_AT, table.getPublishedAt());
+            out.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes a table written by any Protobuf encoder of the schema; unknown fields are skipped and repeated
+     * numbers are accepted packed or unpacked.
+     */
+    public static RateTableDto fromProtobuf(byte[] bytes) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(bytes);
+        RateTableDto table = new RateTableDto(0, new ArrayList<>(), new ArrayList<>(), 0, 0);
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case SCALE -> table.setScale(in.readInt32());
+                case CURRENCIES -> table.getCurrencies().add(in.readStringRequireUtf8());
+                case ROWS -> {
+                    int limit = in.pushLimit(in.readRawVarint32());
+                    table.getRows().add(readRow(in));
+                    in.popLimit(limit);
+                }
+                case VERSION -> table.setVersion(in.readInt64());
+                case PUBLISHED_AT -> table.setPublishedAt(in.readInt64());
+                default -> in.skipField(tag);
+            }
+        }
+        return table;
+    }
+
+    public static byte[] toCbor(RateTableDto table) {
+        try {
+            return CBOR_MAPPER.writeValueAsBytes(table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static RateTableDto fromCbor(byte[] bytes) throws IOException {
+        return CBOR_MAPPER.readValue(bytes, RateTableDto.class);
+    }
+
+    private static RateRowDto row(RateMatrix matrix, int base) {
+        int[] targets = new int[matrix.size()];
+        long[] rates = new long[matrix.size()];
+        int count = 0;
+        for (int target = 0; target < matrix.size(); target++) {
+            long rate = matrix.getScaled(base, target);
+            if (rate != RateMatrix.ABSENT) {
+                targets[count] = target;
+                rates[count++] = rate;
+            }
+        }
+        return new RateRowDto(base, Arrays.copyOf(targets, count), Arrays.copyOf(rates, count));
+    }
+
+    private static int rowSize(RateRowDto row) {
+        return CodedOutputStream.computeUInt32Size(ROW_BASE, row.getBase())
+               + packedSize(ROW_TARGETS, targetsSize(row.getTargets()))
+               + packedSize(ROW_RATES, ratesSize(row.getRates()));
+    }
+
+    private static int packedSize(int field, int dataSize) {
+        return dataSize == 0 ? 0 : CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(dataSize) + dataSize;
+    }
+
+    private static int targetsSize(int[] targets) {
+        int size = 0;
+        for (int target : targets) {
+            size += CodedOutputStream.computeUInt32SizeNoTag(target);
+        }
+        return size;
+    }
+
+    private static int ratesSize(long[] rates) {
+        int size = 0;
+        for (long rate : rates) {
+            size += CodedOutputStream.computeInt64SizeNoTag(rate);
+        }
+        return size;
+    }
+
+    private static void writeRow(CodedOutputStream out, RateRowDto row) throws IOException {
+        out.writeUInt32(ROW_BASE, row.getBase());
+        int targetsSize = targetsSize(row.getTargets());
+        if (targetsSize > 0) {
+            out.writeTag(ROW_TARGETS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(targetsSize);
+            for (int target : row.getTargets()) {
+                out.writeUInt32NoTag(target);
+            }
+        }
+        int ratesSize = ratesSize(row.getRates());
+        if (ratesSize > 0) {
+            out.writeTag(ROW_RATES, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(ratesSize);
+            for (long rate : row.getRates()) {
+                out.writeInt64NoTag(rate);
+            }
+        }
+    }
+
+    private static RateRowDto readRow(CodedInputStream in) throws IOException {
+        int base = 0;
+        int[] targets = new int[16];
+        int targetCount = 0;
+        long[] rates = new long[16];
+        int rateCount = 0;
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            boolean packed = WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED;
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case ROW_BASE -> base = in.readUInt32();
+                case ROW_TARGETS -> {
+                    int limit = packed ? in.pushLimit(in.readRawVarint32()) : 0;
+                    while (!packed || in.getBytesUntilLimit() > 0) {
+                        if (targetCount == targets.length) {
+                            targets = Arrays.copyOf(targets, targetCount * 2);
+                        }
+                        targets[targetCount++] = in.readUInt32();
+                        if (!packed) {
+                            break;
+                        }
+                    }
+                    if (packed) {
+                        in.popLimit(limit);
+                    }
+                }
+                case ROW_RATES -> {
+                    int limit = packed ? in.pushLimit(in.readRawVarint32()) : 0;
+                    while (!packed || in.getBytesUntilLimit() > 0) {
+                        if (rateCount == rates.length) {
+                            rates = Arrays.copyOf(rates, rateCount * 2);
+                        }
+                        rates[rateCount++] = in.readInt64();
+                        if (!packed) {
+                            break;
+                        }
+                    }
+                    if (packed) {
+                        in.popLimit(limit);
+                    }
+                }
+                default -> in.skipField(tag);
+            }
+        }
+        return new RateRowDto(base, Arrays.copyOf(targets, targetCount), Arrays.copyOf(rates, rateCount));
+    }
+}
@@ -0,0 +1,235 @@
+package com.currency.app.controller;
+
+import com.currency.app.config.RateProperties;
+import com.currency.app.controller.dto.ExchangeRateDto;
+import com.currency.app.service.RateSnapshot;
+import com.currency.app.service.RateStorageService;
+import com.currency.app.service.RatesPublishedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes rate changes to Server-Sent Events subscribers.
+ * Each subscriber first receives the full table of its base currency and then only the pairs whose rate changed.
+ * Publishing never waits for subscribers: deltas are computed on a dispatcher thread and queued per subscriber, and
+ * a small sender pool writes them out. The queues are bounded and every send is watched: a subscriber whose queue
+ * overflows or whose send does not finish within the send timeout is evicted, so a few slow clients cannot hold
+ * the senders and delay every other subscriber. Idle subscribers hold no thread at all.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RateUpdateBroadcaster {
+
+    private final RateStorageService rateStorageService;
+
+    private final long timeoutMillis;
+
+    private final int queueCapacity;
+
+    private final long sendTimeoutNanos;
+
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("rate-stream-dispatcher-"));
+
+    private final ExecutorService senders;
+
+    private final ConcurrentHashMap<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    public RateUpdateBroadcaster(RateStorageService rateStorageService, RateProperties rateProperties) {
+        this.rateStorageService = rateStorageService;
+        this.timeoutMillis = rateProperties.getStreamTimeout().toMillis();
+        this.queueCapacity = rateProperties.getStreamQueueCapacity();
+        this.sendTimeoutNanos = rateProperties.getStreamSendTimeout().toNanos();
+        this.senders = Executors.newFixedThreadPool(rateProperties.getStreamSenderThreads(), new CustomizableThreadFactory("rate-stream-sender-"));
+        long checkMillis = Math.max(rateProperties.getStreamSendTimeout().toMillis() / 2, 1);
+        dispatcher.scheduleWithFixedDelay(this::evictStalledSenders, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes to a base currency that the caller has checked to exist.
+     */
+    public SseEmitter subscribe(String baseCurrency) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(baseCurrency, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.compute(baseCurrency, (code, baseSubscribers) -> {
+            Set<Subscriber> updated = baseSubscribers != null ? baseSubscribers : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+
+        RateSnapshot snapshot = rateStorageService.getPublishedSnapshot();
+        Map<String, BigDecimal> rates = snapshot.getRates(baseCurrency);
+        if (!rates.isEmpty()) {
+            subscriber.offer(snapshot.version(), rates);
+        }
+        return emitter;
+    }
+
+    /**
+     * Returns the base currencies with at least one subscriber.
+     */
+    Set<String> getSubscribedCurrencies() {
+        return Set.copyOf(subscribers.keySet());
+    }
+
+    @EventListener
+    public void onRatesPublished(RatesPublishedEvent event) {
+        dispatcher.execute(() -> broadcast(event.previous(), event.current()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+        senders.shutdown();
+        subscribers.values().forEach(baseSubscribers -> baseSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private void broadcast(RateSnapshot previous, RateSnapshot current) {
+        subscribers.forEach((baseCurrency, baseSubscribers) -> {
+            if (previous.getVersion(baseCurrency) == current.getVersion(baseCurrency)) {
+                return;
+            }
+            Map<String, BigDecimal> delta = delta(previous.getRates(baseCurrency), current.getRates(baseCurrency));
+            if (!delta.isEmpty()) {
+                baseSubscribers.forEach(subscriber -> subscriber.offer(current.version(), delta));
+            }
+        });
+    }
+
+    private void evictStalledSenders() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(baseSubscribers -> baseSubscribers.forEach(subscriber -> {
+            long started = subscriber.sendStartedNanos;
+            if (started != 0 && now - started > sendTimeoutNanos) {
+                subscriber.evict(new TimeoutException("Send did not finish within " + TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos) + " ms"));
+            }
+        }));
+    }
+
+    private Map<String, BigDecimal> delta(Map<String, BigDecimal> previous, Map<String, BigDecimal> current) {
+        Map<String, BigDecimal> delta = new HashMap<>();
+        current.forEach((targetCurrency, rate) -> {
+            if (!Objects.equals(previous.get(targetCurrency), rate)) {
+                delta.put(targetCurrency, rate);
+            }
+        });
+        return Map.copyOf(delta);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.baseCurrency, (code, baseSubscribers) -> {
+            baseSubscribers.remove(subscriber);
+            return baseSubscribers.isEmpty() ? null : baseSubscribers;
+        });
+    }
+
+    private record Update(long version, Map<String, BigDecimal> rates) {
+    }
+
+    private final class Subscriber {
+
+        private final String baseCurrency;
+
+        private final SseEmitter emitter;
+
+        private final Queue<Update> queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        private final AtomicBoolean evicted = new AtomicBoolean();
+
+        private volatile long sendStartedNanos;
+
+        private boolean sending;
+
+        private Subscriber(String baseCurrency, SseEmitter emitter) {
+            this.baseCurrency = baseCurrency;
+            this.emitter = emitter;
+        }
+
+        private void offer(long version, Map<String, BigDecimal> rates) {
+            synchronized (this) {
+                if (evicted.get()) {
+                    return;
+                }
+                if (!queue.offer(new Update(version, rates))) {
+                    evict(new IllegalStateException(queueCapacity + " rate updates are waiting to be sent"));
+                    return;
+                }
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        /**
+         * Sends the queued updates; the sender is released after each one, so subscribers take turns.
+         */
+        private void drain() {
+            Update update;
+            synchronized (this) {
+                update = queue.poll();
+                if (update == null || evicted.get()) {
+                    sending = false;
+                    return;
+                }
+            }
+
+            sendStartedNanos = System.nanoTime();
+            try {
+                emitter.send(SseEmitter.event()
+                                       .id(Long.toString(update.version()))
+                                       .name("rates")
+                                       .data(new ExchangeRateDto(baseCurrency, update.rates()), MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                evict(e);
+                return;
+            } finally {
+                sendStartedNanos = 0;
+            }
+            senders.execute(this::drain);
+        }
+
+        /**
+         * Drops the subscriber and ends its stream; a send blocked on the client fails once the response is closed.
+         */
+        private void evict(Exception cause) {
+            if (!evicted.compareAndSet(false, true)) {
+                return;
+            }
+            log.debug("Evicting rate stream subscriber of {}: {}", baseCurrency, cause.getMessage());
+            unsubscribe(this);
+            synchronized (this) {
+                queue.clear();
+                sending = false;
+            }
+            emitter.completeWithError(cause);
+        }
+    }
+}
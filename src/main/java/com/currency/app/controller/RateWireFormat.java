@@ -0,0 +1,66 @@
+package com.currency.app.controller;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Representations of the rate responses. JSON stays the default; clients that parse rates at high volume can
+ * ask for the compact binary table of {@code /schema/rates.proto}, either as Protobuf or as CBOR.
+ */
+public enum RateWireFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    PROTOBUF(new MediaType("application", "x-protobuf")),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private static final MediaType PROTOBUF_ALIAS = new MediaType("application", "protobuf");
+
+    private final MediaType mediaType;
+
+    RateWireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Picks the format with the highest quality in the Accept header. Wildcards only select JSON, and a missing,
+     * invalid or unsupported header falls back to JSON, as before binary formats existed.
+     */
+    public static RateWireFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+
+        RateWireFormat best = JSON;
+        double bestQuality = 0;
+        for (MediaType mediaType : mediaTypes) {
+            RateWireFormat format = of(mediaType);
+            if (format != null && mediaType.getQualityValue() > bestQuality) {
+                best = format;
+                bestQuality = mediaType.getQualityValue();
+            }
+        }
+        return best;
+    }
+
+    private static RateWireFormat of(MediaType mediaType) {
+        if (mediaType.equalsTypeAndSubtype(PROTOBUF.mediaType) || mediaType.equalsTypeAndSubtype(PROTOBUF_ALIAS)) {
+            return PROTOBUF;
+        }
+        if (mediaType.equalsTypeAndSubtype(CBOR.mediaType)) {
+            return CBOR;
+        }
+        return mediaType.isCompatibleWith(MediaType.APPLICATION_JSON) ? JSON : null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.currency.app.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversionDto {
+
+    private String from;
+
+    private String to;
+
+    private BigDecimal amount;
+
+    private BigDecimal rate;
+
+    private BigDecimal result;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+}
@@ -0,0 +1,20 @@
+package com.currency.app.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rates of one base currency in a {@link RateTableDto}; {@code targets[i]} is quoted at {@code rates[i]}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateRowDto {
+
+    private int base;
+
+    private int[] targets;
+
+    private long[] rates;
+}
@@ -0,0 +1,18 @@
+package com.currency.app.controller.dto;
+
+import com.currency.app.service.RateStats;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateStatsDto {
+
+    private String baseCurrency;
+
+    private Map<String, RateStats> rates;
+}
@@ -0,0 +1,27 @@
+package com.currency.app.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Compact rate table of the binary wire formats: currencies are listed once and referenced by index, rates are
+ * longs scaled by {@code 10^scale}. Mirrors the {@code RateTable} message of {@code /schema/rates.proto}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateTableDto {
+
+    private int scale;
+
+    private List<String> currencies;
+
+    private List<RateRowDto> rows;
+
+    private long version;
+
+    private long publishedAt;
+}
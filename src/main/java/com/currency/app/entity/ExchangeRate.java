@@ -15,11 +15,15 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "exchange_rates")
+@Table(name = "exchange_rates", indexes = {
+        @Index(name = "idx_exchange_rates_pair_last_updated", columnList = "base_currency_code, target_currency_code, last_updated"),
+        @Index(name = "idx_exchange_rates_last_updated", columnList = "last_updated")
+})
 public class ExchangeRate {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exchange_rates_seq")
+    @SequenceGenerator(name = "exchange_rates_seq", sequenceName = "exchange_rates_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -30,7 +34,13 @@ public class ExchangeRate {
     @JoinColumn(name = "target_currency_code")
     private Currency targetCurrency;
 
+    @Column(precision = 20, scale = 6)
     private BigDecimal rate;
 
     private LocalDateTime lastUpdated;
+
+    /**
+     * Last time the provider confirmed this rate; the rate is valid from {@code lastUpdated} until then.
+     */
+    private LocalDateTime validUntil;
 }
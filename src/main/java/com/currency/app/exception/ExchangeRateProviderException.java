@@ -0,0 +1,12 @@
+package com.currency.app.exception;
+
+public class ExchangeRateProviderException extends RuntimeException {
+
+    public ExchangeRateProviderException(String message) {
+        super(message);
+    }
+
+    public ExchangeRateProviderException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.currency.app.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRateQueryException extends RuntimeException {
+
+    public InvalidRateQueryException(String message) {
+        super(message);
+    }
+}
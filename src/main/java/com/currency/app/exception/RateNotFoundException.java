@@ -0,0 +1,12 @@
+package com.currency.app.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class RateNotFoundException extends RuntimeException {
+
+    public RateNotFoundException(String message) {
+        super(message);
+    }
+}
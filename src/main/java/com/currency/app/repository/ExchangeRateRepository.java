@@ -2,23 +2,77 @@ package com.currency.app.repository;
 
 import com.currency.app.entity.ExchangeRate;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
 
     /**
      * Finds all latest rates for a base currency.
+     * Ranks each pair's history once with a window function, which walks the
+     * (base_currency_code, target_currency_code, last_updated) index instead of running
+     * a correlated MAX subquery per row.
      */
-    @Query("SELECT er FROM ExchangeRate er " +
-            "WHERE er.baseCurrency.code = :baseCode " +
-            "AND er.lastUpdated = (" +
-            "    SELECT MAX(er2.lastUpdated) " +
-            "    FROM ExchangeRate er2 " +
-            "    WHERE er2.baseCurrency = er.baseCurrency " +
-            "    AND er2.targetCurrency = er.targetCurrency" +
-            ")")
+    @Query(value = "SELECT latest.* FROM (" +
+            "    SELECT er.*, ROW_NUMBER() OVER (" +
+            "        PARTITION BY er.target_currency_code ORDER BY er.last_updated DESC" +
+            "    ) AS rn " +
+            "    FROM exchange_rates er " +
+            "    WHERE er.base_currency_code = :baseCode" +
+            ") latest " +
+            "WHERE latest.rn = 1", nativeQuery = true)
     List<ExchangeRate> findLatestRatesForBaseCurrency(@Param("baseCode") String baseCode);
+
+    /**
+     * Finds the latest rate of every pair of every base currency in one pass, used to warm up the in-memory tier.
+     */
+    @Query(value = "SELECT latest.base_currency_code AS baseCurrencyCode, latest.target_currency_code AS targetCurrencyCode, " +
+            "latest.rate AS rate, latest.last_updated AS lastUpdated FROM (" +
+            "    SELECT er.*, ROW_NUMBER() OVER (" +
+            "        PARTITION BY er.base_currency_code, er.target_currency_code ORDER BY er.last_updated DESC" +
+            "    ) AS rn " +
+            "    FROM exchange_rates er" +
+            ") latest " +
+            "WHERE latest.rn = 1", nativeQuery = true)
+    List<LatestRate> findAllLatestRates();
+
+    /**
+     * Finds the rates of a base currency in effect at the given time: the newest rate of every pair
+     * stored at or before it.
+     */
+    @Query(value = "SELECT latest.* FROM (" +
+            "    SELECT er.*, ROW_NUMBER() OVER (" +
+            "        PARTITION BY er.target_currency_code ORDER BY er.last_updated DESC" +
+            "    ) AS rn " +
+            "    FROM exchange_rates er " +
+            "    WHERE er.base_currency_code = :baseCode AND er.last_updated <= :at" +
+            ") latest " +
+            "WHERE latest.rn = 1", nativeQuery = true)
+    List<ExchangeRate> findRatesForBaseCurrencyAt(@Param("baseCode") String baseCode, @Param("at") LocalDateTime at);
+
+    /**
+     * Extends the validity of the latest rate of every given pair instead of storing an identical row.
+     * The latest rows are picked by the same window query as {@link #findLatestRatesForBaseCurrency} and updated by
+     * primary key, which also lets PostgreSQL prune the month partitions.
+     */
+    @Modifying
+    @Query(value = "UPDATE exchange_rates SET valid_until = :validUntil " +
+            "WHERE (id, last_updated) IN (" +
+            "    SELECT latest.id, latest.last_updated FROM (" +
+            "        SELECT er.id, er.last_updated, ROW_NUMBER() OVER (" +
+            "            PARTITION BY er.target_currency_code ORDER BY er.last_updated DESC" +
+            "        ) AS rn " +
+            "        FROM exchange_rates er " +
+            "        WHERE er.base_currency_code = :baseCode AND er.target_currency_code IN (:targetCodes)" +
+            "    ) latest " +
+            "    WHERE latest.rn = 1" +
+            ")", nativeQuery = true)
+    int extendValidity(@Param("baseCode") String baseCode,
+                       @Param("targetCodes") Collection<String> targetCodes,
+                       @Param("validUntil") LocalDateTime validUntil);
 }
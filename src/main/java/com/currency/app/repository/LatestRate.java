@@ -0,0 +1,18 @@
+package com.currency.app.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Latest stored rate of one pair, read without loading the currency entities.
+ */
+public interface LatestRate {
+
+    String getBaseCurrencyCode();
+
+    String getTargetCurrencyCode();
+
+    BigDecimal getRate();
+
+    LocalDateTime getLastUpdated();
+}
@@ -0,0 +1,11 @@
+package com.currency.app.service;
+
+public interface ConversionService {
+
+    /**
+     * Returns the cross-rate table of the currently published in-memory snapshot.
+     * Callers converting several amounts should keep the returned table so that all results
+     * come from the same snapshot.
+     */
+    CrossRateTable getCrossRates();
+}
@@ -0,0 +1,40 @@
+package com.currency.app.service;
+
+import com.currency.app.config.ConversionProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@RequiredArgsConstructor
+public class ConversionServiceImpl implements ConversionService {
+
+    private final InMemoryRateStorage inMemoryRateStorage;
+
+    private final ConversionProperties conversionProperties;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile CrossRateTable crossRates = CrossRateTable.EMPTY;
+
+    @Override
+    public CrossRateTable getCrossRates() {
+        RateSnapshot snapshot = inMemoryRateStorage.getSnapshot();
+        CrossRateTable current = crossRates;
+        if (current.getVersion() >= snapshot.version()) {
+            return current;
+        }
+
+        rebuildLock.lock();
+        try {
+            if (crossRates.getVersion() < snapshot.version()) {
+                crossRates = CrossRateTable.build(snapshot, conversionProperties.getPivotCurrency(), conversionProperties.getScale(),
+                                                  conversionProperties.getRoundingMode());
+            }
+            return crossRates;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
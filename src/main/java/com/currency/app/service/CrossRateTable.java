@@ -0,0 +1,144 @@
+package com.currency.app.service;
+
+import com.currency.app.exception.RateNotFoundException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full N×N conversion table derived from one {@link RateSnapshot}.
+ * Each pair is resolved once when the table is built: the direct quote, otherwise the inverse of the
+ * opposite quote, otherwise a triangulation through the pivot currency. Conversions then cost a single
+ * array lookup plus the multiplication of the amount. A pair whose rate does not fit a {@code long} at
+ * {@link #SCALE} decimal places is left out of the table.
+ */
+public final class CrossRateTable {
+
+    /**
+     * Decimal places kept for cross rates, higher than the quote precision so that triangulated
+     * and inverted rates do not lose significant digits.
+     */
+    public static final int SCALE = 10;
+
+    public static final CrossRateTable EMPTY = new CrossRateTable(0, Map.of(), new long[0], 2, RoundingMode.HALF_EVEN);
+
+    private static final MathContext PRECISION = MathContext.DECIMAL64;
+
+    private final long version;
+
+    private final Map<String, Integer> indices;
+
+    private final long[] rates;
+
+    private final int amountScale;
+
+    private final RoundingMode roundingMode;
+
+    private CrossRateTable(long version, Map<String, Integer> indices, long[] rates, int amountScale, RoundingMode roundingMode) {
+        this.version = version;
+        this.indices = indices;
+        this.rates = rates;
+        this.amountScale = amountScale;
+        this.roundingMode = roundingMode;
+    }
+
+    public static CrossRateTable build(RateSnapshot snapshot, String pivotCurrency, int amountScale, RoundingMode roundingMode) {
+        RateMatrix matrix = snapshot.matrix();
+        Map<String, Integer> indices = new HashMap<>();
+        List<String> codes = new ArrayList<>();
+        for (int index = 0; index < matrix.size(); index++) {
+            String code = matrix.codeAt(index);
+            for (int target = 0; target < matrix.size(); target++) {
+                if (matrix.getScaled(index, target) != RateMatrix.ABSENT) {
+                    intern(code, indices, codes);
+                    intern(matrix.codeAt(target), indices, codes);
+                }
+            }
+        }
+
+        int size = codes.size();
+        long[] quotes = new long[size * size];
+        Arrays.fill(quotes, RateMatrix.ABSENT);
+        for (int base = 0; base < matrix.size(); base++) {
+            for (int target = 0; target < matrix.size(); target++) {
+                long quote = matrix.getScaled(base, target);
+                if (quote != RateMatrix.ABSENT) {
+                    quotes[indices.get(matrix.codeAt(base)) * size + indices.get(matrix.codeAt(target))] = quote;
+                }
+            }
+        }
+
+        Integer pivot = indices.get(pivotCurrency);
+        long[] rates = new long[size * size];
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                BigDecimal rate = leg(quotes, size, from, to);
+                if (rate == null && pivot != null) {
+                    BigDecimal toPivot = leg(quotes, size, from, pivot);
+                    BigDecimal fromPivot = leg(quotes, size, pivot, to);
+                    rate = toPivot == null || fromPivot == null ? null : toPivot.multiply(fromPivot, PRECISION);
+                }
+                rates[from * size + to] = rate == null ? RateMatrix.ABSENT : toScaled(rate);
+            }
+        }
+
+        return new CrossRateTable(snapshot.version(), Map.copyOf(indices), rates, amountScale, roundingMode);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public BigDecimal getRate(String from, String to) {
+        BigDecimal rate = BigDecimal.valueOf(scaledRate(from, to), SCALE).stripTrailingZeros();
+        return rate.scale() < 0 ? rate.setScale(0) : rate;
+    }
+
+    public BigDecimal convert(String from, String to, BigDecimal amount) {
+        return BigDecimal.valueOf(scaledRate(from, to), SCALE).multiply(amount).setScale(amountScale, roundingMode);
+    }
+
+    private long scaledRate(String from, String to) {
+        Integer fromIndex = indices.get(from);
+        Integer toIndex = indices.get(to);
+        long rate = fromIndex == null || toIndex == null ? RateMatrix.ABSENT : rates[fromIndex * indices.size() + toIndex];
+        if (rate == RateMatrix.ABSENT) {
+            throw new RateNotFoundException("No exchange rate available for " + from + " -> " + to);
+        }
+        return rate;
+    }
+
+    private static BigDecimal leg(long[] quotes, int size, int from, int to) {
+        if (from == to) {
+            return BigDecimal.ONE;
+        }
+        long direct = quotes[from * size + to];
+        if (direct != RateMatrix.ABSENT) {
+            return BigDecimal.valueOf(direct, RateMatrix.SCALE);
+        }
+        long inverse = quotes[to * size + from];
+        return inverse == RateMatrix.ABSENT || inverse == 0 ? null : BigDecimal.ONE.divide(BigDecimal.valueOf(inverse, RateMatrix.SCALE), PRECISION);
+    }
+
+    /**
+     * Returns the rate scaled to {@link #SCALE} decimal places, or {@link RateMatrix#ABSENT} when it does not fit.
+     */
+    private static long toScaled(BigDecimal rate) {
+        BigInteger scaled = rate.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue();
+        return scaled.bitLength() < Long.SIZE ? scaled.longValue() : RateMatrix.ABSENT;
+    }
+
+    private static void intern(String code, Map<String, Integer> indices, List<String> codes) {
+        if (!indices.containsKey(code)) {
+            indices.put(code, codes.size());
+            codes.add(code);
+        }
+    }
+}
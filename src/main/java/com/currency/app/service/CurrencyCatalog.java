@@ -0,0 +1,29 @@
+package com.currency.app.service;
+
+import com.currency.app.entity.Currency;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable view of all currencies at one point in time, stamped with the registry version that loaded it.
+ * The ETag is derived from the codes and names, so it is the same on every node serving the same catalog.
+ */
+public record CurrencyCatalog(long version, Instant loadedAt, List<Currency> currencies, Set<String> codes, String etag) {
+
+    static CurrencyCatalog of(long version, Instant loadedAt, List<Currency> currencies) {
+        StringBuilder content = new StringBuilder();
+        currencies.forEach(currency -> content.append(currency.getCode()).append(':').append(currency.getName()).append('\n'));
+        String etag = DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+        Set<String> codes = currencies.stream().map(Currency::getCode).collect(Collectors.toUnmodifiableSet());
+        return new CurrencyCatalog(version, loadedAt, List.copyOf(currencies), codes, etag);
+    }
+
+    public boolean contains(String code) {
+        return codes.contains(code);
+    }
+}
@@ -0,0 +1,184 @@
+package com.currency.app.service;
+
+import com.currency.app.config.CatalogProperties;
+import com.currency.app.entity.Currency;
+import com.currency.app.repository.CurrencyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process copy of the currency catalog, loaded once and shared by every request and rate write.
+ * Each load gets a new version; the catalog is reloaded after local changes and at least every refresh interval.
+ * <p>
+ * Unknown currencies are created with one batched insert that skips codes which already exist, so concurrent
+ * writers on this or other nodes never fail on the primary key, and the catalog is reloaded once afterwards.
+ * A catalog loaded inside a transaction may contain that transaction's uncommitted currencies, so it is only
+ * visible to the transaction itself; the shared catalog is reloaded once the transaction commits, and never if
+ * it rolls back.
+ */
+@Component
+public class CurrencyRegistry {
+
+    private static final String POSTGRES_INSERT_MISSING =
+            "INSERT INTO currency (code, name) VALUES (?, ?) ON CONFLICT (code) DO NOTHING";
+
+    private static final String MERGE_INSERT_MISSING =
+            "MERGE INTO currency c USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)))) AS v(code, name) "
+            + "ON c.code = v.code WHEN NOT MATCHED THEN INSERT (code, name) VALUES (v.code, v.name)";
+
+    private final CurrencyRepository currencyRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CatalogProperties catalogProperties;
+
+    private final Clock clock;
+
+    private final String insertMissingSql;
+
+    /**
+     * Serializes reloads; a lock rather than a monitor so a reload never pins the carrier of a virtual thread.
+     */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private long lastVersion;
+
+    private volatile CurrencyCatalog catalog;
+
+    @Autowired
+    public CurrencyRegistry(CurrencyRepository currencyRepository, JdbcTemplate jdbcTemplate, CatalogProperties catalogProperties) {
+        this(currencyRepository, jdbcTemplate, catalogProperties, Clock.systemUTC());
+    }
+
+    CurrencyRegistry(CurrencyRepository currencyRepository, JdbcTemplate jdbcTemplate, CatalogProperties catalogProperties, Clock clock) {
+        this.currencyRepository = currencyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogProperties = catalogProperties;
+        this.clock = clock;
+        this.insertMissingSql = "PostgreSQL".equals(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()))
+                ? POSTGRES_INSERT_MISSING : MERGE_INSERT_MISSING;
+    }
+
+    /**
+     * Returns the current catalog, loading it on first use and once it is older than the refresh interval.
+     * Inside a transaction that reloaded the catalog, that transaction's own catalog is returned.
+     */
+    public CurrencyCatalog getCatalog() {
+        CurrencyCatalog pending = (CurrencyCatalog) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        CurrencyCatalog current = catalog;
+        if (current == null || isStale(current)) {
+            current = inTransaction() ? reloadAfterCommit() : reloadIfStale();
+        }
+        return current;
+    }
+
+    /**
+     * Loads the catalog from the database, for example after currencies were changed.
+     */
+    public CurrencyCatalog reload() {
+        if (inTransaction()) {
+            return reloadAfterCommit();
+        }
+        reloadLock.lock();
+        try {
+            return publish();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Makes sure every code exists, creating the unknown ones named after their code.
+     *
+     * @return a catalog containing every code
+     */
+    public CurrencyCatalog ensureCurrencies(Collection<String> codes) {
+        CurrencyCatalog current = getCatalog();
+        List<String> missing = codes.stream()
+                                    .filter(code -> !current.contains(code))
+                                    .distinct()
+                                    .sorted()
+                                    .toList();
+        if (missing.isEmpty()) {
+            return current;
+        }
+
+        jdbcTemplate.batchUpdate(insertMissingSql, missing, missing.size(), (statement, code) -> {
+            statement.setString(1, code);
+            statement.setString(2, code);
+        });
+        return reload();
+    }
+
+    private boolean isStale(CurrencyCatalog current) {
+        return current.loadedAt().plus(catalogProperties.getRefreshInterval()).isBefore(clock.instant());
+    }
+
+    /**
+     * Reloads the shared catalog unless another thread did while this one waited for the lock.
+     */
+    private CurrencyCatalog reloadIfStale() {
+        reloadLock.lock();
+        try {
+            CurrencyCatalog current = catalog;
+            return current != null && !isStale(current) ? current : publish();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private CurrencyCatalog publish() {
+        CurrencyCatalog reloaded = load();
+        catalog = reloaded;
+        return reloaded;
+    }
+
+    private CurrencyCatalog load() {
+        List<Currency> currencies = currencyRepository.findAll(Sort.by("code"));
+        reloadLock.lock();
+        try {
+            return CurrencyCatalog.of(++lastVersion, Instant.now(clock), currencies);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Loads a catalog visible only to the current transaction and reloads the shared one after it commits.
+     */
+    private CurrencyCatalog reloadAfterCommit() {
+        CurrencyCatalog pending = load();
+        if (TransactionSynchronizationManager.unbindResourceIfPossible(this) == null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CurrencyRegistry.this);
+                    if (status == STATUS_COMMITTED) {
+                        reload();
+                    }
+                }
+            });
+        }
+        TransactionSynchronizationManager.bindResource(this, pending);
+        return pending;
+    }
+
+    private static boolean inTransaction() {
+        return TransactionSynchronizationManager.isSynchronizationActive() && TransactionSynchronizationManager.isActualTransactionActive();
+    }
+}
@@ -2,13 +2,19 @@ package com.currency.app.service;
 
 import com.currency.app.entity.Currency;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface CurrencyService {
 
     List<Currency> getAllCurrencies();
 
+    CurrencyCatalog getCatalog();
+
     Currency addCurrency(Currency currency);
 
     Currency getOrCreateCurrency(String code);
+
+    Map<String, Currency> getOrCreateCurrencies(Collection<String> codes);
 }
@@ -8,18 +8,32 @@ import org.springframework.stereotype.Service;
 
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Serves the catalog from the {@link CurrencyRegistry}. Currencies handed out for rate writes are JPA references
+ * to codes the registry knows exist, so writes never look a currency up.
+ */
 @Service
 @RequiredArgsConstructor
 public class CurrencyServiceImpl implements CurrencyService {
 
     private final CurrencyRepository currencyRepository;
 
+    private final CurrencyRegistry currencyRegistry;
+
     @Override
-    @Transactional(readOnly = true)
     public List<Currency> getAllCurrencies() {
-        return currencyRepository.findAll();
+        return currencyRegistry.getCatalog().currencies();
+    }
+
+    @Override
+    public CurrencyCatalog getCatalog() {
+        return currencyRegistry.getCatalog();
     }
 
     @Override
@@ -29,13 +43,22 @@ public class CurrencyServiceImpl implements CurrencyService {
             throw new CurrencyAlreadyExistsException("Currency already exists: " + currency.getCode());
         }
 
-        return currencyRepository.save(currency);
+        Currency saved = currencyRepository.save(currency);
+        currencyRegistry.reload();
+        return saved;
     }
 
+    @Override
     public Currency getOrCreateCurrency(String code) {
-        return currencyRepository.findByCode(code).orElseGet(() -> {
-            Currency newCurrency = Currency.builder().code(code).name(code).build();
-            return currencyRepository.save(newCurrency);
-        });
+        currencyRegistry.ensureCurrencies(Set.of(code));
+        return currencyRepository.getReferenceById(code);
+    }
+
+    @Override
+    public Map<String, Currency> getOrCreateCurrencies(Collection<String> codes) {
+        currencyRegistry.ensureCurrencies(codes);
+        Map<String, Currency> currencies = new HashMap<>();
+        codes.forEach(code -> currencies.put(code, currencyRepository.getReferenceById(code)));
+        return currencies;
     }
 }
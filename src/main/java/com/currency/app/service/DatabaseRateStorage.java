@@ -1,35 +1,115 @@
 package com.currency.app.service;
 
+import com.currency.app.entity.Currency;
 import com.currency.app.entity.ExchangeRate;
 import com.currency.app.repository.ExchangeRateRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
-public class DatabaseRateStorage implements RateStorage {
+public class DatabaseRateStorage implements RateStorageTier {
 
     private final ExchangeRateRepository exchangeRateRepository;
 
     private final CurrencyService currencyService;
 
+    /**
+     * Consulted last, as the tier of record.
+     */
     @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    /**
+     * Writes may lag behind the faster tiers; every write runs in its own transaction unless one is already active.
+     */
+    @Override
+    public boolean isWriteBehind() {
+        return true;
+    }
+
+    @Override
+    @Transactional
     public void updateRate(String baseCurrency, String targetCurrency, BigDecimal rate) {
+        LocalDateTime now = LocalDateTime.now();
         ExchangeRate exchangeRate = ExchangeRate.builder()
                                                 .baseCurrency(currencyService.getOrCreateCurrency(baseCurrency))
                                                 .targetCurrency(currencyService.getOrCreateCurrency(targetCurrency))
                                                 .rate(rate)
-                                                .lastUpdated(LocalDateTime.now())
+                                                .lastUpdated(now)
+                                                .validUntil(now)
                                                 .build();
 
         exchangeRateRepository.save(exchangeRate);
     }
 
+    /**
+     * Resolves every currency of the snapshot once and persists all pairs with a single {@code saveAll},
+     * which Hibernate flushes as JDBC batches thanks to the pooled sequence id generator.
+     */
+    @Override
+    @Transactional
+    public void updateRates(Map<String, Map<String, BigDecimal>> rates) {
+        write(List.of(new RateWrite.Update(Instant.now(), rates)));
+    }
+
+    @Override
+    @Transactional
+    public void confirmRates(Map<String, Set<String>> pairs) {
+        write(List.of(new RateWrite.Confirm(Instant.now(), pairs)));
+    }
+
+    /**
+     * Applies a batch of queued writes in one transaction. Rates are stored with the time they were written to the
+     * service rather than the time the batch is flushed; consecutive updates are inserted with one {@code saveAll}.
+     */
+    @Override
+    @Transactional
+    public void write(List<RateWrite> writes) {
+        Set<String> codes = new HashSet<>();
+        writes.forEach(write -> {
+            if (write instanceof RateWrite.Update update) {
+                codes.addAll(update.rates().keySet());
+                update.rates().values().forEach(quotes -> codes.addAll(quotes.keySet()));
+            }
+        });
+        Map<String, Currency> currencies = codes.isEmpty() ? Map.of() : currencyService.getOrCreateCurrencies(codes);
+
+        List<ExchangeRate> exchangeRates = new ArrayList<>();
+        for (RateWrite write : writes) {
+            LocalDateTime at = LocalDateTime.ofInstant(write.at(), ZoneId.systemDefault());
+            if (write instanceof RateWrite.Update update) {
+                update.rates().forEach((baseCurrency, quotes) -> quotes.forEach((targetCurrency, rate) -> exchangeRates.add(
+                        ExchangeRate.builder()
+                                    .baseCurrency(currencies.get(baseCurrency))
+                                    .targetCurrency(currencies.get(targetCurrency))
+                                    .rate(rate)
+                                    .lastUpdated(at)
+                                    .validUntil(at)
+                                    .build())));
+            } else if (write instanceof RateWrite.Confirm confirm) {
+                saveAll(exchangeRates);
+                confirm.pairs().forEach((baseCurrency, targetCurrencies) -> exchangeRateRepository.extendValidity(baseCurrency, targetCurrencies, at));
+            }
+        }
+        saveAll(exchangeRates);
+    }
+
     @Override
     public Map<String, BigDecimal> getAllRatesForCurrency(String baseCurrency) {
         return exchangeRateRepository.findLatestRatesForBaseCurrency(baseCurrency)
@@ -37,4 +117,11 @@ public class DatabaseRateStorage implements RateStorage {
                                      .collect(Collectors.toMap(rate -> rate.getTargetCurrency()
                                                                            .getCode(), ExchangeRate::getRate));
     }
+
+    private void saveAll(List<ExchangeRate> exchangeRates) {
+        if (!exchangeRates.isEmpty()) {
+            exchangeRateRepository.saveAll(List.copyOf(exchangeRates));
+            exchangeRates.clear();
+        }
+    }
 }
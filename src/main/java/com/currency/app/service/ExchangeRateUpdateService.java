@@ -1,10 +1,14 @@
 package com.currency.app.service;
 
 import com.currency.app.client.ExternalExchangeRateClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -14,12 +18,53 @@ public class ExchangeRateUpdateService {
 
     private final RateStorageService rateStorageService;
 
-    @Scheduled(cron = "0 0 * * * *")
-    @Transactional
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Stores the quotes of each base currency as the provider streams them in, and publishes the whole refresh in
+     * memory at once at the end, so readers never see a mix of old and new bases.
+     * Currencies that were fetched are kept even if others failed; the failure is still reported, with a failure
+     * to publish added as suppressed.
+     * There is no surrounding transaction: the database receives the rates through its write-behind queue.
+     */
+    @Scheduled(cron = "${currency.rates.refresh-cron}")
     public void updateRates() {
-        exchangeRateClient.getCurrentExchangeRates().forEach(exchange -> {
-            exchange.getQuotes()
-                    .forEach((targetCurrency, rate) -> rateStorageService.updateRate(exchange.getSource(), targetCurrency, rate));
-        });
+        RateSnapshot previous = rateStorageService.getPublishedSnapshot();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        RateStorageService.RateRefresh refresh = rateStorageService.startRefresh();
+        AtomicInteger pairs = new AtomicInteger();
+        RuntimeException failure = null;
+        try {
+            exchangeRateClient.fetchExchangeRates(rates -> {
+                refresh.store(rates.getSource(), rates.getQuotes());
+                pairs.addAndGet(rates.getQuotes().size());
+            });
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        try {
+            refresh.publish();
+        } catch (RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
+
+        if (failure != null) {
+            meterRegistry.counter("currency.rates.refresh.failures", "exception", failure.getClass().getSimpleName()).increment();
+        }
+        sample.stop(Timer.builder("currency.rates.refresh")
+                         .description("Duration of the scheduled rate refresh")
+                         .tag("outcome", failure == null ? "success" : "failure")
+                         .register(meterRegistry));
+        meterRegistry.counter("currency.rates.refresh.pairs").increment(pairs.get());
+        eventPublisher.publishEvent(new RatesPublishedEvent(previous, rateStorageService.getPublishedSnapshot()));
+        if (failure != null) {
+            throw failure;
+        }
     }
 }
@@ -1,23 +1,160 @@
 package com.currency.app.service;
 
+import com.currency.app.config.RateProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
-public class InMemoryRateStorage implements RateStorage {
+public class InMemoryRateStorage implements RateStorageTier, MeterBinder {
 
-    private final ConcurrentHashMap<String, Map<String, BigDecimal>> rateMap = new ConcurrentHashMap<>();
+    private final AtomicReference<RateSnapshot> snapshot = new AtomicReference<>(RateSnapshot.EMPTY);
+
+    private final RecentRateHistory recentHistory;
+
+    public InMemoryRateStorage() {
+        this(new RecentRateHistory(Duration.ofDays(7), Duration.ofHours(1)));
+    }
+
+    @Autowired
+    public InMemoryRateStorage(RateProperties rateProperties) {
+        this(new RecentRateHistory(rateProperties.getHistoryRetention(), rateProperties.getHistoryResolution()));
+    }
+
+    private InMemoryRateStorage(RecentRateHistory recentHistory) {
+        this.recentHistory = recentHistory;
+    }
+
+    /**
+     * Consulted first, ahead of every other tier.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
 
     @Override
     public void updateRate(String baseCurrency, String targetCurrency, BigDecimal rate) {
-        rateMap.computeIfAbsent(baseCurrency, k -> new ConcurrentHashMap<>()).put(targetCurrency, rate);
+        updateRates(Map.of(baseCurrency, Map.of(targetCurrency, rate)));
+    }
+
+    @Override
+    public void updateRates(Map<String, Map<String, BigDecimal>> rates) {
+        RateSnapshot published = snapshot.updateAndGet(current -> current.merge(rates, Instant.now()));
+        recentHistory.record(rates, published.publishedAt());
+    }
+
+    /**
+     * Publishes rates loaded at startup. If nothing was published yet, the loaded snapshot is installed as is and
+     * keeps its version; otherwise only the base currencies a refresh has not published yet are merged in, under a
+     * version above both snapshots.
+     *
+     * @return whether any of the loaded rates were published
+     */
+    public boolean warmUp(RateSnapshot loaded) {
+        RateSnapshot current;
+        RateSnapshot published;
+        do {
+            current = snapshot.get();
+            published = current.version() == 0 ? loaded : mergeMissing(current, loaded);
+            if (published == current) {
+                return false;
+            }
+        } while (!snapshot.compareAndSet(current, published));
+        recentHistory.record(published == loaded ? loaded.getAllRates() : missingRates(current, loaded), published.publishedAt());
+        return true;
+    }
+
+    private static RateSnapshot mergeMissing(RateSnapshot current, RateSnapshot loaded) {
+        Map<String, Map<String, BigDecimal>> missing = missingRates(current, loaded);
+        if (missing.isEmpty()) {
+            return current;
+        }
+        long version = Math.max(current.version(), loaded.version()) + 1;
+        return new RateSnapshot(version, Instant.now(), current.matrix().merge(missing, version));
+    }
+
+    private static Map<String, Map<String, BigDecimal>> missingRates(RateSnapshot current, RateSnapshot loaded) {
+        Map<String, Map<String, BigDecimal>> missing = new HashMap<>(loaded.getAllRates());
+        missing.keySet().removeIf(baseCurrency -> !current.getRates(baseCurrency).isEmpty());
+        return missing;
+    }
+
+    /**
+     * Publishes the rates of a base currency loaded from a slower tier, unless the base already has rates in memory.
+     */
+    @Override
+    public void loadIfAbsent(String baseCurrency, Map<String, BigDecimal> rates) {
+        Instant now = Instant.now();
+        Map<String, Map<String, BigDecimal>> loaded = Map.of(baseCurrency, rates);
+        RateSnapshot current;
+        do {
+            current = snapshot.get();
+            if (!current.getRates(baseCurrency).isEmpty()) {
+                return;
+            }
+        } while (!snapshot.compareAndSet(current, current.merge(loaded, now)));
+        recentHistory.record(loaded, now);
+    }
+
+    /**
+     * Nothing to do: the snapshot already holds the confirmed rates and their statistics are computed when read.
+     */
+    @Override
+    public void confirmRates(Map<String, Set<String>> pairs) {
     }
 
+    /**
+     * Returns the rate table of the currently published snapshot. The map is shared and immutable.
+     */
     @Override
     public Map<String, BigDecimal> getAllRatesForCurrency(String baseCurrency) {
-        return new ConcurrentHashMap<>(rateMap.getOrDefault(baseCurrency, Map.of()));
+        return snapshot.get().getRates(baseCurrency);
+    }
+
+    public RateSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    public RecentRateHistory getRecentHistory() {
+        return recentHistory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("currency.rates.snapshot.pairs", snapshot, current -> current.get().matrix().pairCount())
+             .description("Pairs in the published in-memory snapshot")
+             .register(registry);
+        Gauge.builder("currency.rates.snapshot.version", snapshot, current -> current.get().version())
+             .description("Version of the published in-memory snapshot")
+             .register(registry);
+        Gauge.builder("currency.rates.snapshot.memory", snapshot, current -> current.get().matrix().footprintBytes())
+             .description("Heap allocated for the published in-memory snapshot")
+             .baseUnit("bytes")
+             .register(registry);
+        Gauge.builder("currency.rates.history.pairs", recentHistory, RecentRateHistory::getPairCount)
+             .description("Pairs with in-memory rate history")
+             .register(registry);
+        Gauge.builder("currency.rates.history.points", recentHistory, RecentRateHistory::getPointCount)
+             .description("Rate points held in the in-memory history")
+             .register(registry);
+        Gauge.builder("currency.rates.history.capacity", recentHistory, RecentRateHistory::getCapacity)
+             .description("Rate points kept per pair")
+             .register(registry);
+        Gauge.builder("currency.rates.history.memory", recentHistory, RecentRateHistory::getFootprintBytes)
+             .description("Heap allocated for the in-memory rate history")
+             .baseUnit("bytes")
+             .register(registry);
     }
 }
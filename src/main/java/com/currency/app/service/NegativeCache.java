@@ -0,0 +1,56 @@
+package com.currency.app.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers keys known to have no data for a limited time, so repeated lookups of them skip the slower tiers.
+ * Holds at most {@code maxSize} keys; when full, the oldest entry is evicted first.
+ */
+final class NegativeCache<K> {
+
+    private final Duration ttl;
+
+    private final Clock clock;
+
+    private final Map<K, Instant> expiries;
+
+    NegativeCache(Duration ttl, int maxSize, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+        this.expiries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Instant> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    synchronized boolean contains(K key) {
+        Instant expiry = expiries.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (!expiry.isAfter(clock.instant())) {
+            expiries.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    synchronized void add(K key) {
+        expiries.remove(key);
+        expiries.put(key, clock.instant().plus(ttl));
+    }
+
+    synchronized void remove(K key) {
+        expiries.remove(key);
+    }
+
+    synchronized int size() {
+        return expiries.size();
+    }
+}
@@ -0,0 +1,33 @@
+package com.currency.app.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the in-memory tier as out of service until it has been warmed up; part of the readiness group.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateCacheHealthIndicator implements HealthIndicator {
+
+    private final RateWarmupService rateWarmupService;
+
+    private final InMemoryRateStorage inMemoryRateStorage;
+
+    @Override
+    public Health health() {
+        RateWarmupService.Source source = rateWarmupService.getSource();
+        if (source == null) {
+            return Health.outOfService().withDetail("source", "warming up").build();
+        }
+        RateSnapshot snapshot = inMemoryRateStorage.getSnapshot();
+        return Health.up()
+                     .withDetail("source", source)
+                     .withDetail("version", snapshot.version())
+                     .withDetail("publishedAt", snapshot.publishedAt())
+                     .withDetail("baseCurrencies", snapshot.getAllRates().size())
+                     .build();
+    }
+}
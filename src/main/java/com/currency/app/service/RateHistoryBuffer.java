@@ -0,0 +1,152 @@
+package com.currency.app.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Bounded ring buffer of the recent rates of one pair, stored as epoch millis and scaled longs.
+ * At most one point is kept per resolution slot and only changes are appended, so appending is amortized O(1)
+ * and an as-of lookup is a binary search. The arrays start small and double up to the capacity, so pairs that
+ * rarely change never pay for a full retention window.
+ * The 24 hour statistics are computed when they are read, against the time of the read.
+ */
+final class RateHistoryBuffer {
+
+    private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
+    /**
+     * Approximate heap size of a buffer besides its arrays: object and array headers plus fields.
+     */
+    private static final long OVERHEAD_BYTES = 96;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final int capacity;
+
+    private final long resolutionMillis;
+
+    private long[] times;
+
+    private long[] rates;
+
+    private int head;
+
+    private int size;
+
+    RateHistoryBuffer(int capacity, Duration resolution) {
+        this.capacity = capacity;
+        this.times = new long[Math.min(capacity, INITIAL_CAPACITY)];
+        this.rates = new long[times.length];
+        this.resolutionMillis = resolution.toMillis();
+    }
+
+    synchronized long footprintBytes() {
+        return OVERHEAD_BYTES + 2L * Long.BYTES * times.length;
+    }
+
+    /**
+     * Appends a rate observed at the given time. A rate within the slot of the latest point replaces it,
+     * an unchanged rate and points older than the latest one are ignored.
+     */
+    synchronized void append(long time, long rate) {
+        if (size > 0) {
+            int last = physical(size - 1);
+            if (time < times[last]) {
+                return;
+            }
+            if (rates[last] == rate) {
+                return;
+            }
+            if (time / resolutionMillis == times[last] / resolutionMillis) {
+                times[last] = time;
+                rates[last] = rate;
+                return;
+            }
+        }
+        if (size == times.length && size < capacity) {
+            grow();
+        }
+        times[head] = time;
+        rates[head] = rate;
+        head = (head + 1) % times.length;
+        size = Math.min(size + 1, times.length);
+    }
+
+    /**
+     * Returns the scaled rate in effect at the given time, or {@link RateMatrix#ABSENT} if the buffer
+     * does not reach back that far.
+     */
+    synchronized long rateAt(long time) {
+        int low = 0;
+        int high = size - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (times[physical(middle)] <= time) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found < 0 ? RateMatrix.ABSENT : rates[physical(found)];
+    }
+
+    synchronized boolean covers(long time) {
+        return size > 0 && times[physical(0)] <= time;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the latest rate with its change, low and high over the 24 hours before {@code now}, or {@code null}
+     * if the buffer is empty.
+     */
+    synchronized RateStats stats(long now) {
+        if (size == 0) {
+            return null;
+        }
+        int last = size - 1;
+        long rate = rates[physical(last)];
+        long low = rate;
+        long high = rate;
+        long windowStart = now - DAY_MILLIS;
+        int i = last;
+        while (i >= 0 && times[physical(i)] > windowStart) {
+            low = Math.min(low, rates[physical(i)]);
+            high = Math.max(high, rates[physical(i)]);
+            i--;
+        }
+
+        BigDecimal change = null;
+        if (i >= 0) {
+            long reference = rates[physical(i)];
+            low = Math.min(low, reference);
+            high = Math.max(high, reference);
+            change = RateMatrix.fromScaled(rate - reference);
+        }
+        return new RateStats(RateMatrix.fromScaled(rate), change, RateMatrix.fromScaled(low), RateMatrix.fromScaled(high));
+    }
+
+    /**
+     * Doubles the arrays, up to the capacity, laying the points out from index 0 in time order.
+     */
+    private void grow() {
+        int length = Math.min(capacity, times.length * 2);
+        long[] grownTimes = new long[length];
+        long[] grownRates = new long[length];
+        for (int i = 0; i < size; i++) {
+            grownTimes[i] = times[physical(i)];
+            grownRates[i] = rates[physical(i)];
+        }
+        times = grownTimes;
+        rates = grownRates;
+        head = size % length;
+    }
+
+    private int physical(int logical) {
+        return (head - size + logical + times.length) % times.length;
+    }
+}
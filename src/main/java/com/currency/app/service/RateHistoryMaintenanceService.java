@@ -0,0 +1,355 @@
+package com.currency.app.service;
+
+import com.currency.app.config.HistoryProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the rate history bounded.
+ * On PostgreSQL {@code exchange_rates} is partitioned by month: future partitions are created ahead of time and
+ * expired ones are dropped as a whole, so neither retention nor vacuum has to touch live data. Other databases,
+ * such as H2 in tests, keep a single table and expire rows with a delete. In both cases the latest rate of every
+ * pair survives retention. Raw rates are also rolled up into hourly and daily OHLC tables; a rate counts for every
+ * bucket it was valid in, so hours in which a confirmed rate did not change are not gaps.
+ */
+@Service
+public class RateHistoryMaintenanceService {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'exchange_rates_y'yyyy'm'MM");
+
+    private static final Pattern PARTITION_NAME_PATTERN = Pattern.compile("exchange_rates_y(\\d{4})m(\\d{2})");
+
+    private static final String DEFAULT_PARTITION = "exchange_rates_default";
+
+    private static final String COLUMNS = "id, base_currency_code, target_currency_code, rate, last_updated, valid_until";
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final HistoryProperties historyProperties;
+
+    private final boolean partitioned;
+
+    public RateHistoryMaintenanceService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                         HistoryProperties historyProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.historyProperties = historyProperties;
+        this.partitioned = "PostgreSQL".equals(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPartitionsOnStartup() {
+        createPartitions(LocalDateTime.now());
+    }
+
+    @Scheduled(cron = "${currency.history.maintenance-cron}")
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now();
+        createPartitions(now);
+        rollUp(now);
+        applyRetention(now);
+    }
+
+    void createPartitions(LocalDateTime now) {
+        if (!partitioned) {
+            return;
+        }
+        YearMonth current = YearMonth.from(now);
+        for (int i = 0; i <= historyProperties.getPartitionsAhead(); i++) {
+            YearMonth month = current.plusMonths(i);
+            transactionTemplate.executeWithoutResult(status -> createPartition(month));
+        }
+    }
+
+    /**
+     * Rolls up every complete hour and day since the last rollup. The latest existing bucket is recomputed,
+     * so rates stored after it was rolled up are not lost.
+     */
+    void rollUp(LocalDateTime now) {
+        rollUp(Rollup.HOURLY, now.truncatedTo(ChronoUnit.HOURS));
+        rollUp(Rollup.DAILY, now.truncatedTo(ChronoUnit.DAYS));
+    }
+
+    void applyRetention(LocalDateTime now) {
+        LocalDateTime rawCutoff = now.minus(historyProperties.getRawRetention());
+        if (partitioned) {
+            dropExpiredPartitions(rawCutoff);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                    "DELETE FROM exchange_rates WHERE last_updated < ? AND EXISTS (" +
+                            "    SELECT 1 FROM exchange_rates newer " +
+                            "    WHERE newer.base_currency_code = exchange_rates.base_currency_code " +
+                            "    AND newer.target_currency_code = exchange_rates.target_currency_code " +
+                            "    AND newer.last_updated > exchange_rates.last_updated" +
+                            ")", Timestamp.valueOf(rawCutoff)));
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "DELETE FROM " + Rollup.HOURLY.table + " WHERE bucket_start < ?",
+                Timestamp.valueOf(now.minus(historyProperties.getHourlyRetention()))));
+    }
+
+    private void rollUp(Rollup rollup, LocalDateTime end) {
+        Timestamp latestBucket = jdbcTemplate.queryForObject("SELECT MAX(bucket_start) FROM " + rollup.table, Timestamp.class);
+        Timestamp start = latestBucket != null ? latestBucket : jdbcTemplate.queryForObject(rollup.firstSampleQuery, Timestamp.class);
+        if (start == null) {
+            return;
+        }
+
+        LocalDateTime from = start.toLocalDateTime().truncatedTo(rollup.unit);
+        while (from.isBefore(end)) {
+            LocalDateTime chunkStart = from;
+            LocalDateTime chunkEnd = from.plusDays(1).isBefore(end) ? from.plusDays(1) : end;
+            transactionTemplate.executeWithoutResult(status -> rollUp(rollup, chunkStart, chunkEnd));
+            from = chunkEnd;
+        }
+    }
+
+    private void rollUp(Rollup rollup, LocalDateTime from, LocalDateTime to) {
+        jdbcTemplate.update("DELETE FROM " + rollup.table + " WHERE bucket_start >= ? AND bucket_start < ?",
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+        BucketWriter writer = new BucketWriter(rollup, from, to);
+        jdbcTemplate.query(rollup.samplesQuery, writer, Timestamp.valueOf(to), Timestamp.valueOf(from));
+        writer.finish();
+    }
+
+    /**
+     * Creates the partition of a month. PostgreSQL refuses to create it while rows of that month sit in the default
+     * partition, so in that case the default partition is detached, the partition is created, the rows are moved
+     * into it and the default partition is attached again, all in one transaction.
+     */
+    private void createPartition(YearMonth month) {
+        String partition = PARTITION_NAME.format(month.atDay(1));
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_class WHERE relname = ?)", Boolean.class, partition))) {
+            return;
+        }
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        String create = "CREATE TABLE " + partition + " PARTITION OF exchange_rates FOR VALUES FROM ('"
+                + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+        boolean misplaced = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + " WHERE last_updated >= ? AND last_updated < ?)",
+                Boolean.class, from, to));
+        if (!misplaced) {
+            jdbcTemplate.execute(create);
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE exchange_rates DETACH PARTITION " + DEFAULT_PARTITION);
+        jdbcTemplate.execute(create);
+        jdbcTemplate.update("INSERT INTO exchange_rates (" + COLUMNS + ") SELECT " + COLUMNS + " FROM " + DEFAULT_PARTITION +
+                " WHERE last_updated >= ? AND last_updated < ?", from, to);
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE last_updated >= ? AND last_updated < ?", from, to);
+        jdbcTemplate.execute("ALTER TABLE exchange_rates ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+    }
+
+    private void dropExpiredPartitions(LocalDateTime cutoff) {
+        List<YearMonth> expired = jdbcTemplate.queryForList(
+                                                      "SELECT child.relname FROM pg_inherits " +
+                                                              "JOIN pg_class child ON child.oid = pg_inherits.inhrelid " +
+                                                              "JOIN pg_class parent ON parent.oid = pg_inherits.inhparent " +
+                                                              "WHERE parent.relname = 'exchange_rates'", String.class)
+                                              .stream()
+                                              .map(PARTITION_NAME_PATTERN::matcher)
+                                              .filter(Matcher::matches)
+                                              .map(name -> YearMonth.of(Integer.parseInt(name.group(1)), Integer.parseInt(name.group(2))))
+                                              .filter(month -> !month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff))
+                                              .sorted()
+                                              .toList();
+
+        expired.forEach(month -> transactionTemplate.executeWithoutResult(status -> dropPartition(month)));
+    }
+
+    /**
+     * Copies the rates of the partition that are still the latest of their pair to the start of the next month
+     * and drops the partition. A copied rate is valid at least until it was stored, so its validity is clamped to
+     * the start of the next month.
+     */
+    private void dropPartition(YearMonth month) {
+        String partition = PARTITION_NAME.format(month.atDay(1));
+        Timestamp nextMonth = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        jdbcTemplate.update("INSERT INTO exchange_rates (" + COLUMNS + ") " +
+                "SELECT nextval('exchange_rates_seq'), er.base_currency_code, er.target_currency_code, er.rate, ?, GREATEST(er.valid_until, ?) " +
+                "FROM " + partition + " er " +
+                "WHERE NOT EXISTS (" +
+                "    SELECT 1 FROM exchange_rates newer " +
+                "    WHERE newer.base_currency_code = er.base_currency_code " +
+                "    AND newer.target_currency_code = er.target_currency_code " +
+                "    AND newer.last_updated > er.last_updated" +
+                ")", nextMonth, nextMonth);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+    }
+
+    private enum Rollup {
+
+        HOURLY("exchange_rates_hourly", ChronoUnit.HOURS,
+                "SELECT MIN(last_updated) FROM exchange_rates",
+                "SELECT base_currency_code, target_currency_code, last_updated, COALESCE(valid_until, last_updated), rate, rate, rate, rate, 1 " +
+                        "FROM exchange_rates WHERE last_updated < ? AND COALESCE(valid_until, last_updated) >= ? " +
+                        "ORDER BY base_currency_code, target_currency_code, last_updated"),
+
+        DAILY("exchange_rates_daily", ChronoUnit.DAYS,
+                "SELECT MIN(bucket_start) FROM exchange_rates_hourly",
+                "SELECT base_currency_code, target_currency_code, bucket_start, bucket_start, open_rate, high_rate, low_rate, close_rate, samples " +
+                        "FROM exchange_rates_hourly WHERE bucket_start < ? AND bucket_start >= ? " +
+                        "ORDER BY base_currency_code, target_currency_code, bucket_start");
+
+        private final String table;
+
+        private final ChronoUnit unit;
+
+        private final String firstSampleQuery;
+
+        private final String samplesQuery;
+
+        Rollup(String table, ChronoUnit unit, String firstSampleQuery, String samplesQuery) {
+            this.table = table;
+            this.unit = unit;
+            this.firstSampleQuery = firstSampleQuery;
+            this.samplesQuery = samplesQuery;
+        }
+    }
+
+    /**
+     * Folds samples ordered by pair and time into buckets and inserts them in batches. Each sample covers the
+     * buckets from the one it was taken in up to the one its validity ends in; in the later buckets it only
+     * carries its closing rate and adds no samples.
+     */
+    private final class BucketWriter implements RowCallbackHandler {
+
+        private final Rollup rollup;
+
+        private final LocalDateTime from;
+
+        private final LocalDateTime last;
+
+        private final List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+
+        private final NavigableMap<LocalDateTime, Bucket> pairBuckets = new TreeMap<>();
+
+        private String baseCurrency;
+
+        private String targetCurrency;
+
+        private BucketWriter(Rollup rollup, LocalDateTime from, LocalDateTime to) {
+            this.rollup = rollup;
+            this.from = from;
+            this.last = to.minus(1, rollup.unit);
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String base = rs.getString(1);
+            String target = rs.getString(2);
+            if (!base.equals(baseCurrency) || !target.equals(targetCurrency)) {
+                flush();
+                baseCurrency = base;
+                targetCurrency = target;
+            }
+
+            LocalDateTime sampled = rs.getTimestamp(3).toLocalDateTime().truncatedTo(rollup.unit);
+            LocalDateTime validUntil = rs.getTimestamp(4).toLocalDateTime().truncatedTo(rollup.unit);
+            BigDecimal close = rs.getBigDecimal(8);
+            LocalDateTime end = validUntil.isBefore(last) ? validUntil : last;
+            for (LocalDateTime start = sampled.isBefore(from) ? from : sampled; !start.isAfter(end); start = start.plus(1, rollup.unit)) {
+                if (start.equals(sampled)) {
+                    bucket(start, rs.getBigDecimal(5)).add(rs.getBigDecimal(6), rs.getBigDecimal(7), close, rs.getInt(9));
+                } else {
+                    bucket(start, close).add(close, close, close, 0);
+                }
+            }
+        }
+
+        private Bucket bucket(LocalDateTime start, BigDecimal open) {
+            return pairBuckets.computeIfAbsent(start, bucketStart -> new Bucket(baseCurrency, targetCurrency, bucketStart, open));
+        }
+
+        private void flush() {
+            pairBuckets.values().forEach(bucket -> batch.add(bucket.toRow()));
+            pairBuckets.clear();
+            if (batch.size() >= INSERT_BATCH_SIZE) {
+                insert();
+            }
+        }
+
+        private void finish() {
+            flush();
+            insert();
+        }
+
+        private void insert() {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate("INSERT INTO " + rollup.table +
+                        " (base_currency_code, target_currency_code, bucket_start, open_rate, high_rate, low_rate, close_rate, samples) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        private final String baseCurrency;
+
+        private final String targetCurrency;
+
+        private final LocalDateTime start;
+
+        private final BigDecimal open;
+
+        private BigDecimal high;
+
+        private BigDecimal low;
+
+        private BigDecimal close;
+
+        private int samples;
+
+        private Bucket(String baseCurrency, String targetCurrency, LocalDateTime start, BigDecimal open) {
+            this.baseCurrency = baseCurrency;
+            this.targetCurrency = targetCurrency;
+            this.start = start;
+            this.open = open;
+            this.high = open;
+            this.low = open;
+        }
+
+        private void add(BigDecimal high, BigDecimal low, BigDecimal close, int samples) {
+            this.high = this.high.max(high);
+            this.low = this.low.min(low);
+            this.close = close;
+            this.samples += samples;
+        }
+
+        private Object[] toRow() {
+            return new Object[]{baseCurrency, targetCurrency, Timestamp.valueOf(start), open, high, low, close, samples};
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.currency.app.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface RateHistoryService {
+
+    /**
+     * Returns the rates of a base currency as they were at the given time, keyed by target currency.
+     */
+    Map<String, BigDecimal> getRatesAt(String baseCurrency, LocalDateTime at);
+
+    /**
+     * Samples the rate of a pair every {@code interval} from {@code from} to {@code to} and passes the points
+     * to the sink in time order while the history is still being read. Each point carries the rate in effect at
+     * its time; points before the first known rate are skipped.
+     */
+    void sampleHistory(String baseCurrency, String targetCurrency, LocalDateTime from, LocalDateTime to, Duration interval, Consumer<RatePoint> sink);
+}
@@ -0,0 +1,139 @@
+package com.currency.app.service;
+
+import com.currency.app.entity.ExchangeRate;
+import com.currency.app.repository.ExchangeRateRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Answers historical queries from the recent in-memory history when it reaches back far enough
+ * and from {@code exchange_rates} otherwise.
+ * Both as-of lookups and series walk the {@code (base_currency_code, target_currency_code, last_updated)} index,
+ * backwards to find the rate in effect at a time and forwards to read a range. Series are read in pages that
+ * continue after the last row of the previous page, each page in its own short query; the points of a page are
+ * only passed on once its connection is back in the pool, so a slow consumer never holds a connection, and
+ * neither the rows nor the points are ever held in memory as a whole.
+ */
+@Service
+public class RateHistoryServiceImpl implements RateHistoryService {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final ExchangeRateRepository exchangeRateRepository;
+
+    private final RecentRateHistory recentHistory;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RateHistoryServiceImpl(ExchangeRateRepository exchangeRateRepository, InMemoryRateStorage inMemoryRateStorage,
+                                  DataSource dataSource) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.recentHistory = inMemoryRateStorage.getRecentHistory();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, BigDecimal> getRatesAt(String baseCurrency, LocalDateTime at) {
+        Optional<Map<String, BigDecimal>> recentRates = recentHistory.getRatesAt(baseCurrency, at.atZone(ZoneId.systemDefault()).toInstant());
+        if (recentRates.isPresent()) {
+            return recentRates.get();
+        }
+
+        return exchangeRateRepository.findRatesForBaseCurrencyAt(baseCurrency, at)
+                                     .stream()
+                                     .collect(Collectors.toMap(rate -> rate.getTargetCurrency()
+                                                                           .getCode(), ExchangeRate::getRate));
+    }
+
+    @Override
+    public void sampleHistory(String baseCurrency, String targetCurrency, LocalDateTime from, LocalDateTime to,
+                              Duration interval, Consumer<RatePoint> sink) {
+        List<BigDecimal> initialRate = jdbcTemplate.queryForList(
+                "SELECT rate FROM exchange_rates " +
+                        "WHERE base_currency_code = ? AND target_currency_code = ? AND last_updated <= ? " +
+                        "ORDER BY last_updated DESC LIMIT 1",
+                BigDecimal.class, baseCurrency, targetCurrency, Timestamp.valueOf(from));
+
+        Sampler sampler = new Sampler(from, to, interval, initialRate.isEmpty() ? null : initialRate.get(0), sink);
+        RateChange last = new RateChange(Long.MAX_VALUE, from, null);
+        List<RateChange> page;
+        do {
+            page = jdbcTemplate.query("SELECT id, last_updated, rate FROM exchange_rates " +
+                            "WHERE base_currency_code = ? AND target_currency_code = ? AND last_updated >= ? AND last_updated <= ? " +
+                            "AND (last_updated > ? OR (last_updated = ? AND id > ?)) " +
+                            "ORDER BY last_updated, id LIMIT ?",
+                    (rs, rowNum) -> new RateChange(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(), rs.getBigDecimal(3)),
+                    baseCurrency, targetCurrency, Timestamp.valueOf(last.changedAt()), Timestamp.valueOf(to),
+                    Timestamp.valueOf(last.changedAt()), Timestamp.valueOf(last.changedAt()), last.id(), PAGE_SIZE);
+            for (RateChange change : page) {
+                sampler.advance(change.changedAt(), change.rate());
+                last = change;
+            }
+        } while (page.size() == PAGE_SIZE);
+        sampler.finish();
+    }
+
+    /**
+     * A row of the pair's history; {@code id} and {@code changedAt} are the position the next page continues from.
+     */
+    private record RateChange(long id, LocalDateTime changedAt, BigDecimal rate) {
+    }
+
+    private static final class Sampler {
+
+        private final LocalDateTime to;
+
+        private final Duration interval;
+
+        private final Consumer<RatePoint> sink;
+
+        private LocalDateTime next;
+
+        private BigDecimal rate;
+
+        private Sampler(LocalDateTime from, LocalDateTime to, Duration interval, BigDecimal initialRate, Consumer<RatePoint> sink) {
+            this.next = from;
+            this.to = to;
+            this.interval = interval;
+            this.rate = initialRate;
+            this.sink = sink;
+        }
+
+        /**
+         * Emits the points before a rate change and then applies it.
+         */
+        private void advance(LocalDateTime changedAt, BigDecimal changedRate) {
+            while (!next.isAfter(to) && next.isBefore(changedAt)) {
+                emit();
+            }
+            rate = changedRate;
+        }
+
+        private void finish() {
+            while (!next.isAfter(to)) {
+                emit();
+            }
+        }
+
+        private void emit() {
+            if (rate != null) {
+                sink.accept(new RatePoint(next, rate));
+            }
+            next = next.plus(interval);
+        }
+    }
+}
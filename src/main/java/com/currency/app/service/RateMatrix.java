@@ -0,0 +1,322 @@
+package com.currency.app.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Dense N×N rate matrix over interned currency codes.
+ * Every code gets a small index that stays stable across merges, and the rates of each base currency are kept as
+ * longs scaled by {@link #SCALE} decimal places in one array per row. Merges are copy-on-write per row: rows whose
+ * rates do not change are shared with the previous matrix, so updating one pair costs O(N) rather than O(N²).
+ * {@link BigDecimal} values are only created when a row is read through its {@link Map} view.
+ */
+public final class RateMatrix {
+
+    /**
+     * Number of decimal places kept per rate, matching the precision of the external provider and of the
+     * {@code numeric(20,6)} rate column.
+     */
+    public static final int SCALE = 6;
+
+    public static final long ABSENT = Long.MIN_VALUE;
+
+    public static final RateMatrix EMPTY = new RateMatrix(new String[0], Map.of(), new Row[0], new long[0], 0);
+
+    private final String[] codes;
+
+    private final Map<String, Integer> indices;
+
+    /**
+     * Rows by base index, {@code null} for a base without rates. A row created before later codes were interned is
+     * shorter than the matrix; the missing cells are absent.
+     */
+    private final Row[] rows;
+
+    private final long[] rowVersions;
+
+    private final int pairCount;
+
+    private RateMatrix(String[] codes, Map<String, Integer> indices, Row[] rows, long[] rowVersions, int pairCount) {
+        this.codes = codes;
+        this.indices = indices;
+        this.rows = rows;
+        this.rowVersions = rowVersions;
+        this.pairCount = pairCount;
+    }
+
+    /**
+     * Builds a matrix from codes and their scaled rates laid out row by row, stamping every row with the given version.
+     */
+    static RateMatrix of(String[] codes, long[] rates, long version) {
+        if (rates.length != codes.length * codes.length) {
+            throw new IllegalArgumentException("Expected " + codes.length * codes.length + " rates but got " + rates.length);
+        }
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < codes.length; i++) {
+            indices.put(codes[i], i);
+        }
+        String[] interned = codes.clone();
+        Map<String, Integer> internedIndices = Map.copyOf(indices);
+        Row[] rows = new Row[codes.length];
+        int pairs = 0;
+        for (int base = 0; base < codes.length; base++) {
+            Row row = Row.of(interned, internedIndices, Arrays.copyOfRange(rates, base * codes.length, (base + 1) * codes.length));
+            rows[base] = row;
+            pairs += row == null ? 0 : row.size;
+        }
+        long[] rowVersions = new long[codes.length];
+        Arrays.fill(rowVersions, version);
+        return new RateMatrix(interned, internedIndices, rows, rowVersions, pairs);
+    }
+
+    public static long toScaled(BigDecimal rate) {
+        return rate.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Returns the rate with exactly {@link #SCALE} decimal places, as the database tier returns it.
+     */
+    public static BigDecimal fromScaled(long scaledRate) {
+        return BigDecimal.valueOf(scaledRate, SCALE);
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Returns the number of pairs that have a rate.
+     */
+    public int pairCount() {
+        return pairCount;
+    }
+
+    /**
+     * Returns the approximate heap size of the matrix: the row arrays dominate, codes and row views add a little per
+     * currency. Rows shared with other matrices are counted in full.
+     */
+    public long footprintBytes() {
+        long size = codes.length;
+        long cells = 0;
+        for (Row row : rows) {
+            cells += row == null ? 0 : row.rates.length;
+        }
+        return Long.BYTES * cells + size * (Long.BYTES + 96);
+    }
+
+    public int indexOf(String code) {
+        Integer index = indices.get(code);
+        return index == null ? -1 : index;
+    }
+
+    public String codeAt(int index) {
+        return codes[index];
+    }
+
+    /**
+     * Returns the scaled rate for the pair or {@link #ABSENT} when the pair has no quote.
+     */
+    public long getScaled(int base, int target) {
+        Row row = rows[base];
+        return row == null ? ABSENT : row.getScaled(target);
+    }
+
+    /**
+     * Returns the version of the merge that last changed a rate of the base currency, or 0 when it has none.
+     */
+    public long getRowVersion(String baseCurrency) {
+        int base = indexOf(baseCurrency);
+        return base < 0 ? 0 : rowVersions[base];
+    }
+
+    public Map<String, BigDecimal> row(String baseCurrency) {
+        int base = indexOf(baseCurrency);
+        return base < 0 || rows[base] == null ? Map.of() : rows[base];
+    }
+
+    /**
+     * Returns a new matrix with the updates applied. Only rows whose rates actually change are copied, and they are
+     * stamped with the given version; every other row is shared with this matrix.
+     */
+    public RateMatrix merge(Map<String, Map<String, BigDecimal>> updates, long version) {
+        Map<String, Integer> added = new LinkedHashMap<>();
+        updates.forEach((baseCurrency, quotes) -> {
+            intern(baseCurrency, added);
+            quotes.keySet().forEach(targetCurrency -> intern(targetCurrency, added));
+        });
+        String[] mergedCodes = codes;
+        Map<String, Integer> mergedIndices = indices;
+        if (!added.isEmpty()) {
+            mergedCodes = Arrays.copyOf(codes, codes.length + added.size());
+            Map<String, Integer> grown = new HashMap<>(indices);
+            for (Map.Entry<String, Integer> code : added.entrySet()) {
+                mergedCodes[code.getValue()] = code.getKey();
+                grown.put(code.getKey(), code.getValue());
+            }
+            mergedIndices = Map.copyOf(grown);
+        }
+
+        int size = mergedCodes.length;
+        Row[] mergedRows = Arrays.copyOf(rows, size);
+        long[] mergedRowVersions = Arrays.copyOf(rowVersions, size);
+        int pairs = pairCount;
+        for (Map.Entry<String, Map<String, BigDecimal>> update : updates.entrySet()) {
+            int base = mergedIndices.get(update.getKey());
+            Row current = mergedRows[base];
+            long[] rowRates = null;
+            for (Map.Entry<String, BigDecimal> quote : update.getValue().entrySet()) {
+                int target = mergedIndices.get(quote.getKey());
+                long scaledRate = toScaled(quote.getValue());
+                if ((current == null ? ABSENT : current.getScaled(target)) != scaledRate) {
+                    if (rowRates == null) {
+                        rowRates = new long[size];
+                        Arrays.fill(rowRates, ABSENT);
+                        if (current != null) {
+                            System.arraycopy(current.rates, 0, rowRates, 0, current.rates.length);
+                        }
+                    }
+                    rowRates[target] = scaledRate;
+                }
+            }
+            if (rowRates != null) {
+                Row row = Row.of(mergedCodes, mergedIndices, rowRates);
+                pairs += row.size - (current == null ? 0 : current.size);
+                mergedRows[base] = row;
+                mergedRowVersions[base] = version;
+            }
+        }
+
+        return new RateMatrix(mergedCodes, mergedIndices, mergedRows, mergedRowVersions, pairs);
+    }
+
+    private void intern(String code, Map<String, Integer> added) {
+        if (!indices.containsKey(code) && !added.containsKey(code)) {
+            added.put(code, codes.length + added.size());
+        }
+    }
+
+    /**
+     * Rates of one base currency. A row only knows the codes interned when it was created, which are a prefix of the
+     * codes of every later matrix, so it can be shared by all of them.
+     */
+    private static final class Row extends AbstractMap<String, BigDecimal> {
+
+        private final String[] codes;
+
+        private final Map<String, Integer> indices;
+
+        private final long[] rates;
+
+        private final int size;
+
+        private final Set<Entry<String, BigDecimal>> entrySet = new AbstractSet<>() {
+
+            @Override
+            public Iterator<Entry<String, BigDecimal>> iterator() {
+                return new RowIterator(codes, rates);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+
+        private Row(String[] codes, Map<String, Integer> indices, long[] rates, int size) {
+            this.codes = codes;
+            this.indices = indices;
+            this.rates = rates;
+            this.size = size;
+        }
+
+        /**
+         * Returns the row of the given scaled rates, or {@code null} if none of them is present.
+         */
+        private static Row of(String[] codes, Map<String, Integer> indices, long[] rates) {
+            int size = 0;
+            for (long rate : rates) {
+                if (rate != ABSENT) {
+                    size++;
+                }
+            }
+            return size == 0 ? null : new Row(codes, indices, rates, size);
+        }
+
+        private long getScaled(int target) {
+            return target < rates.length ? rates[target] : ABSENT;
+        }
+
+        @Override
+        public BigDecimal get(Object key) {
+            long scaledRate = scaledRate(key);
+            return scaledRate == ABSENT ? null : fromScaled(scaledRate);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return scaledRate(key) != ABSENT;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, BigDecimal>> entrySet() {
+            return entrySet;
+        }
+
+        private long scaledRate(Object key) {
+            Integer target = key instanceof String code ? indices.get(code) : null;
+            return target == null ? ABSENT : getScaled(target);
+        }
+    }
+
+    private static final class RowIterator implements Iterator<Map.Entry<String, BigDecimal>> {
+
+        private final String[] codes;
+
+        private final long[] rates;
+
+        private int next;
+
+        private RowIterator(String[] codes, long[] rates) {
+            this.codes = codes;
+            this.rates = rates;
+            this.next = advance(0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < rates.length;
+        }
+
+        @Override
+        public Map.Entry<String, BigDecimal> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int target = next;
+            next = advance(target + 1);
+            return Map.entry(codes[target], fromScaled(rates[target]));
+        }
+
+        private int advance(int from) {
+            int target = from;
+            while (target < rates.length && rates[target] == ABSENT) {
+                target++;
+            }
+            return target;
+        }
+    }
+}
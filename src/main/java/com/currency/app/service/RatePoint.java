@@ -0,0 +1,10 @@
+package com.currency.app.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Rate of a currency pair as it was at a point in time.
+ */
+public record RatePoint(LocalDateTime time, BigDecimal rate) {
+}
@@ -0,0 +1,45 @@
+package com.currency.app.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable view of all in-memory rates at one point in time.
+ * A new snapshot is built next to the current one on every update and published as a whole,
+ * so readers never observe a partially applied refresh.
+ */
+public record RateSnapshot(long version, Instant publishedAt, RateMatrix matrix) {
+
+    public static final RateSnapshot EMPTY = new RateSnapshot(0, Instant.EPOCH, RateMatrix.EMPTY);
+
+    public Map<String, BigDecimal> getRates(String baseCurrency) {
+        return matrix.row(baseCurrency);
+    }
+
+    /**
+     * Returns the snapshot version that last changed the rates of the base currency, or 0 when it has none.
+     */
+    public long getVersion(String baseCurrency) {
+        return matrix.getRowVersion(baseCurrency);
+    }
+
+    /**
+     * Returns the rates of every base currency that has any, keyed by base and then target currency.
+     */
+    public Map<String, Map<String, BigDecimal>> getAllRates() {
+        Map<String, Map<String, BigDecimal>> rates = new HashMap<>();
+        for (int base = 0; base < matrix.size(); base++) {
+            Map<String, BigDecimal> row = matrix.row(matrix.codeAt(base));
+            if (!row.isEmpty()) {
+                rates.put(matrix.codeAt(base), row);
+            }
+        }
+        return rates;
+    }
+
+    RateSnapshot merge(Map<String, Map<String, BigDecimal>> updates, Instant publishedAt) {
+        return new RateSnapshot(version + 1, publishedAt, matrix.merge(updates, version + 1));
+    }
+}
@@ -0,0 +1,98 @@
+package com.currency.app.service;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Local binary copy of the published rate matrix, so the in-memory tier can be warmed up without the database.
+ * The file holds a header with the snapshot version, the interned currency codes and the scaled rates row by row, exactly as
+ * {@link RateMatrix} keeps them; it is read through a memory mapping and split into the matrix rows.
+ * Files are written next to the target and moved over it, so a reader never sees a partial snapshot.
+ */
+final class RateSnapshotFile {
+
+    private static final int MAGIC = 0x52415445;
+
+    private static final int FORMAT_VERSION = 2;
+
+    private RateSnapshotFile() {
+    }
+
+    static void write(Path path, RateSnapshot snapshot) throws IOException {
+        RateMatrix matrix = snapshot.matrix();
+        int size = matrix.size();
+        byte[][] codes = new byte[size][];
+        int length = 3 * Integer.BYTES + 2 * Long.BYTES + Long.BYTES * size * size;
+        for (int i = 0; i < size; i++) {
+            codes[i] = matrix.codeAt(i).getBytes(StandardCharsets.UTF_8);
+            length += Short.BYTES + codes[i].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(snapshot.version()).putLong(snapshot.publishedAt().toEpochMilli()).putInt(size);
+        for (byte[] code : codes) {
+            buffer.putShort((short) code.length).put(code);
+        }
+        for (int base = 0; base < size; base++) {
+            for (int target = 0; target < size; target++) {
+                buffer.putLong(matrix.getScaled(base, target));
+            }
+        }
+        buffer.flip();
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write}, or nothing if the file does not exist or is not a valid snapshot.
+     */
+    static Optional<RateSnapshot> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            long version = buffer.getLong();
+            Instant publishedAt = Instant.ofEpochMilli(buffer.getLong());
+            int size = buffer.getInt();
+            if (version < 1 || size < 0 || (long) size * size * Long.BYTES > buffer.remaining()) {
+                return Optional.empty();
+            }
+            String[] codes = new String[size];
+            for (int i = 0; i < size; i++) {
+                byte[] code = new byte[buffer.getShort()];
+                buffer.get(code);
+                codes[i] = new String(code, StandardCharsets.UTF_8);
+            }
+            long[] rates = new long[size * size];
+            buffer.asLongBuffer().get(rates);
+            return Optional.of(new RateSnapshot(version, publishedAt, RateMatrix.of(codes, rates, version)));
+        } catch (NoSuchFileException | BufferUnderflowException | NegativeArraySizeException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
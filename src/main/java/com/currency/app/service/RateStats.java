@@ -0,0 +1,10 @@
+package com.currency.app.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Current rate of a pair with its change, low and high over the last 24 hours.
+ * {@code change} is null while less than 24 hours of history are known.
+ */
+public record RateStats(BigDecimal rate, BigDecimal change, BigDecimal low, BigDecimal high) {
+}
@@ -2,10 +2,26 @@ package com.currency.app.service;
 
 import java.math.BigDecimal;
 import java.util.Map;
+import java.util.Set;
 
 public interface RateStorage {
 
     void updateRate(String baseCurrency, String targetCurrency, BigDecimal rate);
 
     Map<String, BigDecimal> getAllRatesForCurrency(String baseCurrency);
+
+    /**
+     * Stores a whole snapshot of rates keyed by base currency and then by target currency.
+     * Storages that can write in bulk should override this instead of relying on per-pair updates.
+     */
+    default void updateRates(Map<String, Map<String, BigDecimal>> rates) {
+        rates.forEach((baseCurrency, quotes) -> quotes.forEach((targetCurrency, rate) -> updateRate(baseCurrency, targetCurrency, rate)));
+    }
+
+    /**
+     * Records that the stored rates of the given pairs, keyed by base currency, are still current.
+     * Storages that keep no validity information can ignore this.
+     */
+    default void confirmRates(Map<String, Set<String>> pairs) {
+    }
 }
@@ -1,40 +1,408 @@
 package com.currency.app.service;
 
+import com.currency.app.config.RateProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.OrderComparator;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+/**
+ * Front of the tiered rate storage. Reads go through the {@link RateStorageTier tiers} in order until one has the
+ * rates, writes go to every tier in the same order. Tiers marked write-behind are written asynchronously through a
+ * bounded, batched and optionally journaled queue, so the faster tiers serve new rates without waiting for the
+ * slower ones to commit. When virtual threads are enabled, the write-behind flushers run on virtual threads too.
+ */
+@Slf4j
 @Service
 public class RateStorageService implements RateStorage {
 
-    private final List<RateStorage> rateStorages;
+    private final List<RateStorageTier> tiers;
 
-    public RateStorageService(DatabaseRateStorage databaseRateStorage, InMemoryRateStorage inMemoryRateStorage) {
-        this.rateStorages = List.of(databaseRateStorage, inMemoryRateStorage);
+    /**
+     * Meters of every tier, at the same index as the tier.
+     */
+    private final List<TierMeters> tierMeters;
+
+    private final Counter negativeCacheHits;
+
+    private final Map<RateStorageTier, WriteBehindQueue> writeBehindQueues = new IdentityHashMap<>();
+
+    private final InMemoryRateStorage inMemoryRateStorage;
+
+    private final BigDecimal changeTolerance;
+
+    private final Duration writeBehindDrainTimeout;
+
+    private final SingleFlight<String, Map<String, BigDecimal>> loads = new SingleFlight<>();
+
+    private final NegativeCache<String> unknownCurrencies;
+
+    @Autowired
+    public RateStorageService(List<RateStorageTier> tiers, InMemoryRateStorage inMemoryRateStorage, RateProperties rateProperties,
+                              MeterRegistry meterRegistry, Environment environment) {
+        this(tiers, inMemoryRateStorage, rateProperties, meterRegistry, Clock.systemUTC(),
+             Threading.VIRTUAL.isActive(environment) ? new VirtualThreadTaskExecutor().getVirtualThreadFactory() : null);
+    }
+
+    RateStorageService(List<RateStorageTier> tiers, InMemoryRateStorage inMemoryRateStorage, RateProperties rateProperties,
+                       MeterRegistry meterRegistry) {
+        this(tiers, inMemoryRateStorage, rateProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    RateStorageService(List<RateStorageTier> tiers, InMemoryRateStorage inMemoryRateStorage,
+                       RateProperties rateProperties, MeterRegistry meterRegistry, Clock clock) {
+        this(tiers, inMemoryRateStorage, rateProperties, meterRegistry, clock, null);
+    }
+
+    /**
+     * @param writeBehindThreads creates the write-behind flusher threads, or {@code null} for platform daemon threads
+     */
+    private RateStorageService(List<RateStorageTier> tiers, InMemoryRateStorage inMemoryRateStorage, RateProperties rateProperties,
+                               MeterRegistry meterRegistry, Clock clock, ThreadFactory writeBehindThreads) {
+        List<RateStorageTier> orderedTiers = new ArrayList<>(tiers);
+        OrderComparator.sort(orderedTiers);
+        this.tiers = List.copyOf(orderedTiers);
+        this.tierMeters = this.tiers.stream().map(tier -> new TierMeters(tierName(tier), meterRegistry)).toList();
+        this.negativeCacheHits = Counter.builder("currency.rates.negative-cache.hits")
+                                        .description("Lookups of base currencies remembered as having no rates")
+                                        .register(meterRegistry);
+        this.inMemoryRateStorage = inMemoryRateStorage;
+        this.changeTolerance = rateProperties.getChangeTolerance();
+        this.writeBehindDrainTimeout = rateProperties.getWriteBehindDrainTimeout();
+        this.unknownCurrencies = new NegativeCache<>(rateProperties.getNegativeCacheTtl(), rateProperties.getNegativeCacheSize(), clock);
+        if (rateProperties.isWriteBehind()) {
+            this.tiers.stream()
+                      .filter(RateStorageTier::isWriteBehind)
+                      .forEach(tier -> writeBehindQueues.put(tier, writeBehindQueue(tier, rateProperties, writeBehindThreads)));
+        }
+        writeBehindQueues.forEach((tier, queue) -> registerWriteBehindMeters(tierName(tier), queue, meterRegistry));
+    }
+
+    /**
+     * Applies the writes still queued for write-behind tiers before the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Map.Entry<RateStorageTier, WriteBehindQueue> entry : writeBehindQueues.entrySet()) {
+            WriteBehindQueue queue = entry.getValue();
+            int backlog = queue.getBacklog();
+            if (!queue.close(writeBehindDrainTimeout)) {
+                log.warn("Write-behind of {} was not drained within {}; {} of {} queued writes may not have been applied{}",
+                         tierName(entry.getKey()), writeBehindDrainTimeout, queue.getBacklog(), backlog,
+                         queue.isJournaled() ? " and are replayed from the journal on the next start" : " and are lost");
+            }
+        }
+    }
+
+    /**
+     * Returns the snapshot currently published by the in-memory tier.
+     */
+    public RateSnapshot getPublishedSnapshot() {
+        return inMemoryRateStorage.getSnapshot();
+    }
+
+    /**
+     * Returns the current rates of a base currency with their 24 hour change, low and high, keyed by target currency.
+     */
+    public Map<String, RateStats> getRateStats(String baseCurrency) {
+        return inMemoryRateStorage.getRecentHistory().getStats(baseCurrency);
     }
 
     public void updateRate(String baseCurrency, String targetCurrency, BigDecimal rate) {
-        rateStorages.forEach(storage -> storage.updateRate(baseCurrency, targetCurrency, rate));
+        unknownCurrencies.remove(baseCurrency);
+        write(tier -> tier.updateRate(baseCurrency, targetCurrency, rate),
+              new RateWrite.Update(Instant.now(), Map.of(baseCurrency, Map.of(targetCurrency, rate))), null);
+    }
+
+    /**
+     * Compares the rates with the published snapshot and only stores the pairs that moved by at least
+     * the change tolerance; the remaining pairs are confirmed as still valid.
+     */
+    @Override
+    public void updateRates(Map<String, Map<String, BigDecimal>> rates) {
+        RateSnapshot published = inMemoryRateStorage.getSnapshot();
+        Map<String, Map<String, BigDecimal>> changed = new HashMap<>();
+        Map<String, Set<String>> unchanged = new HashMap<>();
+        rates.forEach((baseCurrency, quotes) -> compare(published, baseCurrency, quotes, changed, unchanged));
+
+        rates.keySet().forEach(unknownCurrencies::remove);
+        if (!changed.isEmpty()) {
+            write(tier -> tier.updateRates(changed), new RateWrite.Update(Instant.now(), changed), null);
+        }
+        if (!unchanged.isEmpty()) {
+            confirmRates(unchanged);
+        }
     }
 
+    /**
+     * Starts a refresh whose base currencies are stored in every tier but the in-memory one as they arrive, and
+     * published in the in-memory tier as a single snapshot once the refresh is {@link RateRefresh#publish() published}.
+     */
+    public RateRefresh startRefresh() {
+        return new RateRefresh(inMemoryRateStorage.getSnapshot());
+    }
+
+    @Override
+    public void confirmRates(Map<String, Set<String>> pairs) {
+        write(tier -> tier.confirmRates(pairs), new RateWrite.Confirm(Instant.now(), pairs), null);
+    }
+
+    /**
+     * Serves the rates from the first tier. On a miss, concurrent callers for the same base currency share a
+     * single read through the later tiers, whose result is loaded into the tiers before the one that had it.
+     * Base currencies without any stored rates are remembered for {@code currency.rates.negative-cache-ttl}.
+     */
     public Map<String, BigDecimal> getAllRatesForCurrency(String baseCurrency) {
-        return rateStorages.stream()
-                           .filter(storage -> storage instanceof InMemoryRateStorage)
-                           .findFirst()
-                           .map(storage -> storage.getAllRatesForCurrency(baseCurrency))
-                           .filter(map -> !CollectionUtils.isEmpty(map))
-                           .orElseGet(() -> getFromFirstAvailableStorage(baseCurrency));
-    }
-
-    private Map<String, BigDecimal> getFromFirstAvailableStorage(String baseCurrency) {
-        return rateStorages.stream()
-                           .filter(storage -> !(storage instanceof InMemoryRateStorage))
-                           .map(storage -> storage.getAllRatesForCurrency(baseCurrency))
-                           .filter(map -> !CollectionUtils.isEmpty(map))
-                           .findFirst()
-                           .orElse(Map.of());
+        Map<String, BigDecimal> rates = getCachedRates(baseCurrency);
+        return rates != null ? rates : loads.load(baseCurrency, this::readThrough);
+    }
+
+    /**
+     * Returns the rates of the base currency from the first tier, no rates if it is remembered as having none, or
+     * {@code null} if they have to be read from a later tier.
+     */
+    Map<String, BigDecimal> getCachedRates(String baseCurrency) {
+        Map<String, BigDecimal> rates = tiers.get(0).getAllRatesForCurrency(baseCurrency);
+        if (tierMeters.get(0).count(rates)) {
+            return rates;
+        }
+        if (unknownCurrencies.contains(baseCurrency)) {
+            negativeCacheHits.increment();
+            return Map.of();
+        }
+        return null;
+    }
+
+    /**
+     * Handles rates read from the database outside of the tiers, as a read-through would: they are loaded into
+     * every tier, or the base currency is remembered as having none.
+     */
+    void loaded(String baseCurrency, Map<String, BigDecimal> rates) {
+        if (rates.isEmpty()) {
+            unknownCurrencies.add(baseCurrency);
+        } else {
+            tiers.forEach(tier -> tier.loadIfAbsent(baseCurrency, rates));
+        }
+    }
+
+    private Map<String, BigDecimal> readThrough(String baseCurrency) {
+        for (int i = 1; i < tiers.size(); i++) {
+            RateStorageTier tier = tiers.get(i);
+            TierMeters meters = tierMeters.get(i);
+            Map<String, BigDecimal> rates = meters.reads.record(() -> tier.getAllRatesForCurrency(baseCurrency));
+            if (meters.count(rates)) {
+                tiers.subList(0, i).forEach(earlier -> earlier.loadIfAbsent(baseCurrency, rates));
+                return rates;
+            }
+        }
+        unknownCurrencies.add(baseCurrency);
+        return Map.of();
+    }
+
+    /**
+     * Adds the quotes of a base currency to {@code changed} or {@code unchanged}, depending on whether they moved
+     * by at least the change tolerance from the published rates.
+     */
+    private void compare(RateSnapshot published, String baseCurrency, Map<String, BigDecimal> quotes,
+                         Map<String, Map<String, BigDecimal>> changed, Map<String, Set<String>> unchanged) {
+        Map<String, BigDecimal> publishedQuotes = published.getRates(baseCurrency);
+        quotes.forEach((targetCurrency, rate) -> {
+            BigDecimal publishedRate = publishedQuotes.get(targetCurrency);
+            if (publishedRate != null && publishedRate.subtract(rate).abs().compareTo(changeTolerance) < 0) {
+                unchanged.computeIfAbsent(baseCurrency, code -> new HashSet<>()).add(targetCurrency);
+            } else {
+                changed.computeIfAbsent(baseCurrency, code -> new HashMap<>()).put(targetCurrency, rate);
+            }
+        });
+    }
+
+    /**
+     * Applies the operation to every tier in order but the skipped one, except for write-behind tiers, which get
+     * the equivalent write queued.
+     */
+    private void write(Consumer<RateStorageTier> operation, RateWrite write, RateStorageTier skipped) {
+        for (int i = 0; i < tiers.size(); i++) {
+            RateStorageTier tier = tiers.get(i);
+            if (tier == skipped) {
+                continue;
+            }
+            WriteBehindQueue queue = writeBehindQueues.get(tier);
+            if (queue == null) {
+                tierMeters.get(i).writes.record(() -> operation.accept(tier));
+            } else {
+                queue.submit(write);
+            }
+        }
+    }
+
+    private WriteBehindQueue writeBehindQueue(RateStorageTier tier, RateProperties rateProperties, ThreadFactory threadFactory) {
+        String name = tierName(tier);
+        RateWriteJournal journal = null;
+        RateWriteJournal deadLetters = null;
+        if (rateProperties.getWriteBehindJournalDir() != null) {
+            if (!rateProperties.getWriteBehindJournalDir().isAbsolute()) {
+                throw new IllegalArgumentException("currency.rates.write-behind-journal-dir must be an absolute path, got "
+                        + rateProperties.getWriteBehindJournalDir());
+            }
+            try {
+                journal = new RateWriteJournal(rateProperties.getWriteBehindJournalDir().resolve(name + ".journal"));
+                deadLetters = new RateWriteJournal(rateProperties.getWriteBehindJournalDir().resolve(name + ".dead-letter"));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open the write-behind journal of " + name, e);
+            }
+        }
+        Timer writes = tierMeters.get(tiers.indexOf(tier)).writes;
+        Consumer<List<RateWrite>> sink = batch -> writes.record(() -> tier.write(batch));
+        return new WriteBehindQueue(name, sink, rateProperties.getWriteBehindQueueCapacity(), rateProperties.getWriteBehindFlushSize(),
+                                    rateProperties.getWriteBehindFlushInterval(), rateProperties.getWriteBehindMaxRetries(), journal,
+                                    deadLetters, threadFactory);
+    }
+
+    private static void registerWriteBehindMeters(String tierName, WriteBehindQueue queue, MeterRegistry registry) {
+        Tags tags = Tags.of("tier", tierName);
+        Gauge.builder("currency.rates.write-behind.backlog", queue, WriteBehindQueue::getBacklog)
+             .description("Writes queued for a write-behind tier and not applied yet")
+             .tags(tags)
+             .register(registry);
+        TimeGauge.builder("currency.rates.write-behind.lag", queue, TimeUnit.MILLISECONDS, q -> q.getLag().toMillis())
+                 .description("Age of the oldest write not applied to a write-behind tier yet")
+                 .tags(tags)
+                 .register(registry);
+        FunctionCounter.builder("currency.rates.write-behind.failures", queue, WriteBehindQueue::getFailedFlushes)
+                       .description("Batches a write-behind tier failed to apply and retried")
+                       .tags(tags)
+                       .register(registry);
+        FunctionCounter.builder("currency.rates.write-behind.dead-letters", queue, WriteBehindQueue::getDeadLetteredWrites)
+                       .description("Writes a write-behind tier gave up on after their retries were exhausted")
+                       .tags(tags)
+                       .register(registry);
+    }
+
+    private static String tierName(RateStorageTier tier) {
+        return ClassUtils.getUserClass(tier).getSimpleName();
+    }
+
+    /**
+     * Meters of one tier, resolved once so recording on the read path is a plain counter increment. Only the tiers
+     * behind the first one have their reads timed; the first tier is an in-memory lookup cheaper than the timer.
+     */
+    /**
+     * One refresh of the rates. Each base currency is compared with the snapshot published when the refresh started
+     * and written to the other tiers right away; the in-memory tier only receives the changed pairs of every base
+     * on {@link #publish()}, so readers never see a mix of old and new bases.
+     */
+    public final class RateRefresh {
+
+        private final RateSnapshot published;
+
+        private final Map<String, Map<String, BigDecimal>> changed = new HashMap<>();
+
+        private RateRefresh(RateSnapshot published) {
+            this.published = published;
+        }
+
+        /**
+         * Stores the quotes of a base currency in every tier but the in-memory one.
+         */
+        public void store(String baseCurrency, Map<String, BigDecimal> quotes) {
+            Map<String, Map<String, BigDecimal>> baseChanged = new HashMap<>();
+            Map<String, Set<String>> baseUnchanged = new HashMap<>();
+            compare(published, baseCurrency, quotes, baseChanged, baseUnchanged);
+            unknownCurrencies.remove(baseCurrency);
+            if (!baseChanged.isEmpty()) {
+                write(tier -> tier.updateRates(baseChanged), new RateWrite.Update(Instant.now(), baseChanged), inMemoryRateStorage);
+                changed.putAll(baseChanged);
+            }
+            if (!baseUnchanged.isEmpty()) {
+                write(tier -> tier.confirmRates(baseUnchanged), new RateWrite.Confirm(Instant.now(), baseUnchanged), inMemoryRateStorage);
+            }
+        }
+
+        /**
+         * Publishes the changed pairs of every stored base currency in the in-memory tier as one snapshot.
+         */
+        public void publish() {
+            if (changed.isEmpty()) {
+                return;
+            }
+            int index = tiers.indexOf(inMemoryRateStorage);
+            if (index < 0) {
+                inMemoryRateStorage.updateRates(changed);
+            } else {
+                tierMeters.get(index).writes.record(() -> inMemoryRateStorage.updateRates(changed));
+            }
+        }
+    }
+
+    private static final class TierMeters {
+
+        private final Counter hits;
+
+        private final Counter misses;
+
+        private final Timer reads;
+
+        private final Timer writes;
+
+        private TierMeters(String tierName, MeterRegistry registry) {
+            this.hits = lookups(tierName, "hit", registry);
+            this.misses = lookups(tierName, "miss", registry);
+            this.reads = Timer.builder("currency.rates.tier.reads")
+                              .description("Latency of reading the rates of a base currency from a tier")
+                              .tag("tier", tierName)
+                              .publishPercentileHistogram()
+                              .register(registry);
+            this.writes = Timer.builder("currency.rates.tier.writes")
+                               .description("Latency of a write, or a write-behind batch, applied to a tier")
+                               .tag("tier", tierName)
+                               .publishPercentileHistogram()
+                               .register(registry);
+        }
+
+        /**
+         * Counts the lookup as a hit or a miss and returns whether it was a hit.
+         */
+        private boolean count(Map<String, BigDecimal> rates) {
+            boolean hit = !CollectionUtils.isEmpty(rates);
+            (hit ? hits : misses).increment();
+            return hit;
+        }
+
+        private static Counter lookups(String tierName, String result, MeterRegistry registry) {
+            return Counter.builder("currency.rates.tier.lookups")
+                          .description("Lookups of the rates of a base currency per tier")
+                          .tags("tier", tierName, "result", result)
+                          .register(registry);
+        }
     }
 }
@@ -0,0 +1,43 @@
+package com.currency.app.service;
+
+import org.springframework.core.Ordered;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One level of the chain {@link RateStorageService} reads through and writes to. Every tier bean is picked up
+ * automatically; tiers are consulted in ascending {@link #getOrder() order} and a rate found in a later tier is
+ * loaded into the earlier ones.
+ */
+public interface RateStorageTier extends RateStorage, Ordered {
+
+    /**
+     * Whether writes to this tier may be applied asynchronously, after the faster tiers already serve the new rates.
+     */
+    default boolean isWriteBehind() {
+        return false;
+    }
+
+    /**
+     * Stores rates of a base currency read from a later tier, unless this tier already has rates for it.
+     * Tiers that are not worth filling on read can ignore this.
+     */
+    default void loadIfAbsent(String baseCurrency, Map<String, BigDecimal> rates) {
+    }
+
+    /**
+     * Applies writes queued for write-behind, oldest first. Tiers that record when rates were stored should
+     * override this to use the time of every write and to apply the batch at once.
+     */
+    default void write(List<RateWrite> writes) {
+        for (RateWrite write : writes) {
+            if (write instanceof RateWrite.Update update) {
+                updateRates(update.rates());
+            } else if (write instanceof RateWrite.Confirm confirm) {
+                confirmRates(confirm.pairs());
+            }
+        }
+    }
+}
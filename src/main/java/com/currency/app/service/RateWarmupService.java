@@ -0,0 +1,111 @@
+package com.currency.app.service;
+
+import com.currency.app.config.RateProperties;
+import com.currency.app.repository.ExchangeRateRepository;
+import com.currency.app.repository.LatestRate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Fills the in-memory tier before the application reports ready, so the first requests after a restart
+ * do not fall through to the database one base currency at a time.
+ * The rates come from the local snapshot file when a recent one exists, otherwise from a single query
+ * for the latest rate of every pair. The snapshot file is rewritten after every refresh.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RateWarmupService {
+
+    public enum Source {
+        SNAPSHOT_FILE,
+        DATABASE,
+        /**
+         * A refresh published rates before the warm-up finished, so the loaded rates were discarded.
+         */
+        REFRESH
+    }
+
+    private final ExchangeRateRepository exchangeRateRepository;
+
+    private final InMemoryRateStorage inMemoryRateStorage;
+
+    private final RateProperties rateProperties;
+
+    private volatile Source source;
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmUpOnStartup() {
+        warmUp(Instant.now());
+    }
+
+    @EventListener
+    public void onRatesPublished(RatesPublishedEvent event) {
+        Path snapshotFile = rateProperties.getSnapshotFile();
+        if (snapshotFile == null || event.previous().version() == event.current().version()) {
+            return;
+        }
+        try {
+            RateSnapshotFile.write(snapshotFile, event.current());
+        } catch (IOException e) {
+            log.warn("Could not write rate snapshot file {}", snapshotFile, e);
+        }
+    }
+
+    /**
+     * Returns where the in-memory tier was warmed up from, or {@code null} while the warm-up has not finished.
+     */
+    public Source getSource() {
+        return source;
+    }
+
+    void warmUp(Instant now) {
+        Optional<RateSnapshot> fromFile = readSnapshotFile(now);
+        RateSnapshot loaded = fromFile.orElseGet(this::loadFromDatabase);
+        boolean published = loaded.matrix().size() == 0 || inMemoryRateStorage.warmUp(loaded);
+        source = !published ? Source.REFRESH : fromFile.isPresent() ? Source.SNAPSHOT_FILE : Source.DATABASE;
+    }
+
+    private Optional<RateSnapshot> readSnapshotFile(Instant now) {
+        Path snapshotFile = rateProperties.getSnapshotFile();
+        if (snapshotFile == null) {
+            return Optional.empty();
+        }
+        try {
+            Instant oldest = now.minus(rateProperties.getSnapshotMaxAge());
+            return RateSnapshotFile.read(snapshotFile).filter(snapshot -> !snapshot.publishedAt().isBefore(oldest));
+        } catch (IOException e) {
+            log.warn("Could not read rate snapshot file {}, warming up from the database", snapshotFile, e);
+            return Optional.empty();
+        }
+    }
+
+    private RateSnapshot loadFromDatabase() {
+        List<LatestRate> latestRates = exchangeRateRepository.findAllLatestRates();
+        Map<String, Map<String, BigDecimal>> rates = new HashMap<>();
+        LocalDateTime lastUpdated = null;
+        for (LatestRate latestRate : latestRates) {
+            rates.computeIfAbsent(latestRate.getBaseCurrencyCode(), code -> new HashMap<>())
+                 .put(latestRate.getTargetCurrencyCode(), latestRate.getRate());
+            if (lastUpdated == null || latestRate.getLastUpdated().isAfter(lastUpdated)) {
+                lastUpdated = latestRate.getLastUpdated();
+            }
+        }
+        Instant publishedAt = lastUpdated == null ? Instant.EPOCH : lastUpdated.atZone(ZoneId.systemDefault()).toInstant();
+        return RateSnapshot.EMPTY.merge(rates, publishedAt);
+    }
+}
@@ -0,0 +1,27 @@
+package com.currency.app.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A write to a rate storage tier together with the time it was made, so it can be queued, journaled and applied
+ * later without losing when the rates were observed.
+ */
+public sealed interface RateWrite {
+
+    Instant at();
+
+    /**
+     * New rates keyed by base currency and then by target currency.
+     */
+    record Update(Instant at, Map<String, Map<String, BigDecimal>> rates) implements RateWrite {
+    }
+
+    /**
+     * Pairs, keyed by base currency, whose stored rates are still current.
+     */
+    record Confirm(Instant at, Map<String, Set<String>> pairs) implements RateWrite {
+    }
+}
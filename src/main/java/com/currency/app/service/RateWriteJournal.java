@@ -0,0 +1,243 @@
+package com.currency.app.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the writes queued for a write-behind tier, so writes accepted before a crash are applied
+ * after the restart. Every write is appended and forced to disk before it is queued; once a batch is applied, a
+ * commit record for its last write is appended, and the file is truncated whenever nothing is left uncommitted.
+ * A crash between applying a batch and committing it replays that batch, so tiers see writes at least once.
+ * <p>
+ * Records are {@code length, payload, crc32}; a torn or corrupt record ends the journal. File access is guarded by
+ * a lock rather than a monitor, so forcing the file never pins the carrier of a virtual thread.
+ */
+final class RateWriteJournal implements Closeable {
+
+    private static final byte UPDATE = 1;
+
+    private static final byte CONFIRM = 2;
+
+    private static final byte COMMIT = 3;
+
+    record Entry(long sequence, RateWrite write) {
+    }
+
+    private final FileChannel channel;
+
+    private final List<Entry> recovered;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long lastSequence;
+
+    private long committedSequence;
+
+    RateWriteJournal(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.recovered = recover();
+    }
+
+    /**
+     * Returns the writes that were journaled but never committed when the journal was opened, oldest first.
+     */
+    List<Entry> getRecovered() {
+        return recovered;
+    }
+
+    long append(RateWrite write) {
+        lock.lock();
+        try {
+            long sequence = lastSequence + 1;
+            writeRecord(encode(sequence, write));
+            lastSequence = sequence;
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks every write up to and including the sequence as applied.
+     */
+    void commit(long sequence) {
+        lock.lock();
+        try {
+            committedSequence = Math.max(committedSequence, sequence);
+            if (committedSequence == lastSequence) {
+                channel.truncate(0);
+                channel.force(true);
+            } else {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeByte(COMMIT);
+                out.writeLong(sequence);
+                writeRecord(bytes.toByteArray());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Entry> recover() throws IOException {
+        Map<Long, Entry> entries = new LinkedHashMap<>();
+        long validLength = 0;
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        channel.position(0);
+        while (true) {
+            header.clear();
+            if (channel.read(header) < Integer.BYTES) {
+                break;
+            }
+            int length = header.flip().getInt();
+            if (length <= 0 || length > channel.size() - channel.position() - Integer.BYTES) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length + Integer.BYTES);
+            while (record.hasRemaining()) {
+                if (channel.read(record) < 0) {
+                    break;
+                }
+            }
+            record.flip();
+            byte[] payload = new byte[length];
+            record.get(payload);
+            if (crc(payload) != record.getInt()) {
+                break;
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            byte type = in.readByte();
+            long sequence = in.readLong();
+            if (type == COMMIT) {
+                entries.keySet().removeIf(journaled -> journaled <= sequence);
+                committedSequence = Math.max(committedSequence, sequence);
+            } else {
+                entries.put(sequence, new Entry(sequence, decode(type, in)));
+            }
+            lastSequence = Math.max(lastSequence, sequence);
+            validLength = channel.position();
+        }
+        channel.truncate(validLength);
+        channel.position(validLength);
+        return List.copyOf(entries.values());
+    }
+
+    private void writeRecord(byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(2 * Integer.BYTES + payload.length);
+        record.putInt(payload.length).put(payload).putInt(crc(payload)).flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] encode(long sequence, RateWrite write) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            if (write instanceof RateWrite.Update update) {
+                out.writeByte(UPDATE);
+                out.writeLong(sequence);
+                out.writeLong(update.at().toEpochMilli());
+                out.writeInt(update.rates().size());
+                for (Map.Entry<String, Map<String, BigDecimal>> base : update.rates().entrySet()) {
+                    out.writeUTF(base.getKey());
+                    out.writeInt(base.getValue().size());
+                    for (Map.Entry<String, BigDecimal> quote : base.getValue().entrySet()) {
+                        out.writeUTF(quote.getKey());
+                        out.writeUTF(quote.getValue().toPlainString());
+                    }
+                }
+            } else if (write instanceof RateWrite.Confirm confirm) {
+                out.writeByte(CONFIRM);
+                out.writeLong(sequence);
+                out.writeLong(confirm.at().toEpochMilli());
+                out.writeInt(confirm.pairs().size());
+                for (Map.Entry<String, Set<String>> base : confirm.pairs().entrySet()) {
+                    out.writeUTF(base.getKey());
+                    out.writeInt(base.getValue().size());
+                    for (String targetCurrency : base.getValue()) {
+                        out.writeUTF(targetCurrency);
+                    }
+                }
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static RateWrite decode(byte type, DataInputStream in) throws IOException {
+        Instant at = Instant.ofEpochMilli(in.readLong());
+        int bases = in.readInt();
+        if (type == UPDATE) {
+            Map<String, Map<String, BigDecimal>> rates = new HashMap<>();
+            for (int i = 0; i < bases; i++) {
+                String baseCurrency = in.readUTF();
+                int quotes = in.readInt();
+                Map<String, BigDecimal> baseRates = new HashMap<>();
+                for (int j = 0; j < quotes; j++) {
+                    baseRates.put(in.readUTF(), new BigDecimal(in.readUTF()));
+                }
+                rates.put(baseCurrency, baseRates);
+            }
+            return new RateWrite.Update(at, rates);
+        }
+        Map<String, Set<String>> pairs = new HashMap<>();
+        for (int i = 0; i < bases; i++) {
+            String baseCurrency = in.readUTF();
+            int targets = in.readInt();
+            Set<String> targetCurrencies = new HashSet<>();
+            for (int j = 0; j < targets; j++) {
+                targetCurrencies.add(in.readUTF());
+            }
+            pairs.put(baseCurrency, targetCurrencies);
+        }
+        return new RateWrite.Confirm(at, pairs);
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,7 @@
+package com.currency.app.service;
+
+/**
+ * Published after a refresh made new rates visible in the in-memory tier.
+ */
+public record RatesPublishedEvent(RateSnapshot previous, RateSnapshot current) {
+}
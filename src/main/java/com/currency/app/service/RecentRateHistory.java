@@ -0,0 +1,92 @@
+package com.currency.app.service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recent history of every pair held by the in-memory tier, one {@link RateHistoryBuffer} per pair.
+ */
+public class RecentRateHistory {
+
+    private final int capacity;
+
+    private final Duration resolution;
+
+    private final Clock clock;
+
+    private final Map<String, Map<String, RateHistoryBuffer>> buffers = new ConcurrentHashMap<>();
+
+    public RecentRateHistory(Duration retention, Duration resolution) {
+        this(retention, resolution, Clock.systemUTC());
+    }
+
+    RecentRateHistory(Duration retention, Duration resolution, Clock clock) {
+        this.capacity = Math.toIntExact(retention.dividedBy(resolution)) + 1;
+        this.resolution = resolution;
+        this.clock = clock;
+    }
+
+    void record(Map<String, Map<String, BigDecimal>> rates, Instant time) {
+        long millis = time.toEpochMilli();
+        rates.forEach((baseCurrency, quotes) -> {
+            Map<String, RateHistoryBuffer> pairs = buffers.computeIfAbsent(baseCurrency, code -> new ConcurrentHashMap<>());
+            quotes.forEach((targetCurrency, rate) -> pairs.computeIfAbsent(targetCurrency, code -> new RateHistoryBuffer(capacity, resolution))
+                                                        .append(millis, RateMatrix.toScaled(rate)));
+        });
+    }
+
+    /**
+     * Returns the rates of a base currency in effect at the given time, or nothing if the history of one of
+     * its pairs does not reach back that far.
+     */
+    public Optional<Map<String, BigDecimal>> getRatesAt(String baseCurrency, Instant at) {
+        Map<String, RateHistoryBuffer> pairs = buffers.get(baseCurrency);
+        if (pairs == null) {
+            return Optional.empty();
+        }
+        long millis = at.toEpochMilli();
+        Map<String, BigDecimal> rates = new HashMap<>();
+        for (Map.Entry<String, RateHistoryBuffer> pair : pairs.entrySet()) {
+            if (!pair.getValue().covers(millis)) {
+                return Optional.empty();
+            }
+            rates.put(pair.getKey(), RateMatrix.fromScaled(pair.getValue().rateAt(millis)));
+        }
+        return Optional.of(rates);
+    }
+
+    /**
+     * Returns the 24 hour statistics of every pair of a base currency, as of now.
+     */
+    public Map<String, RateStats> getStats(String baseCurrency) {
+        long now = clock.millis();
+        Map<String, RateStats> stats = new HashMap<>();
+        buffers.getOrDefault(baseCurrency, Map.of()).forEach((targetCurrency, buffer) -> stats.put(targetCurrency, buffer.stats(now)));
+        return stats;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getPairCount() {
+        return buffers.values().stream().mapToLong(Map::size).sum();
+    }
+
+    public long getPointCount() {
+        return buffers.values().stream().flatMap(pairs -> pairs.values().stream()).mapToLong(RateHistoryBuffer::size).sum();
+    }
+
+    /**
+     * Heap used by the buffers, which grow with the number of points of each pair up to the capacity.
+     */
+    public long getFootprintBytes() {
+        return buffers.values().stream().flatMap(pairs -> pairs.values().stream()).mapToLong(RateHistoryBuffer::footprintBytes).sum();
+    }
+}
@@ -0,0 +1,27 @@
+package com.currency.app.service;
+
+import com.currency.app.config.RateProperties;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * Knows when {@link ExchangeRateUpdateService} runs next, so responses can be cached until then.
+ */
+@Component
+public class RefreshSchedule {
+
+    private final CronExpression refreshCron;
+
+    public RefreshSchedule(RateProperties rateProperties) {
+        this.refreshCron = CronExpression.parse(rateProperties.getRefreshCron());
+    }
+
+    public Duration untilNextRefresh() {
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime nextRefresh = refreshCron.next(now);
+        return nextRefresh == null ? Duration.ZERO : Duration.between(now, nextRefresh);
+    }
+}
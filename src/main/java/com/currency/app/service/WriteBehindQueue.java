@@ -0,0 +1,292 @@
+package com.currency.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Applies the writes of one slow tier on a background thread, in submission order and in batches handed to the sink.
+ * A batch is flushed once it holds {@code flushSize} writes or its oldest write has waited {@code flushInterval}.
+ * A batch that fails is retried after the flush interval. Failures the tier reports as transient, such as a lost
+ * connection, are retried until the batch is applied, so a database outage only delays persistence; any other
+ * failure is retried {@code maxRetries} times, then the writes of the batch are applied one by one and those that
+ * still fail are dead-lettered: logged, counted and, with a dead-letter journal, appended to it for replay. A write
+ * that can never be applied therefore does not hold up the ones behind it. The queue is bounded: once it is full,
+ * callers wait for room. With a {@link RateWriteJournal}, queued writes also survive a crash and are applied again
+ * on the next start.
+ * <p>
+ * Submitting blocks on the journal and the queue, so it is guarded by a lock rather than a monitor and never pins
+ * the carrier of a virtual thread.
+ */
+@Slf4j
+final class WriteBehindQueue {
+
+    private record Pending(long sequence, RateWrite write) {
+    }
+
+    private static final int DEFAULT_MAX_RETRIES = 5;
+
+    private final String name;
+
+    private final Consumer<List<RateWrite>> sink;
+
+    private final RateWriteJournal journal;
+
+    private final RateWriteJournal deadLetters;
+
+    private final int maxRetries;
+
+    private final BlockingQueue<Pending> queue;
+
+    private final int flushSize;
+
+    private final long flushIntervalNanos;
+
+    private final Thread flusher;
+
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    private final AtomicLong deadLetteredWrites = new AtomicLong();
+
+    private final ReentrantLock submitLock = new ReentrantLock();
+
+    private long lastSequence;
+
+    private volatile List<Pending> inFlight = List.of();
+
+    private volatile boolean closed;
+
+    WriteBehindQueue(String name, Consumer<List<RateWrite>> sink, int capacity, int flushSize, Duration flushInterval, RateWriteJournal journal) {
+        this(name, sink, capacity, flushSize, flushInterval, DEFAULT_MAX_RETRIES, journal, null, null);
+    }
+
+    /**
+     * @param maxRetries    how often a batch failing for a reason other than a transient one is retried
+     * @param deadLetters   journal the writes that could not be applied are appended to, or {@code null} to only log them
+     * @param threadFactory creates the flusher thread, for example a virtual one, or {@code null} for a platform daemon thread
+     */
+    WriteBehindQueue(String name, Consumer<List<RateWrite>> sink, int capacity, int flushSize, Duration flushInterval, int maxRetries,
+                     RateWriteJournal journal, RateWriteJournal deadLetters, ThreadFactory threadFactory) {
+        this.name = name;
+        this.sink = sink;
+        this.journal = journal;
+        this.deadLetters = deadLetters;
+        this.maxRetries = maxRetries;
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+
+        List<RateWriteJournal.Entry> recovered = journal == null ? List.of() : journal.getRecovered();
+        this.queue = new LinkedBlockingQueue<>(capacity + recovered.size());
+        recovered.forEach(entry -> queue.add(new Pending(entry.sequence(), entry.write())));
+        this.flusher = threadFactory != null ? threadFactory.newThread(this::run) : new Thread(this::run);
+        if (threadFactory == null) {
+            this.flusher.setDaemon(true);
+        }
+        this.flusher.setName("rate-write-behind-" + name);
+        this.flusher.start();
+    }
+
+    /**
+     * Journals the write and queues it, waiting for room while the queue is full.
+     */
+    void submit(RateWrite write) {
+        submitLock.lock();
+        try {
+            if (closed) {
+                throw new RejectedExecutionException("Write-behind of " + name + " is shut down");
+            }
+            long sequence = journal == null ? lastSequence + 1 : journal.append(write);
+            lastSequence = sequence;
+            queue.put(new Pending(sequence, write));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while queueing a write to " + name
+                                                 + (journal == null ? "" : "; it is journaled and applied on restart"), e);
+        } finally {
+            submitLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of writes not applied yet, including the batch being flushed.
+     */
+    int getBacklog() {
+        return queue.size() + inFlight.size();
+    }
+
+    /**
+     * Returns how long the oldest write not applied yet has been waiting.
+     */
+    Duration getLag() {
+        List<Pending> batch = inFlight;
+        Pending oldest = batch.isEmpty() ? queue.peek() : batch.get(0);
+        return oldest == null ? Duration.ZERO : Duration.between(oldest.write().at(), Instant.now());
+    }
+
+    long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    boolean isJournaled() {
+        return journal != null;
+    }
+
+    /**
+     * Returns the number of writes given up on after their retries were exhausted.
+     */
+    long getDeadLetteredWrites() {
+        return deadLetteredWrites.get();
+    }
+
+    /**
+     * Stops accepting writes and waits up to the timeout for the queued ones to be applied.
+     * Writes still queued after the timeout stay in the journal, if there is one. A flusher stuck in the tier is
+     * interrupted and given the same timeout again before the queue is abandoned.
+     *
+     * @return whether every queued write was applied
+     */
+    boolean close(Duration timeout) throws InterruptedException {
+        submitLock.lock();
+        try {
+            closed = true;
+        } finally {
+            submitLock.unlock();
+        }
+        flusher.join(timeout.toMillis());
+        boolean drained = !flusher.isAlive();
+        if (!drained) {
+            flusher.interrupt();
+            flusher.join(timeout.toMillis());
+            if (flusher.isAlive()) {
+                log.warn("Write-behind flusher of {} did not stop within {}", name, timeout);
+            }
+        }
+        close(journal);
+        close(deadLetters);
+        return drained;
+    }
+
+    private void run() {
+        try {
+            while (!closed || !queue.isEmpty()) {
+                List<Pending> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Pending> nextBatch() throws InterruptedException {
+        List<Pending> batch = new ArrayList<>(flushSize);
+        Pending first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < flushSize) {
+            long remaining = deadline - System.nanoTime();
+            Pending next = closed || remaining <= 0 ? queue.poll() : queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void flush(List<Pending> batch) throws InterruptedException {
+        inFlight = batch;
+        List<RateWrite> writes = batch.stream().map(Pending::write).toList();
+        if (!apply(writes, maxRetries)) {
+            if (writes.size() == 1) {
+                deadLetter(writes.get(0));
+            } else {
+                log.warn("Write-behind of {} writes to {} keeps failing, applying them one by one", writes.size(), name);
+                for (RateWrite write : writes) {
+                    if (!apply(List.of(write), 0)) {
+                        deadLetter(write);
+                    }
+                }
+            }
+        }
+        if (journal != null) {
+            try {
+                journal.commit(batch.get(batch.size() - 1).sequence());
+            } catch (UncheckedIOException e) {
+                log.warn("Could not commit write-behind journal of {}; the batch will be applied again on restart", name, e);
+            }
+        }
+        inFlight = List.of();
+    }
+
+    /**
+     * Hands the writes to the sink, retrying transient failures until they succeed and others up to {@code retries} times.
+     *
+     * @return whether the writes were applied
+     */
+    private boolean apply(List<RateWrite> writes, int retries) throws InterruptedException {
+        int attempts = 0;
+        while (true) {
+            try {
+                sink.accept(writes);
+                return true;
+            } catch (RuntimeException e) {
+                failedFlushes.incrementAndGet();
+                if (!isTransient(e) && attempts++ >= retries) {
+                    log.warn("Write-behind of {} writes to {} failed {} times, giving up", writes.size(), name, attempts, e);
+                    return false;
+                }
+                log.warn("Write-behind of {} writes to {} failed, retrying", writes.size(), name, e);
+                TimeUnit.NANOSECONDS.sleep(flushIntervalNanos);
+            }
+        }
+    }
+
+    private void deadLetter(RateWrite write) {
+        deadLetteredWrites.incrementAndGet();
+        log.error("Dropping write to {} that could not be applied: {}", name, write);
+        if (deadLetters != null) {
+            try {
+                deadLetters.append(write);
+            } catch (UncheckedIOException e) {
+                log.error("Could not append the dropped write to the dead-letter journal of {}", name, e);
+            }
+        }
+    }
+
+    private void close(RateWriteJournal closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                log.warn("Could not close a write-behind journal of {}", name, e);
+            }
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+               || e instanceof RecoverableDataAccessException
+               || e instanceof DataAccessResourceFailureException;
+    }
+}
@@ -0,0 +1,51 @@
+package com.currency.app.config;
+
+import com.currency.app.service.RateStorageService;
+import com.currency.app.service.ReactiveDatabaseRateStorage;
+import com.currency.app.service.ReactiveRateStorageService;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Beans of the reactive read path, built with the {@code reactive} Maven profile and active when the application
+ * runs as a reactive web application (the {@code reactive} Spring profile). The R2DBC connection pool is kept
+ * inside {@link ReactiveDatabaseRateStorage} rather than exposed as a bean, because a connection factory bean would
+ * take the place of the JDBC DataSource that writes, the history and the migrations still use.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveConfig {
+
+    @Bean
+    public ReactiveDatabaseRateStorage reactiveDatabaseRateStorage(R2dbcProperties r2dbcProperties) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbcProperties.getUrl()).mutate();
+        if (StringUtils.hasText(r2dbcProperties.getUsername())) {
+            options.option(ConnectionFactoryOptions.USER, r2dbcProperties.getUsername());
+        }
+        if (StringUtils.hasText(r2dbcProperties.getPassword())) {
+            options.option(ConnectionFactoryOptions.PASSWORD, r2dbcProperties.getPassword());
+        }
+        R2dbcProperties.Pool pool = r2dbcProperties.getPool();
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                                                                               .initialSize(pool.getInitialSize())
+                                                                               .maxSize(pool.getMaxSize())
+                                                                               .maxIdleTime(pool.getMaxIdleTime())
+                                                                               .build();
+        return new ReactiveDatabaseRateStorage(new ConnectionPool(configuration));
+    }
+
+    @Bean
+    public ReactiveRateStorageService reactiveRateStorageService(RateStorageService rateStorageService,
+                                                                 ReactiveDatabaseRateStorage reactiveDatabaseRateStorage) {
+        return new ReactiveRateStorageService(rateStorageService, reactiveDatabaseRateStorage);
+    }
+}
@@ -0,0 +1,180 @@
+package com.currency.app.controller;
+
+import com.currency.app.controller.RatePayloadCache.RatePayload;
+import com.currency.app.controller.dto.CurrencyDto;
+import com.currency.app.controller.dto.ExchangeRateDto;
+import com.currency.app.controller.dto.RateStatsDto;
+import com.currency.app.exception.CurrencyNotFoundException;
+import com.currency.app.mapper.CurrencyMapper;
+import com.currency.app.service.CurrencyService;
+import com.currency.app.service.RateSnapshot;
+import com.currency.app.service.RateStorageService;
+import com.currency.app.service.ReactiveRateStorageService;
+import com.currency.app.service.RefreshSchedule;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Reactive read endpoints for currencies and exchange rates, served instead of {@link CurrencyController} when the
+ * application runs with the {@code reactive} profile. Responses have the same shape and caching headers; rates come
+ * from the in-memory tier without blocking, and only cold base currencies are read from the database over R2DBC.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/currencies")
+@Tag(name = "Currency Controller", description = "Currency exchange rate operations API")
+public class ReactiveCurrencyController {
+
+    private final CurrencyService currencyService;
+
+    private final RateStorageService rateStorageService;
+
+    private final ReactiveRateStorageService reactiveRateStorageService;
+
+    private final CurrencyMapper currencyMapper;
+
+    private final RefreshSchedule refreshSchedule;
+
+    private final RatePayloadCache ratePayloadCache;
+
+    private final ReactiveRateUpdates reactiveRateUpdates;
+
+    /**
+     * Retrieves all currencies currently supported by the system.
+     * The catalog is only read from the database when it is (re)loaded, which happens on a bounded elastic thread.
+     *
+     * @return List of available currencies
+     */
+    @GetMapping
+    @Operation(summary = "Get all supported currencies")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully retrieved list of currencies"), @ApiResponse(responseCode = "304", description = "Currency list not modified")})
+    public Mono<ResponseEntity<List<CurrencyDto>>> getAllCurrencies(ServerWebExchange exchange) {
+        return Mono.fromCallable(currencyService::getCatalog)
+                   .subscribeOn(Schedulers.boundedElastic())
+                   .flatMap(catalog -> exchange.checkNotModified(catalog.etag())
+                           ? Mono.empty()
+                           : Mono.just(ResponseEntity.ok()
+                                                     .cacheControl(CacheControl.noCache())
+                                                     .body(currencyMapper.toDtoList(catalog.currencies()))));
+    }
+
+    /**
+     * Retrieves current exchange rates for the specified currency code.
+     * Rates of the in-memory snapshot are written from pre-encoded (optionally gzipped) JSON, or Protobuf or CBOR
+     * when accepted, with an ETag and Last-Modified, exactly as the servlet endpoint does; other base currencies
+     * are read over R2DBC.
+     *
+     * @param code the three-letter currency code (e.g., "USD", "EUR")
+     * @return Exchange rates for the specified currency
+     */
+    @GetMapping("/{code}/rates")
+    @Operation(summary = "Get exchange rates for currency")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully retrieved exchange rates"), @ApiResponse(responseCode = "304", description = "Exchange rates not modified")})
+    public Mono<ResponseEntity<?>> getExchangeRates(
+            @Parameter(description = "Currency code (e.g., USD)", required = true) @PathVariable String code,
+            ServerWebExchange exchange) {
+        RateWireFormat format = RateWireFormat.negotiate(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT));
+        RateSnapshot snapshot = rateStorageService.getPublishedSnapshot();
+        RatePayload payload = ratePayloadCache.get(code, snapshot);
+        if (payload == null) {
+            return reactiveRateStorageService.getAllRatesForCurrency(code)
+                                             .map(rates -> format == RateWireFormat.JSON
+                                                     ? ResponseEntity.ok(new ExchangeRateDto(code, rates))
+                                                     : ResponseEntity.ok()
+                                                                     .contentType(format.getMediaType())
+                                                                     .body(RateTableCodec.encode(format, RateTableCodec.fromRates(code, rates))));
+        }
+        return payload(payload, format, snapshot, exchange);
+    }
+
+    /**
+     * Retrieves the current exchange rates of every base currency, keyed by base and then target currency,
+     * from the same cached payload as the servlet endpoint.
+     *
+     * @return Exchange rates of all currencies
+     */
+    @GetMapping("/rates")
+    @Operation(summary = "Get exchange rates of all currencies")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully retrieved exchange rates"), @ApiResponse(responseCode = "304", description = "Exchange rates not modified")})
+    public Mono<ResponseEntity<?>> getAllExchangeRates(ServerWebExchange exchange) {
+        RateWireFormat format = RateWireFormat.negotiate(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT));
+        RateSnapshot snapshot = rateStorageService.getPublishedSnapshot();
+        return payload(ratePayloadCache.getAll(snapshot), format, snapshot, exchange);
+    }
+
+    /**
+     * Retrieves the current exchange rates for the specified currency code together with their change, low and
+     * high over the last 24 hours, precomputed by the in-memory rate history.
+     *
+     * @param code the three-letter currency code (e.g., "USD", "EUR")
+     * @return Exchange rate statistics for the specified currency
+     * @throws CurrencyNotFoundException if the currency is not in the catalog
+     */
+    @GetMapping("/{code}/rates/stats")
+    @Operation(summary = "Get 24 hour exchange rate statistics for currency")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully retrieved exchange rate statistics"), @ApiResponse(responseCode = "404", description = "Currency not found")})
+    public Mono<RateStatsDto> getExchangeRateStats(
+            @Parameter(description = "Currency code (e.g., USD)", required = true) @PathVariable String code) {
+        return Mono.fromCallable(currencyService::getCatalog)
+                   .subscribeOn(Schedulers.boundedElastic())
+                   .map(catalog -> {
+                       if (!catalog.contains(code)) {
+                           throw new CurrencyNotFoundException("Currency " + code + " not found");
+                       }
+                       return new RateStatsDto(code, rateStorageService.getRateStats(code));
+                   });
+    }
+
+    /**
+     * Streams exchange rate changes for the specified currency code as Server-Sent Events.
+     * The first {@code rates} event carries the full current table, later events only the pairs that changed.
+     *
+     * @param code the three-letter currency code (e.g., "USD", "EUR")
+     * @return Event stream of exchange rate updates
+     */
+    @GetMapping(value = "/{code}/rates/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream exchange rate updates for currency")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Exchange rate update stream opened")})
+    public Flux<ServerSentEvent<ExchangeRateDto>> streamExchangeRates(
+            @Parameter(description = "Currency code (e.g., USD)", required = true) @PathVariable String code) {
+        return reactiveRateUpdates.subscribe(code);
+    }
+
+    private Mono<ResponseEntity<?>> payload(RatePayload payload, RateWireFormat format, RateSnapshot snapshot, ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.setCacheControl(CacheControl.maxAge(refreshSchedule.untilNextRefresh()).mustRevalidate());
+        headers.setVary(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+        boolean gzip = format == RateWireFormat.JSON
+                       && AcceptEncoding.acceptsGzip(String.join(",", exchange.getRequest().getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)));
+        if (exchange.checkNotModified(gzip ? payload.gzipEtag() : payload.etag(format), snapshot.publishedAt())) {
+            return Mono.empty();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(format.getMediaType());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return Mono.just(response.body(gzip ? payload.gzip() : payload.body(format)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.currency.app.controller;
+
+import com.currency.app.config.RateProperties;
+import com.currency.app.controller.dto.ExchangeRateDto;
+import com.currency.app.service.RateSnapshot;
+import com.currency.app.service.RateStorageService;
+import com.currency.app.service.RatesPublishedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reactive counterpart of {@link RateUpdateBroadcaster}: streams the full table of a base currency and then only
+ * the pairs whose rate changed. A slow subscriber skips intermediate snapshots and gets the pairs that changed since
+ * the last one it received, so it never builds up a backlog.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRateUpdates {
+
+    private final RateStorageService rateStorageService;
+
+    private final Duration timeout;
+
+    private final Sinks.Many<RateSnapshot> published = Sinks.many().multicast().directBestEffort();
+
+    public ReactiveRateUpdates(RateStorageService rateStorageService, RateProperties rateProperties) {
+        this.rateStorageService = rateStorageService;
+        this.timeout = rateProperties.getStreamTimeout();
+    }
+
+    public Flux<ServerSentEvent<ExchangeRateDto>> subscribe(String baseCurrency) {
+        return Flux.defer(() -> {
+            RateSnapshot initial = rateStorageService.getPublishedSnapshot();
+            AtomicReference<Map<String, BigDecimal>> sent = new AtomicReference<>(initial.getRates(baseCurrency));
+            Flux<ServerSentEvent<ExchangeRateDto>> changes =
+                    published.asFlux()
+                             .onBackpressureLatest()
+                             .publishOn(Schedulers.parallel(), 1)
+                             .filter(snapshot -> snapshot.getVersion(baseCurrency) > 0)
+                             .mapNotNull(snapshot -> {
+                                 Map<String, BigDecimal> current = snapshot.getRates(baseCurrency);
+                                 Map<String, BigDecimal> delta = delta(sent.getAndSet(current), current);
+                                 return delta.isEmpty() ? null : event(baseCurrency, snapshot.version(), delta);
+                             });
+            Flux<ServerSentEvent<ExchangeRateDto>> table = sent.get().isEmpty()
+                    ? Flux.empty()
+                    : Flux.just(event(baseCurrency, initial.version(), sent.get()));
+            return table.concatWith(changes);
+        }).take(timeout);
+    }
+
+    @EventListener
+    public void onRatesPublished(RatesPublishedEvent event) {
+        published.emitNext(event.current(), Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+    }
+
+    private static Map<String, BigDecimal> delta(Map<String, BigDecimal> previous, Map<String, BigDecimal> current) {
+        Map<String, BigDecimal> delta = new HashMap<>();
+        current.forEach((targetCurrency, rate) -> {
+            if (!Objects.equals(previous.get(targetCurrency), rate)) {
+                delta.put(targetCurrency, rate);
+            }
+        });
+        return delta;
+    }
+
+    private static ServerSentEvent<ExchangeRateDto> event(String baseCurrency, long version, Map<String, BigDecimal> rates) {
+        return ServerSentEvent.builder(new ExchangeRateDto(baseCurrency, rates))
+                              .id(Long.toString(version))
+                              .event("rates")
+                              .build();
+    }
+}
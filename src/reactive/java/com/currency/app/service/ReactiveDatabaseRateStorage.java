@@ -0,0 +1,51 @@
+package com.currency.app.service;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Reads the latest rates from the database over R2DBC, the non-blocking counterpart of the reads of
+ * {@link DatabaseRateStorage}. Writes keep going through JPA.
+ */
+public class ReactiveDatabaseRateStorage {
+
+    private static final String LATEST_RATES = "SELECT latest.target_currency_code, latest.rate FROM (" +
+            "    SELECT er.target_currency_code, er.rate, ROW_NUMBER() OVER (" +
+            "        PARTITION BY er.target_currency_code ORDER BY er.last_updated DESC" +
+            "    ) AS rn " +
+            "    FROM exchange_rates er " +
+            "    WHERE er.base_currency_code = :baseCode" +
+            ") latest " +
+            "WHERE latest.rn = 1";
+
+    private final ConnectionFactory connectionFactory;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveDatabaseRateStorage(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+    }
+
+    public Mono<Map<String, BigDecimal>> getAllRatesForCurrency(String baseCurrency) {
+        return databaseClient.sql(LATEST_RATES)
+                             .bind("baseCode", baseCurrency)
+                             .map(row -> Map.entry(row.get("target_currency_code", String.class), row.get("rate", BigDecimal.class)))
+                             .all()
+                             .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Closes the connection pool, if the connection factory is one.
+     */
+    public void close() {
+        if (connectionFactory instanceof Disposable pool) {
+            pool.dispose();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.currency.app.service;
+
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Non-blocking read path over the same tiers as {@link RateStorageService}. Rates are served from the in-memory tier
+ * and the negative cache exactly as on the blocking path; cold base currencies are read over R2DBC instead, with
+ * concurrent callers for one base sharing a single query, and the result is loaded into the tiers.
+ */
+public class ReactiveRateStorageService {
+
+    private final RateStorageService rateStorageService;
+
+    private final ReactiveDatabaseRateStorage reactiveDatabaseRateStorage;
+
+    private final Map<String, Mono<Map<String, BigDecimal>>> loads = new ConcurrentHashMap<>();
+
+    public ReactiveRateStorageService(RateStorageService rateStorageService, ReactiveDatabaseRateStorage reactiveDatabaseRateStorage) {
+        this.rateStorageService = rateStorageService;
+        this.reactiveDatabaseRateStorage = reactiveDatabaseRateStorage;
+    }
+
+    public Mono<Map<String, BigDecimal>> getAllRatesForCurrency(String baseCurrency) {
+        Map<String, BigDecimal> rates = rateStorageService.getCachedRates(baseCurrency);
+        if (rates != null) {
+            return Mono.just(rates);
+        }
+        return loads.computeIfAbsent(baseCurrency, this::load);
+    }
+
+    private Mono<Map<String, BigDecimal>> load(String baseCurrency) {
+        return reactiveDatabaseRateStorage.getAllRatesForCurrency(baseCurrency)
+                                          .doOnNext(rates -> rateStorageService.loaded(baseCurrency, rates))
+                                          .doFinally(signal -> loads.remove(baseCurrency))
+                                          .cache();
+    }
+}
@@ -0,0 +1,144 @@
+package com.currency.app.controller;
+
+import com.currency.app.AbstractBaseIT;
+import com.currency.app.controller.dto.RateTableDto;
+import com.currency.app.repository.ExchangeRateRepository;
+import com.currency.app.service.DatabaseRateStorage;
+import com.currency.app.service.InMemoryRateStorage;
+import com.currency.app.service.RateStorageService;
+import com.currency.app.service.ReactiveRateStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+class ReactiveCurrencyControllerIT extends AbstractBaseIT {
+
+    private static final String BASE_URL = "/api/v1/currencies";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private RateStorageService rateStorageService;
+
+    @Autowired
+    private DatabaseRateStorage databaseRateStorage;
+
+    @Autowired
+    private InMemoryRateStorage inMemoryRateStorage;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private ReactiveRateStorageService reactiveRateStorageService;
+
+    @AfterEach
+    void cleanup() {
+        exchangeRateRepository.deleteAll();
+    }
+
+    @Test
+    void getExchangeRates_WhenInMemory_ServesCachedPayload() {
+        rateStorageService.updateRates(Map.of("USD", Map.of("EUR", new BigDecimal("0.85"))));
+
+        String etag = webTestClient.get()
+                                   .uri(BASE_URL + "/{code}/rates", "USD")
+                                   .exchange()
+                                   .expectStatus().isOk()
+                                   .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                                   .expectBody()
+                                   .jsonPath("$.baseCurrency").isEqualTo("USD")
+                                   .jsonPath("$.rates.EUR").isEqualTo(0.85)
+                                   .returnResult()
+                                   .getResponseHeaders()
+                                   .getETag();
+
+        webTestClient.get()
+                     .uri(BASE_URL + "/{code}/rates", "USD")
+                     .header(HttpHeaders.IF_NONE_MATCH, etag)
+                     .exchange()
+                     .expectStatus().isNotModified();
+    }
+
+    @Test
+    void getExchangeRates_WhenCborAccepted_ReturnsRateTable() throws IOException {
+        rateStorageService.updateRates(Map.of("USD", Map.of("EUR", new BigDecimal("0.85"))));
+
+        byte[] body = webTestClient.get()
+                                   .uri(BASE_URL + "/{code}/rates", "USD")
+                                   .accept(MediaType.APPLICATION_CBOR)
+                                   .exchange()
+                                   .expectStatus().isOk()
+                                   .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                                   .expectBody(byte[].class)
+                                   .returnResult()
+                                   .getResponseBody();
+
+        RateTableDto table = RateTableCodec.fromCbor(body);
+        assertThat(table.getCurrencies()).containsExactly("USD", "EUR");
+        assertThat(table.getRows().get(0).getRates()).containsExactly(850_000L);
+    }
+
+    @Test
+    void getExchangeRates_WhenNotInMemory_ReadsDatabaseAndLoadsMemory() {
+        databaseRateStorage.updateRates(Map.of("GBP", Map.of("USD", new BigDecimal("1.27"))));
+        assertThat(inMemoryRateStorage.getAllRatesForCurrency("GBP")).isEmpty();
+
+        webTestClient.get()
+                     .uri(BASE_URL + "/{code}/rates", "GBP")
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectBody()
+                     .jsonPath("$.baseCurrency").isEqualTo("GBP")
+                     .jsonPath("$.rates.USD").isEqualTo(1.27);
+
+        assertThat(inMemoryRateStorage.getAllRatesForCurrency("GBP")).containsEntry("USD", new BigDecimal("1.270000"));
+    }
+
+    @Test
+    void getAllRatesForCurrency_WhenNotInMemory_ReadsOverR2dbc() {
+        databaseRateStorage.updateRates(Map.of("CHF", Map.of("EUR", new BigDecimal("1.05"), "USD", new BigDecimal("1.12"))));
+
+        Map<String, BigDecimal> rates = reactiveRateStorageService.getAllRatesForCurrency("CHF").block(Duration.ofSeconds(5));
+
+        assertThat(rates).containsOnlyKeys("EUR", "USD");
+        assertThat(rates.get("EUR")).isEqualByComparingTo("1.05");
+    }
+
+    @Test
+    void getExchangeRates_WhenUnknown_ReturnsEmptyRates() {
+        webTestClient.get()
+                     .uri(BASE_URL + "/{code}/rates", "XXX")
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectBody()
+                     .jsonPath("$.baseCurrency").isEqualTo("XXX")
+                     .jsonPath("$.rates").isEmpty();
+    }
+
+    @Test
+    void getAllCurrencies_ReturnsCatalogWithETag() {
+        webTestClient.get()
+                     .uri(BASE_URL)
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectHeader().exists(HttpHeaders.ETAG)
+                     .expectBody()
+                     .jsonPath("$").isArray();
+    }
+}
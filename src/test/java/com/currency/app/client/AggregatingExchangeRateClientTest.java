@@ -0,0 +1,236 @@
+package com.currency.app.client;
+
+import com.currency.app.client.dto.ExternalRateDto;
+import com.currency.app.config.ProviderProperties;
+import com.currency.app.exception.ExchangeRateProviderException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AggregatingExchangeRateClientTest {
+
+    private final ProviderProperties.Aggregation aggregation = new ProviderProperties.Aggregation();
+
+    private final MutableClock clock = new MutableClock();
+
+    private final Map<String, AtomicInteger> calls = new LinkedHashMap<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AggregatingExchangeRateClient client;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    void getCurrentExchangeRates_InMedianMode_ShouldUseMedianPerPair() {
+        client = createClient(Map.of(
+                "first", provider("first", 0, quotes("0.85", "0.73")),
+                "second", provider("second", 0, quotes("0.86", "0.74")),
+                "third", provider("third", 0, quotes("0.90", "0.70"))
+        ));
+
+        List<ExternalRateDto> rates = client.getCurrentExchangeRates();
+
+        assertThat(rates).hasSize(1);
+        assertThat(rates.get(0).getQuotes()).containsEntry("USDEUR", new BigDecimal("0.86"))
+                                            .containsEntry("USDGBP", new BigDecimal("0.73"));
+    }
+
+    @Test
+    void getCurrentExchangeRates_InMedianMode_ShouldAverageMiddleQuotes() {
+        client = createClient(Map.of(
+                "first", provider("first", 0, quotes("0.85", "0.73")),
+                "second", provider("second", 0, quotes("0.86", "0.74"))
+        ));
+
+        assertThat(client.getCurrentExchangeRates().get(0).getQuotes()).containsEntry("USDEUR", new BigDecimal("0.855000"));
+    }
+
+    @Test
+    void getCurrentExchangeRates_InMedianMode_ShouldDropPairsBelowQuorum() {
+        aggregation.setQuorum(2);
+        client = createClient(Map.of(
+                "first", provider("first", 0, quotes("0.85", "0.73")),
+                "second", provider("second", 0, new ExternalRateDto("USD", Map.of("USDEUR", new BigDecimal("0.87"))))
+        ));
+
+        assertThat(client.getCurrentExchangeRates().get(0).getQuotes()).containsOnlyKeys("USDEUR");
+    }
+
+    @Test
+    void getCurrentExchangeRates_InMedianMode_ShouldIgnoreProvidersPastTimeout() {
+        aggregation.setTimeout(Duration.ofMillis(200));
+        client = createClient(Map.of(
+                "fast", provider("fast", 0, quotes("0.85", "0.73")),
+                "slow", provider("slow", 2_000, quotes("0.95", "0.83"))
+        ));
+
+        assertThat(client.getCurrentExchangeRates().get(0).getQuotes()).containsEntry("USDEUR", new BigDecimal("0.85"));
+    }
+
+    @Test
+    void getCurrentExchangeRates_InHedgedMode_ShouldReturnFirstValidAnswer() {
+        aggregation.setMode(ProviderProperties.AggregationMode.HEDGED);
+        client = createClient(Map.of(
+                "failing", failingProvider("failing"),
+                "fast", provider("fast", 50, quotes("0.85", "0.73")),
+                "slow", provider("slow", 1_000, quotes("0.95", "0.83"))
+        ));
+
+        assertThat(client.getCurrentExchangeRates().get(0).getQuotes()).containsEntry("USDEUR", new BigDecimal("0.85"));
+    }
+
+    @Test
+    void getCurrentExchangeRates_WhenAllProvidersFail_ShouldThrow() {
+        client = createClient(Map.of("first", failingProvider("first"), "second", failingProvider("second")));
+
+        assertThatThrownBy(() -> client.getCurrentExchangeRates())
+                .isInstanceOf(ExchangeRateProviderException.class)
+                .satisfies(e -> assertThat(e.getSuppressed()).hasSize(2));
+    }
+
+    @Test
+    void getCurrentExchangeRates_WhenP99ExceedsBudget_ShouldSkipProviderUntilCooldownEnds() {
+        aggregation.setLatencyBudget(Duration.ofMillis(100));
+        aggregation.setMinLatencySamples(1);
+        aggregation.setTimeout(Duration.ofSeconds(1));
+        client = createClient(Map.of(
+                "fast", provider("fast", 0, quotes("0.85", "0.73")),
+                "slow", provider("slow", 300, quotes("0.95", "0.83"))
+        ));
+
+        client.getCurrentExchangeRates();
+        assertThat(client.getExcludedProviders()).containsExactly("slow");
+
+        client.getCurrentExchangeRates();
+        assertThat(calls.get("slow").get()).isEqualTo(1);
+
+        clock.advance(aggregation.getExclusionCooldown());
+        client.getCurrentExchangeRates();
+        assertThat(calls.get("slow").get()).isEqualTo(2);
+    }
+
+    @Test
+    void fetchExchangeRates_InMedianMode_ShouldStreamEachBaseOnceAllProvidersQuotedIt() {
+        client = createClient(Map.of(
+                "first", streamingProvider(quotes("0.85", "0.73"), new ExternalRateDto("EUR", Map.of("EURUSD", new BigDecimal("1.17")))),
+                "second", streamingProvider(quotes("0.87", "0.75"), new ExternalRateDto("EUR", Map.of("EURUSD", new BigDecimal("1.19"))))
+        ));
+        List<ExternalRateDto> delivered = new ArrayList<>();
+
+        client.fetchExchangeRates(delivered::add);
+
+        assertThat(delivered).extracting(ExternalRateDto::getSource).containsExactlyInAnyOrder("USD", "EUR");
+        assertThat(delivered).filteredOn(rates -> rates.getSource().equals("EUR"))
+                             .singleElement()
+                             .satisfies(rates -> assertThat(rates.getQuotes()).containsEntry("EURUSD", new BigDecimal("1.180000")));
+    }
+
+    @Test
+    void fetchExchangeRates_WhenProviderFailsPartWay_ShouldKeepDeliveredBases() {
+        ExternalExchangeRateClient partial = new ExternalExchangeRateClient() {
+            @Override
+            public List<ExternalRateDto> getCurrentExchangeRates() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void fetchExchangeRates(Consumer<ExternalRateDto> sink) {
+                sink.accept(quotes("0.85", "0.73"));
+                throw new ExchangeRateProviderException("EUR failed");
+            }
+        };
+        client = createClient(Map.of("partial", partial, "failing", failingProvider("failing")));
+
+        assertThat(client.getCurrentExchangeRates()).extracting(ExternalRateDto::getSource).containsExactly("USD");
+    }
+
+    @Test
+    void fetchExchangeRates_ShouldRecordLatencyTimerPerProvider() {
+        client = createClient(Map.of(
+                "first", provider("first", 0, quotes("0.85", "0.73")),
+                "second", provider("second", 0, quotes("0.86", "0.74"))
+        ));
+
+        client.getCurrentExchangeRates();
+
+        assertThat(meterRegistry.get("currency.provider.latency").tag("provider", "first").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("currency.provider.latency").tag("provider", "second").timer().count()).isEqualTo(1);
+    }
+
+    private AggregatingExchangeRateClient createClient(Map<String, ExternalExchangeRateClient> providers) {
+        return new AggregatingExchangeRateClient(providers, aggregation, meterRegistry, clock);
+    }
+
+    private ExternalExchangeRateClient provider(String name, long delayMillis, ExternalRateDto rates) {
+        AtomicInteger counter = calls.computeIfAbsent(name, key -> new AtomicInteger());
+        return () -> {
+            counter.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(rates);
+        };
+    }
+
+    private static ExternalExchangeRateClient streamingProvider(ExternalRateDto... rates) {
+        return () -> List.of(rates);
+    }
+
+    private ExternalExchangeRateClient failingProvider(String name) {
+        return () -> {
+            throw new ExchangeRateProviderException(name + " is down");
+        };
+    }
+
+    private static ExternalRateDto quotes(String eur, String gbp) {
+        return new ExternalRateDto("USD", Map.of("USDEUR", new BigDecimal(eur), "USDGBP", new BigDecimal(gbp)));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.currency.app.client;
+
+import com.currency.app.client.dto.ExternalRateDto;
+import com.currency.app.config.ProviderProperties;
+import com.currency.app.exception.ExchangeRateProviderException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HttpExchangeRateClientTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private final Map<String, Long> delays = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> failuresBeforeSuccess = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+
+    private HttpExchangeRateClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/live", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void fetchExchangeRates_ShouldDeliverRatesInCompletionOrder() {
+        delays.put("USD", 500L);
+        client = createClient(List.of("USD", "EUR", "GBP"), 3);
+
+        List<ExternalRateDto> rates = new ArrayList<>();
+        client.fetchExchangeRates(rates::add);
+
+        assertThat(rates).extracting(ExternalRateDto::getSource).containsExactlyInAnyOrder("USD", "EUR", "GBP");
+        assertThat(rates.get(rates.size() - 1).getSource()).isEqualTo("USD");
+        assertThat(rates.get(0).getQuotes()).containsKey(rates.get(0).getSource() + "XXX");
+        assertThat(maxInFlight.get()).isGreaterThan(1);
+    }
+
+    @Test
+    void fetchExchangeRates_ShouldNotExceedMaxConcurrency() {
+        List.of("USD", "EUR", "GBP", "JPY").forEach(code -> delays.put(code, 100L));
+        client = createClient(List.of("USD", "EUR", "GBP", "JPY"), 2);
+
+        assertThat(client.getCurrentExchangeRates()).hasSize(4);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void fetchExchangeRates_WhenProviderFailsTransiently_ShouldRetry() {
+        failuresBeforeSuccess.put("EUR", 2);
+        client = createClient(List.of("USD", "EUR"), 2);
+
+        assertThat(client.getCurrentExchangeRates()).extracting(ExternalRateDto::getSource)
+                                                    .containsExactlyInAnyOrder("USD", "EUR");
+        assertThat(requests.get("EUR").get()).isEqualTo(3);
+    }
+
+    @Test
+    void fetchExchangeRates_WhenRequestTimesOut_ShouldRetry() {
+        delays.put("EUR", 1_000L);
+        failuresBeforeSuccess.put("EUR", 0);
+        client = createClient(List.of("EUR"), 1);
+
+        assertThatThrownBy(() -> client.getCurrentExchangeRates()).isInstanceOf(ExchangeRateProviderException.class);
+        assertThat(requests.get("EUR").get()).isEqualTo(3);
+    }
+
+    @Test
+    void fetchExchangeRates_WhenCurrencyKeepsFailing_ShouldDeliverOthersAndThrow() {
+        failuresBeforeSuccess.put("EUR", Integer.MAX_VALUE);
+        client = createClient(List.of("USD", "EUR", "GBP"), 3);
+
+        List<ExternalRateDto> rates = new ArrayList<>();
+        assertThatThrownBy(() -> client.fetchExchangeRates(rates::add))
+                .isInstanceOf(ExchangeRateProviderException.class)
+                .satisfies(e -> assertThat(e.getSuppressed()).hasSize(1));
+        assertThat(rates).extracting(ExternalRateDto::getSource).containsExactlyInAnyOrder("USD", "GBP");
+        assertThat(requests.get("EUR").get()).isEqualTo(3);
+    }
+
+    private HttpExchangeRateClient createClient(List<String> currencies, int maxConcurrency) {
+        ProviderProperties.Endpoint endpoint = new ProviderProperties.Endpoint();
+        endpoint.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        endpoint.setRequestTimeout(Duration.ofMillis(800));
+        endpoint.setInitialBackoff(Duration.ofMillis(10));
+        endpoint.setMaxBackoff(Duration.ofMillis(20));
+        endpoint.setMaxConcurrency(maxConcurrency);
+        return new HttpExchangeRateClient("stub", endpoint, currencies, objectMapper);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String source = exchange.getRequestURI().getQuery().substring("source=".length());
+        int attempt = requests.computeIfAbsent(source, code -> new AtomicInteger()).incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(delays.getOrDefault(source, 0L));
+            if (attempt <= failuresBeforeSuccess.getOrDefault(source, 0)) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            ExternalRateDto rates = new ExternalRateDto(source, Map.of(source + "XXX", new BigDecimal("1.5")));
+            byte[] body = objectMapper.writeValueAsString(rates).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+            // client gave up on the request
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+}
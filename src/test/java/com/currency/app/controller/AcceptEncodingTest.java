@@ -0,0 +1,31 @@
+package com.currency.app.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcceptEncodingTest {
+
+    @Test
+    void acceptsGzip_WhenListed_ShouldHonourQuality() {
+        assertThat(AcceptEncoding.acceptsGzip("gzip")).isTrue();
+        assertThat(AcceptEncoding.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(AcceptEncoding.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("gzip; q=0.0, deflate")).isFalse();
+    }
+
+    @Test
+    void acceptsGzip_ShouldNotTakeOtherCodingsForGzip() {
+        assertThat(AcceptEncoding.acceptsGzip("x-gzip")).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("br, deflate")).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip(null)).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("")).isFalse();
+    }
+
+    @Test
+    void acceptsGzip_WhenOnlyWildcardListed_ShouldFollowWildcard() {
+        assertThat(AcceptEncoding.acceptsGzip("*")).isTrue();
+        assertThat(AcceptEncoding.acceptsGzip("*;q=0")).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("gzip;q=0, *")).isFalse();
+    }
+}
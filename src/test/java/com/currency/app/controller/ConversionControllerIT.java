@@ -0,0 +1,134 @@
+package com.currency.app.controller;
+
+import com.currency.app.AbstractBaseIT;
+import com.currency.app.controller.dto.ConversionRequestDto;
+import com.currency.app.service.InMemoryRateStorage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@AutoConfigureMockMvc
+class ConversionControllerIT extends AbstractBaseIT {
+
+    private static final String BASE_URL = "/api/v1/convert";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InMemoryRateStorage inMemoryRateStorage;
+
+    @BeforeEach
+    void setup() {
+        inMemoryRateStorage.updateRates(Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.85"), "GBP", new BigDecimal("0.73"))
+        ));
+    }
+
+    @Test
+    void convert_WithDirectPair_ReturnsConvertedAmount() throws Exception {
+        ResultActions response = mockMvc.perform(get(BASE_URL).param("from", "USD")
+                                                              .param("to", "EUR")
+                                                              .param("amount", "100"));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.from", is("USD")))
+                .andExpect(jsonPath("$.to", is("EUR")))
+                .andExpect(jsonPath("$.rate", is(0.85)))
+                .andExpect(jsonPath("$.result", is(85.00)))
+                .andDo(print());
+    }
+
+    @Test
+    void convert_WithUnknownPair_ReturnsNotFound() throws Exception {
+        ResultActions response = mockMvc.perform(get(BASE_URL).param("from", "USD")
+                                                              .param("to", "XXX")
+                                                              .param("amount", "100"));
+
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    @Test
+    void convertAll_ShouldConvertEveryAmount() throws Exception {
+        List<ConversionRequestDto> requests = List.of(
+                new ConversionRequestDto("USD", "GBP", new BigDecimal("10")),
+                new ConversionRequestDto("EUR", "GBP", new BigDecimal("85"))
+        );
+
+        ResultActions response = mockMvc.perform(post(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].result", is(7.30)))
+                .andExpect(jsonPath("$[1].result", is(73.00)))
+                .andDo(print());
+    }
+
+    @Test
+    void convertBatch_WithJsonArray_StreamsJsonArray() throws Exception {
+        String body = "[{\"from\":\"USD\",\"to\":\"EUR\",\"amount\":100}," +
+                "{\"from\":\"EUR\",\"to\":\"GBP\",\"amount\":85}," +
+                "{\"from\":\"USD\",\"to\":\"XXX\",\"amount\":1}]";
+
+        MvcResult result = mockMvc.perform(post("/api/v1/conversions:batch")
+                                          .contentType(MediaType.APPLICATION_JSON)
+                                          .content(body))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+               .andExpect(jsonPath("$", hasSize(3)))
+               .andExpect(jsonPath("$[0].result", is(85.00)))
+               .andExpect(jsonPath("$[1].result", is(73.00)))
+               .andExpect(jsonPath("$[2].error", is("No exchange rate available for USD -> XXX")))
+               .andDo(print());
+    }
+
+    @Test
+    void convertBatch_WithNdjson_StreamsNdjson() throws Exception {
+        String body = "{\"from\":\"USD\",\"to\":\"EUR\",\"amount\":100}\n" +
+                "{\"from\":\"USD\",\"to\":\"GBP\",\"amount\":10}\n";
+
+        MvcResult result = mockMvc.perform(post("/api/v1/conversions:batch")
+                                          .contentType(MediaType.APPLICATION_NDJSON)
+                                          .content(body))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+
+        String response = mockMvc.perform(asyncDispatch(result))
+                                 .andExpect(status().isOk())
+                                 .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                                 .andReturn()
+                                 .getResponse()
+                                 .getContentAsString();
+
+        assertThat(response.split("\n")).hasSize(2)
+                                        .satisfiesExactly(
+                                                line -> assertThat(line).contains("\"result\":85.00"),
+                                                line -> assertThat(line).contains("\"result\":7.30"));
+    }
+}
@@ -2,23 +2,43 @@ package com.currency.app.controller;
 
 import com.currency.app.AbstractBaseIT;
 import com.currency.app.controller.dto.CurrencyDto;
+import com.currency.app.controller.dto.RateRowDto;
+import com.currency.app.controller.dto.RateTableDto;
 import com.currency.app.entity.Currency;
+import com.currency.app.entity.ExchangeRate;
 import com.currency.app.repository.CurrencyRepository;
+import com.currency.app.repository.ExchangeRateRepository;
+import com.currency.app.service.CurrencyRegistry;
+import com.currency.app.service.CurrencyService;
+import com.currency.app.service.RateSnapshot;
 import com.currency.app.service.RateStorageService;
+import com.currency.app.service.RatesPublishedEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -40,12 +60,28 @@ class CurrencyControllerIT extends AbstractBaseIT {
     @Autowired
     private CurrencyRepository currencyRepository;
 
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
     @Autowired
     private RateStorageService rateStorageService;
 
+    @Autowired
+    private CurrencyRegistry currencyRegistry;
+
+    @Autowired
+    private CurrencyService currencyService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private RateUpdateBroadcaster rateUpdateBroadcaster;
+
     @BeforeEach
     void setup() {
         currencyRepository.deleteAll();
+        currencyRegistry.reload();
     }
 
     @Test
@@ -68,10 +104,10 @@ class CurrencyControllerIT extends AbstractBaseIT {
         response.andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].code", is("USD")))
-                .andExpect(jsonPath("$[0].name", is("US Dollar")))
-                .andExpect(jsonPath("$[1].code", is("EUR")))
-                .andExpect(jsonPath("$[1].name", is("Euro")))
+                .andExpect(jsonPath("$[0].code", is("EUR")))
+                .andExpect(jsonPath("$[0].name", is("Euro")))
+                .andExpect(jsonPath("$[1].code", is("USD")))
+                .andExpect(jsonPath("$[1].name", is("US Dollar")))
                 .andDo(print());
     }
 
@@ -90,6 +126,286 @@ class CurrencyControllerIT extends AbstractBaseIT {
                 .andDo(print());
     }
 
+    @Test
+    void getExchangeRates_ShouldReturnCacheHeaders() throws Exception {
+        Currency usd = createCurrency("USD", "US Dollar");
+        updateRates(usd);
+
+        ResultActions response = mockMvc.perform(get(BASE_URL + "/{code}/rates", usd.getCode()));
+
+        response.andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, allOf(startsWith("max-age="), containsString("must-revalidate"))))
+                .andDo(print());
+    }
+
+    @Test
+    void getExchangeRates_WhenETagMatches_ReturnsNotModified() throws Exception {
+        Currency usd = createCurrency("USD", "US Dollar");
+        updateRates(usd);
+        String etag = mockMvc.perform(get(BASE_URL + "/{code}/rates", usd.getCode()))
+                             .andReturn()
+                             .getResponse()
+                             .getHeader(HttpHeaders.ETAG);
+
+        ResultActions response = mockMvc.perform(get(BASE_URL + "/{code}/rates", usd.getCode())
+                .header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        response.andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""))
+                .andDo(print());
+    }
+
+    @Test
+    void getExchangeRates_WhenRatesChanged_ReturnsNewETag() throws Exception {
+        Currency usd = createCurrency("USD", "US Dollar");
+        updateRates(usd);
+        String etag = mockMvc.perform(get(BASE_URL + "/{code}/rates", usd.getCode()))
+                             .andReturn()
+                             .getResponse()
+                             .getHeader(HttpHeaders.ETAG);
+
+        rateStorageService.updateRate(usd.getCode(), "EUR", new BigDecimal("0.86"));
+        ResultActions response = mockMvc.perform(get(BASE_URL + "/{code}/rates", usd.getCode())
+                .header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        response.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.rates.EUR", is(0.86)))
+                .andDo(print());
+    }
+
+    @Test
+    void getExchangeRates_WhenGzipAccepted_ReturnsCompressedRates() throws Exception {
+        Currency usd = createCurrency("USD", "US Dollar");
+        updateRates(usd);
+
+        byte[] body = mockMvc.perform(get(BASE_URL + "/{code}/rates", usd.getCode())
+                                     .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                             .andExpect(status().isOk())
+                             .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                             .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            Map<?, ?> rates = objectMapper.readValue(gzip, Map.class);
+            assertThat(rates.get("baseCurrency")).isEqualTo("USD");
+        }
+    }
+
+    @Test
+    void getExchangeRates_WhenGzipRefused_ReturnsUncompressedRates() throws Exception {
+        Currency usd = createCurrency("USD", "US Dollar");
+        updateRates(usd);
+
+        mockMvc.perform(get(BASE_URL + "/{code}/rates", usd.getCode())
+                       .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, x-gzip"))
+               .andExpect(status().isOk())
+               .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+               .andExpect(jsonPath("$.baseCurrency", is("USD")));
+    }
+
+    @Test
+    void getExchangeRates_WhenProtobufAccepted_ReturnsRateTable() throws Exception {
+        Currency usd = createCurrency("USD", "US Dollar");
+        updateRates(usd);
+        String jsonETag = mockMvc.perform(get(BASE_URL + "/{code}/rates", usd.getCode()))
+                                 .andReturn()
+                                 .getResponse()
+                                 .getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = mockMvc.perform(get(BASE_URL + "/{code}/rates", usd.getCode())
+                                                          .header(HttpHeaders.ACCEPT, "application/x-protobuf, application/json;q=0.5")
+                                                          .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                                                  .andExpect(status().isOk())
+                                                  .andExpect(content().contentType("application/x-protobuf"))
+                                                  .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                                                  .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                                                  .andExpect(header().string(HttpHeaders.ETAG, not(jsonETag)))
+                                                  .andReturn()
+                                                  .getResponse();
+
+        RateTableDto table = RateTableCodec.fromProtobuf(response.getContentAsByteArray());
+        assertThat(table.getCurrencies().get(0)).isEqualTo("USD");
+        assertThat(table.getRows()).hasSize(1);
+        RateRowDto row = table.getRows().get(0);
+        assertThat(table.getCurrencies().get(row.getTargets()[0])).isIn("EUR", "GBP");
+        assertThat(row.getRates()).containsExactlyInAnyOrder(850_000L, 730_000L);
+
+        mockMvc.perform(get(BASE_URL + "/{code}/rates", usd.getCode())
+                       .header(HttpHeaders.ACCEPT, "application/x-protobuf")
+                       .header(HttpHeaders.IF_NONE_MATCH, response.getHeader(HttpHeaders.ETAG)))
+               .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getAllExchangeRates_ReturnsEveryBaseCurrency() throws Exception {
+        Currency usd = createCurrency("USD", "US Dollar");
+        updateRates(usd);
+        rateStorageService.updateRate("EUR", "USD", new BigDecimal("1.17"));
+
+        mockMvc.perform(get(BASE_URL + "/rates"))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+               .andExpect(jsonPath("$.USD.EUR", is(0.85)))
+               .andExpect(jsonPath("$.EUR.USD", is(1.17)));
+
+        byte[] body = mockMvc.perform(get(BASE_URL + "/rates").header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE))
+                             .andExpect(status().isOk())
+                             .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsByteArray();
+
+        RateTableDto table = RateTableCodec.fromCbor(body);
+        assertThat(table.getScale()).isEqualTo(6);
+        assertThat(table.getRows()).extracting(row -> table.getCurrencies().get(row.getBase())).contains("USD", "EUR");
+    }
+
+    @Test
+    void getRateSchema_ShouldServeProtobufSchema() throws Exception {
+        mockMvc.perform(get("/schema/rates.proto"))
+               .andExpect(status().isOk())
+               .andExpect(content().string(containsString("message RateTable")));
+    }
+
+    @Test
+    void getAllCurrencies_WhenETagMatches_ReturnsNotModified() throws Exception {
+        createCurrency("USD", "US Dollar");
+        String etag = mockMvc.perform(get(BASE_URL))
+                             .andReturn()
+                             .getResponse()
+                             .getHeader(HttpHeaders.ETAG);
+
+        ResultActions response = mockMvc.perform(get(BASE_URL).header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        response.andExpect(status().isNotModified())
+                .andExpect(content().string(""))
+                .andDo(print());
+    }
+
+    @Test
+    void getExchangeRates_WithAt_ReturnsRatesInEffectAtTime() throws Exception {
+        Currency usd = createCurrency("USD", "US Dollar");
+        Currency eur = createCurrency("EUR", "Euro");
+        LocalDateTime time = LocalDateTime.of(2026, 1, 1, 12, 0);
+        exchangeRateRepository.saveAllAndFlush(List.of(rate(usd, eur, "0.80", time.minusHours(2)), rate(usd, eur, "0.85", time.plusHours(1))));
+
+        ResultActions response = mockMvc.perform(get(BASE_URL + "/{code}/rates", usd.getCode()).param("at", "2026-01-01T12:00:00"));
+
+        response.andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.baseCurrency", is("USD")))
+                .andExpect(jsonPath("$.rates.EUR", is(0.8)))
+                .andDo(print());
+    }
+
+    @Test
+    void getExchangeRateStats_ReturnsCurrentRatesWithDailyRange() throws Exception {
+        Currency usd = createCurrency("USD", "US Dollar");
+        rateStorageService.updateRate(usd.getCode(), "EUR", new BigDecimal("0.88"));
+
+        ResultActions response = mockMvc.perform(get(BASE_URL + "/{code}/rates/stats", usd.getCode()));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.baseCurrency", is("USD")))
+                .andExpect(jsonPath("$.rates.EUR.rate", is(0.88)))
+                .andExpect(jsonPath("$.rates.EUR.low", lessThanOrEqualTo(0.88)))
+                .andExpect(jsonPath("$.rates.EUR.high", greaterThanOrEqualTo(0.88)))
+                .andDo(print());
+    }
+
+    @Test
+    void getExchangeRateStats_WhenCurrencyUnknown_ReturnsNotFound() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/{code}/rates/stats", "XXX"))
+               .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void getRateHistory_ReturnsSampledSeries() throws Exception {
+        Currency usd = createCurrency("USD", "US Dollar");
+        Currency eur = createCurrency("EUR", "Euro");
+        LocalDateTime day = LocalDateTime.of(2026, 1, 1, 0, 0);
+        exchangeRateRepository.saveAll(List.of(rate(usd, eur, "0.80", day.withHour(1)), rate(usd, eur, "0.85", day.withHour(2).withMinute(30))));
+        try {
+            MvcResult result = mockMvc.perform(get(BASE_URL + "/{code}/history", usd.getCode())
+                                              .param("target", "EUR")
+                                              .param("from", "2026-01-01T00:00:00")
+                                              .param("to", "2026-01-01T03:00:00")
+                                              .param("interval", "PT1H"))
+                                      .andExpect(request().asyncStarted())
+                                      .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                   .andExpect(status().isOk())
+                   .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                   .andExpect(jsonPath("$.targetCurrency", is("EUR")))
+                   .andExpect(jsonPath("$.interval", is("PT1H")))
+                   .andExpect(jsonPath("$.points[*].time", contains("2026-01-01T01:00:00", "2026-01-01T02:00:00", "2026-01-01T03:00:00")))
+                   .andExpect(jsonPath("$.points[*].rate", contains(0.8, 0.8, 0.85)))
+                   .andDo(print());
+        } finally {
+            exchangeRateRepository.deleteAll();
+            currencyRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void getRateHistory_WhenTooManyPoints_ReturnsBadRequest() throws Exception {
+        ResultActions response = mockMvc.perform(get(BASE_URL + "/{code}/history", "USD")
+                .param("target", "EUR")
+                .param("from", "2020-01-01T00:00:00")
+                .param("to", "2026-01-01T00:00:00")
+                .param("interval", "PT1M"));
+
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
+    @Test
+    void getRateHistory_WhenFromAfterTo_ReturnsBadRequest() throws Exception {
+        ResultActions response = mockMvc.perform(get(BASE_URL + "/{code}/history", "USD")
+                .param("target", "EUR")
+                .param("from", "2026-01-02T00:00:00")
+                .param("to", "2026-01-01T00:00:00"));
+
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
+    @Test
+    void streamExchangeRates_WhenRatesPublished_SendsChangedRates() throws Exception {
+        Currency usd = createCurrency("USD", "US Dollar");
+        updateRates(usd);
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/{code}/rates/stream", usd.getCode())
+                                          .accept(MediaType.TEXT_EVENT_STREAM))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+        MockHttpServletResponse response = result.getResponse();
+        await().atMost(Duration.ofSeconds(5))
+               .untilAsserted(() -> assertThat(response.getContentAsString()).contains("event:rates", "\"GBP\":0.730000"));
+
+        RateSnapshot previous = rateStorageService.getPublishedSnapshot();
+        rateStorageService.updateRate(usd.getCode(), "EUR", new BigDecimal("0.87"));
+        eventPublisher.publishEvent(new RatesPublishedEvent(previous, rateStorageService.getPublishedSnapshot()));
+
+        await().atMost(Duration.ofSeconds(5))
+               .untilAsserted(() -> assertThat(response.getContentAsString()).contains("{\"baseCurrency\":\"USD\",\"rates\":{\"EUR\":0.870000}}"));
+    }
+
+    @Test
+    void streamExchangeRates_WhenCurrencyUnknown_ReturnsNotFound() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/{code}/rates/stream", "XXX").accept(MediaType.TEXT_EVENT_STREAM))
+               .andExpect(status().isNotFound());
+
+        assertThat(rateUpdateBroadcaster.getSubscribedCurrencies()).doesNotContain("XXX");
+    }
+
     @Test
     void addCurrency_WithValidData_ReturnsCreated() throws Exception {
         CurrencyDto currencyDto = new CurrencyDto("USD", "US Dollar");
@@ -109,7 +425,17 @@ class CurrencyControllerIT extends AbstractBaseIT {
                                     .code(code)
                                     .name(name)
                                     .build();
-        return currencyRepository.save(currency);
+        return currencyService.addCurrency(currency);
+    }
+
+    private ExchangeRate rate(Currency base, Currency target, String rate, LocalDateTime lastUpdated) {
+        return ExchangeRate.builder()
+                           .baseCurrency(base)
+                           .targetCurrency(target)
+                           .rate(new BigDecimal(rate))
+                           .lastUpdated(lastUpdated)
+                           .validUntil(lastUpdated)
+                           .build();
     }
 
     private void updateRates(Currency baseCurrency) {
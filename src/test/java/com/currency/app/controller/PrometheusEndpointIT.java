@@ -0,0 +1,62 @@
+package com.currency.app.controller;
+
+import com.currency.app.AbstractBaseIT;
+import com.currency.app.client.dto.ExternalRateDto;
+import com.currency.app.service.ExchangeRateUpdateService;
+import com.currency.app.service.RateStorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PrometheusEndpointIT extends AbstractBaseIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ExchangeRateUpdateService updateService;
+
+    @Autowired
+    private RateStorageService rateStorageService;
+
+    @Test
+    void prometheus_ShouldExposeStorageRefreshAndEndpointMetrics() throws Exception {
+        when(exchangeRateClient.getCurrentExchangeRates()).thenReturn(List.of(
+                new ExternalRateDto("USD", Map.of("USDEUR", new BigDecimal("0.85"), "USDGBP", new BigDecimal("0.73")))));
+        doCallRealMethod().when(exchangeRateClient).fetchExchangeRates(any());
+        updateService.updateRates();
+        rateStorageService.getAllRatesForCurrency("CHF");
+        mockMvc.perform(get("/api/v1/currencies/{code}/rates", "USD"));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+               .andExpect(status().isOk())
+               .andExpect(content().string(allOf(
+                       containsString("currency_rates_tier_lookups_total{result=\"hit\",tier=\"InMemoryRateStorage\"}"),
+                       containsString("currency_rates_tier_reads_seconds_bucket{tier=\"DatabaseRateStorage\""),
+                       containsString("currency_rates_tier_writes_seconds_count{tier=\"DatabaseRateStorage\"}"),
+                       containsString("currency_rates_refresh_seconds_count{outcome=\"success\"} 1"),
+                       containsString("currency_rates_refresh_pairs_total 2.0"),
+                       containsString("currency_rates_snapshot_memory_bytes"),
+                       containsString("currency_rates_history_memory_bytes"),
+                       containsString("method=\"findLatestRatesForBaseCurrency\""),
+                       containsString("http_server_requests_seconds_bucket{error=\"none\",exception=\"none\",method=\"GET\","
+                                      + "outcome=\"SUCCESS\",status=\"200\",uri=\"/api/v1/currencies/{code}/rates\""))));
+    }
+}
@@ -0,0 +1,128 @@
+package com.currency.app.controller;
+
+import com.currency.app.controller.RatePayloadCache.RatePayload;
+import com.currency.app.controller.dto.RateTableDto;
+import com.currency.app.service.InMemoryRateStorage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RatePayloadCacheTest {
+
+    private RatePayloadCache ratePayloadCache;
+
+    private InMemoryRateStorage rateStorage;
+
+    @BeforeEach
+    void setUp() {
+        ratePayloadCache = new RatePayloadCache(new ObjectMapper());
+        rateStorage = new InMemoryRateStorage();
+        rateStorage.updateRates(Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.85")),
+                "EUR", Map.of("USD", new BigDecimal("1.17"))
+        ));
+    }
+
+    @Test
+    void get_ShouldEncodeJsonAndGzip() throws IOException {
+        RatePayload payload = ratePayloadCache.get("USD", rateStorage.getSnapshot());
+
+        assertThat(new String(payload.json(), StandardCharsets.UTF_8)).isEqualTo("{\"baseCurrency\":\"USD\",\"rates\":{\"EUR\":0.850000}}");
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(payload.json());
+        }
+        assertThat(payload.etag()).isEqualTo('"' + DigestUtils.md5DigestAsHex(payload.json()) + '"');
+        assertThat(payload.gzipEtag()).isEqualTo('"' + DigestUtils.md5DigestAsHex(payload.gzip()) + '"')
+                                      .isNotEqualTo(payload.etag());
+    }
+
+    @Test
+    void get_WhenSameRatesHaveAnotherVersion_ShouldKeepETag() {
+        InMemoryRateStorage restarted = new InMemoryRateStorage();
+        restarted.updateRates(Map.of("EUR", Map.of("USD", new BigDecimal("1.17"))));
+        restarted.updateRates(Map.of("USD", Map.of("EUR", new BigDecimal("0.85"))));
+
+        RatePayload payload = ratePayloadCache.get("USD", rateStorage.getSnapshot());
+        RatePayload other = new RatePayloadCache(new ObjectMapper()).get("USD", restarted.getSnapshot());
+
+        assertThat(other.version()).isNotEqualTo(payload.version());
+        assertThat(other.etag()).isEqualTo(payload.etag());
+        assertThat(other.gzipEtag()).isEqualTo(payload.gzipEtag());
+    }
+
+    @Test
+    void get_WhenBaseUnchanged_ShouldReuseEncodedPayload() {
+        RatePayload payload = ratePayloadCache.get("USD", rateStorage.getSnapshot());
+
+        rateStorage.updateRate("EUR", "USD", new BigDecimal("1.18"));
+
+        assertThat(ratePayloadCache.get("USD", rateStorage.getSnapshot())).isSameAs(payload);
+    }
+
+    @Test
+    void get_WhenBaseChanged_ShouldEncodeNewPayload() {
+        RatePayload payload = ratePayloadCache.get("USD", rateStorage.getSnapshot());
+
+        rateStorage.updateRate("USD", "EUR", new BigDecimal("0.86"));
+        RatePayload updated = ratePayloadCache.get("USD", rateStorage.getSnapshot());
+
+        assertThat(updated).isNotSameAs(payload);
+        assertThat(updated.etag()).isNotEqualTo(payload.etag());
+        assertThat(new String(updated.json(), StandardCharsets.UTF_8)).contains("0.860000");
+    }
+
+    @Test
+    void get_ShouldEncodeBinaryFormatsWithTheirOwnETags() throws IOException {
+        RatePayload payload = ratePayloadCache.get("USD", rateStorage.getSnapshot());
+
+        RateTableDto table = RateTableCodec.fromProtobuf(payload.body(RateWireFormat.PROTOBUF));
+        assertThat(table.getCurrencies()).containsExactly("USD", "EUR");
+        assertThat(RateTableCodec.fromCbor(payload.body(RateWireFormat.CBOR))).isEqualTo(table);
+        assertThat(payload.etag(RateWireFormat.JSON)).isEqualTo(payload.etag());
+        assertThat(payload.etag(RateWireFormat.PROTOBUF))
+                .isEqualTo('"' + DigestUtils.md5DigestAsHex(payload.body(RateWireFormat.PROTOBUF)) + '"');
+        assertThat(payload.etag(RateWireFormat.CBOR))
+                .isEqualTo('"' + DigestUtils.md5DigestAsHex(payload.body(RateWireFormat.CBOR)) + '"')
+                .isNotEqualTo(payload.etag(RateWireFormat.PROTOBUF));
+    }
+
+    @Test
+    void get_WhenOnlyTableMetadataChanged_ShouldChangeBinaryETagsButNotJsonETag() {
+        InMemoryRateStorage republished = new InMemoryRateStorage();
+        republished.updateRates(Map.of("USD", Map.of("EUR", new BigDecimal("0.80"))));
+        republished.updateRates(Map.of("USD", Map.of("EUR", new BigDecimal("0.85"))));
+
+        RatePayload payload = ratePayloadCache.get("USD", rateStorage.getSnapshot());
+        RatePayload other = new RatePayloadCache(new ObjectMapper()).get("USD", republished.getSnapshot());
+
+        assertThat(other.etag()).isEqualTo(payload.etag());
+        assertThat(other.etag(RateWireFormat.PROTOBUF)).isNotEqualTo(payload.etag(RateWireFormat.PROTOBUF));
+    }
+
+    @Test
+    void getAll_ShouldReencodeOnlyForNewerSnapshot() {
+        RatePayload payload = ratePayloadCache.getAll(rateStorage.getSnapshot());
+
+        assertThat(new String(payload.json(), StandardCharsets.UTF_8)).contains("\"USD\":{\"EUR\":0.850000}", "\"EUR\":{\"USD\":1.170000}");
+        assertThat(ratePayloadCache.getAll(rateStorage.getSnapshot())).isSameAs(payload);
+
+        rateStorage.updateRate("EUR", "USD", new BigDecimal("1.18"));
+
+        assertThat(ratePayloadCache.getAll(rateStorage.getSnapshot())).isNotSameAs(payload);
+    }
+
+    @Test
+    void get_WhenBaseUnknown_ShouldReturnNull() {
+        assertThat(ratePayloadCache.get("GBP", rateStorage.getSnapshot())).isNull();
+    }
+}
@@ -0,0 +1,103 @@
+package com.currency.app.controller;
+
+import com.currency.app.controller.dto.RateRowDto;
+import com.currency.app.controller.dto.RateTableDto;
+import com.currency.app.service.InMemoryRateStorage;
+import com.currency.app.service.RateSnapshot;
+import com.google.protobuf.CodedOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateTableCodecTest {
+
+    private RateSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryRateStorage rateStorage = new InMemoryRateStorage();
+        rateStorage.updateRates(Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.85"), "GBP", new BigDecimal("0.73")),
+                "EUR", Map.of("USD", new BigDecimal("1.17"))
+        ));
+        snapshot = rateStorage.getSnapshot();
+    }
+
+    @Test
+    void fromSnapshot_WithBase_ShouldListOnlyQuotedCurrencies() {
+        RateTableDto table = RateTableCodec.fromSnapshot(snapshot, "USD");
+
+        assertThat(table.getScale()).isEqualTo(6);
+        assertThat(table.getVersion()).isEqualTo(snapshot.getVersion("USD"));
+        assertThat(table.getCurrencies()).hasSize(3).first().isEqualTo("USD");
+        assertThat(table.getRows()).hasSize(1);
+        RateRowDto row = table.getRows().get(0);
+        assertThat(row.getBase()).isZero();
+        assertThat(row.getTargets()).containsExactly(1, 2);
+        for (int i = 0; i < row.getTargets().length; i++) {
+            String target = table.getCurrencies().get(row.getTargets()[i]);
+            assertThat(BigDecimal.valueOf(row.getRates()[i], table.getScale())).isEqualByComparingTo(snapshot.getRates("USD").get(target));
+        }
+    }
+
+    @Test
+    void fromSnapshot_ShouldSkipCurrenciesWithoutRates() {
+        RateTableDto table = RateTableCodec.fromSnapshot(snapshot);
+
+        assertThat(table.getCurrencies()).containsExactlyInAnyOrder("USD", "EUR", "GBP");
+        assertThat(table.getRows()).extracting(row -> table.getCurrencies().get(row.getBase())).containsExactlyInAnyOrder("USD", "EUR");
+    }
+
+    @Test
+    void protobuf_ShouldRoundTrip() throws IOException {
+        RateTableDto table = RateTableCodec.fromSnapshot(snapshot);
+
+        assertThat(RateTableCodec.fromProtobuf(RateTableCodec.toProtobuf(table))).isEqualTo(table);
+    }
+
+    @Test
+    void cbor_ShouldRoundTrip() throws IOException {
+        RateTableDto table = RateTableCodec.fromSnapshot(snapshot);
+
+        assertThat(RateTableCodec.fromCbor(RateTableCodec.toCbor(table))).isEqualTo(table);
+    }
+
+    @Test
+    void fromProtobuf_ShouldAcceptUnpackedRowsAndSkipUnknownFields() throws IOException {
+        ByteArrayOutputStream row = new ByteArrayOutputStream();
+        CodedOutputStream rowOut = CodedOutputStream.newInstance(row);
+        rowOut.writeUInt32(1, 0);
+        rowOut.writeUInt32(2, 1);
+        rowOut.writeInt64(3, 850_000);
+        rowOut.writeString(9, "ignored");
+        rowOut.flush();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        out.writeInt32(1, 6);
+        out.writeString(2, "USD");
+        out.writeString(2, "EUR");
+        out.writeByteArray(3, row.toByteArray());
+        out.writeInt64(7, 42);
+        out.flush();
+
+        RateTableDto table = RateTableCodec.fromProtobuf(bytes.toByteArray());
+
+        assertThat(table).isEqualTo(new RateTableDto(6, List.of("USD", "EUR"), List.of(new RateRowDto(0, new int[]{1}, new long[]{850_000})), 0, 0));
+    }
+
+    @Test
+    void fromRates_ShouldScaleRates() {
+        RateTableDto table = RateTableCodec.fromRates("GBP", Map.of("USD", new BigDecimal("1.27")));
+
+        assertThat(table.getCurrencies()).containsExactly("GBP", "USD");
+        assertThat(table.getRows().get(0).getRates()).containsExactly(1_270_000L);
+        assertThat(table.getVersion()).isZero();
+    }
+}
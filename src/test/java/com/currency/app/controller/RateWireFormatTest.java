@@ -0,0 +1,23 @@
+package com.currency.app.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateWireFormatTest {
+
+    @Test
+    void negotiate_WhenMissingOrWildcard_ShouldReturnJson() {
+        assertThat(RateWireFormat.negotiate(null)).isEqualTo(RateWireFormat.JSON);
+        assertThat(RateWireFormat.negotiate("*/*")).isEqualTo(RateWireFormat.JSON);
+        assertThat(RateWireFormat.negotiate("not a media type")).isEqualTo(RateWireFormat.JSON);
+    }
+
+    @Test
+    void negotiate_ShouldPreferHighestQuality() {
+        assertThat(RateWireFormat.negotiate("application/json;q=0.5, application/x-protobuf")).isEqualTo(RateWireFormat.PROTOBUF);
+        assertThat(RateWireFormat.negotiate("application/protobuf")).isEqualTo(RateWireFormat.PROTOBUF);
+        assertThat(RateWireFormat.negotiate("application/cbor, */*;q=0.1")).isEqualTo(RateWireFormat.CBOR);
+        assertThat(RateWireFormat.negotiate("application/json, application/cbor")).isEqualTo(RateWireFormat.JSON);
+    }
+}
@@ -0,0 +1,138 @@
+package com.currency.app.repository;
+
+import com.currency.app.AbstractBaseIT;
+import com.currency.app.entity.Currency;
+import com.currency.app.entity.ExchangeRate;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+class ExchangeRateRepositoryIT extends AbstractBaseIT {
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Currency usd;
+
+    private Currency eur;
+
+    private Currency gbp;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateRepository.deleteAll();
+        currencyRepository.deleteAll();
+        usd = currencyRepository.save(Currency.builder().code("USD").name("US Dollar").build());
+        eur = currencyRepository.save(Currency.builder().code("EUR").name("Euro").build());
+        gbp = currencyRepository.save(Currency.builder().code("GBP").name("British Pound").build());
+    }
+
+    @Test
+    void findLatestRatesForBaseCurrency_ShouldReturnNewestRatePerPair() {
+        LocalDateTime now = LocalDateTime.now();
+        exchangeRateRepository.saveAll(List.of(
+                rate(usd, eur, "0.80", now.minusHours(2)),
+                rate(usd, eur, "0.85", now),
+                rate(usd, eur, "0.82", now.minusHours(1)),
+                rate(usd, gbp, "0.70", now.minusHours(3)),
+                rate(usd, gbp, "0.73", now.minusHours(1)),
+                rate(eur, usd, "1.17", now.plusHours(1))
+        ));
+
+        List<ExchangeRate> latest = exchangeRateRepository.findLatestRatesForBaseCurrency("USD");
+
+        assertThat(latest).hasSize(2)
+                          .allSatisfy(rate -> assertThat(rate.getBaseCurrency().getCode()).isEqualTo("USD"))
+                          .anySatisfy(rate -> {
+                              assertThat(rate.getTargetCurrency().getCode()).isEqualTo("EUR");
+                              assertThat(rate.getRate()).isEqualByComparingTo("0.85");
+                          })
+                          .anySatisfy(rate -> {
+                              assertThat(rate.getTargetCurrency().getCode()).isEqualTo("GBP");
+                              assertThat(rate.getRate()).isEqualByComparingTo("0.73");
+                          });
+    }
+
+    @Test
+    void findAllLatestRates_ShouldReturnNewestRatePerPairOfEveryBase() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        exchangeRateRepository.saveAll(List.of(
+                rate(usd, eur, "0.80", now.minusHours(2)),
+                rate(usd, eur, "0.85", now),
+                rate(usd, gbp, "0.73", now.minusHours(1)),
+                rate(eur, usd, "1.16", now.minusHours(3)),
+                rate(eur, usd, "1.17", now.minusHours(1))
+        ));
+        exchangeRateRepository.flush();
+
+        List<LatestRate> latest = exchangeRateRepository.findAllLatestRates();
+
+        assertThat(latest).hasSize(3)
+                          .anySatisfy(rate -> {
+                              assertThat(rate.getBaseCurrencyCode()).isEqualTo("USD");
+                              assertThat(rate.getTargetCurrencyCode()).isEqualTo("EUR");
+                              assertThat(rate.getRate()).isEqualByComparingTo("0.85");
+                              assertThat(rate.getLastUpdated()).isEqualTo(now);
+                          })
+                          .anySatisfy(rate -> {
+                              assertThat(rate.getBaseCurrencyCode()).isEqualTo("EUR");
+                              assertThat(rate.getTargetCurrencyCode()).isEqualTo("USD");
+                              assertThat(rate.getRate()).isEqualByComparingTo("1.17");
+                          });
+    }
+
+    @Test
+    void extendValidity_ShouldOnlyExtendLatestRateOfGivenPairs() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        ExchangeRate oldEur = rate(usd, eur, "0.80", now.minusHours(2));
+        ExchangeRate latestEur = rate(usd, eur, "0.85", now.minusHours(1));
+        ExchangeRate latestGbp = rate(usd, gbp, "0.73", now.minusHours(1));
+        exchangeRateRepository.saveAll(List.of(oldEur, latestEur, latestGbp));
+        exchangeRateRepository.flush();
+
+        int updated = exchangeRateRepository.extendValidity("USD", List.of("EUR"), now);
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(exchangeRateRepository.findById(latestEur.getId())).get()
+                                                                       .extracting(ExchangeRate::getValidUntil)
+                                                                       .isEqualTo(now);
+        assertThat(exchangeRateRepository.findById(oldEur.getId())).get()
+                                                                    .extracting(ExchangeRate::getValidUntil)
+                                                                    .isEqualTo(oldEur.getLastUpdated());
+        assertThat(exchangeRateRepository.findById(latestGbp.getId())).get()
+                                                                       .extracting(ExchangeRate::getValidUntil)
+                                                                       .isEqualTo(latestGbp.getLastUpdated());
+    }
+
+    @Test
+    void findLatestRatesForBaseCurrency_WhenNoHistory_ShouldReturnEmptyList() {
+        assertThat(exchangeRateRepository.findLatestRatesForBaseCurrency("USD")).isEmpty();
+    }
+
+    private ExchangeRate rate(Currency base, Currency target, String rate, LocalDateTime lastUpdated) {
+        return ExchangeRate.builder()
+                           .baseCurrency(base)
+                           .targetCurrency(target)
+                           .rate(new BigDecimal(rate))
+                           .lastUpdated(lastUpdated)
+                           .validUntil(lastUpdated)
+                           .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.currency.app.service;
+
+import com.currency.app.exception.RateNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CrossRateTableTest {
+
+    private CrossRateTable crossRates;
+
+    @BeforeEach
+    void setUp() {
+        RateSnapshot snapshot = RateSnapshot.EMPTY.merge(Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.85"), "GBP", new BigDecimal("0.73")),
+                "PLN", Map.of("USD", new BigDecimal("0.25"))
+        ), Instant.now());
+
+        crossRates = CrossRateTable.build(snapshot, "USD", 2, RoundingMode.HALF_EVEN);
+    }
+
+    @Test
+    void convert_WithDirectQuote_ShouldUseQuote() {
+        assertThat(crossRates.getRate("USD", "EUR")).isEqualTo(new BigDecimal("0.85"));
+        assertThat(crossRates.convert("USD", "EUR", new BigDecimal("100"))).isEqualTo(new BigDecimal("85.00"));
+    }
+
+    @Test
+    void convert_WithInverseQuote_ShouldInvertQuote() {
+        assertThat(crossRates.getRate("EUR", "USD")).isEqualByComparingTo("1.1764705882");
+        assertThat(crossRates.convert("EUR", "USD", new BigDecimal("85"))).isEqualTo(new BigDecimal("100.00"));
+    }
+
+    @Test
+    void convert_WithoutDirectQuote_ShouldTriangulateThroughPivot() {
+        assertThat(crossRates.getRate("EUR", "GBP")).isEqualByComparingTo("0.8588235294");
+        assertThat(crossRates.convert("PLN", "EUR", new BigDecimal("100"))).isEqualTo(new BigDecimal("21.25"));
+    }
+
+    @Test
+    void convert_WithSameCurrency_ShouldReturnAmount() {
+        assertThat(crossRates.convert("GBP", "GBP", new BigDecimal("12.345"))).isEqualTo(new BigDecimal("12.34"));
+    }
+
+    @Test
+    void convert_WhenCurrencyUnknown_ThrowsException() {
+        RateNotFoundException exception =
+                assertThrows(RateNotFoundException.class, () -> crossRates.convert("USD", "JPY", BigDecimal.ONE));
+
+        assertThat(exception.getMessage()).isEqualTo("No exchange rate available for USD -> JPY");
+    }
+
+    @Test
+    void build_WhenCrossRateDoesNotFitScale_ShouldLeavePairOut() {
+        RateSnapshot snapshot = RateSnapshot.EMPTY.merge(Map.of(
+                "USD", Map.of("VES", new BigDecimal("40000"), "EUR", new BigDecimal("0.00001"))
+        ), Instant.now());
+
+        CrossRateTable table = CrossRateTable.build(snapshot, "USD", 2, RoundingMode.HALF_EVEN);
+
+        assertThat(table.getRate("USD", "VES")).isEqualByComparingTo("40000");
+        assertThrows(RateNotFoundException.class, () -> table.getRate("EUR", "VES"));
+    }
+
+    @Test
+    void build_ShouldKeepSnapshotVersion() {
+        assertThat(crossRates.getVersion()).isEqualTo(1);
+    }
+}
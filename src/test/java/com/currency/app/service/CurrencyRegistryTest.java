@@ -0,0 +1,206 @@
+package com.currency.app.service;
+
+import com.currency.app.config.CatalogProperties;
+import com.currency.app.entity.Currency;
+import com.currency.app.repository.CurrencyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyRegistryTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Clock clock;
+
+    private CurrencyRegistry currencyRegistry;
+
+    private Currency usdCurrency;
+
+    private Currency eurCurrency;
+
+    @BeforeEach
+    void setUp() {
+        usdCurrency = Currency.builder().code("USD").name("US Dollar").build();
+        eurCurrency = Currency.builder().code("EUR").name("Euro").build();
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+        lenient().when(clock.instant()).thenReturn(NOW);
+
+        CatalogProperties catalogProperties = new CatalogProperties();
+        catalogProperties.setRefreshInterval(Duration.ofMinutes(5));
+        currencyRegistry = new CurrencyRegistry(currencyRepository, jdbcTemplate, catalogProperties, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.unbindResourceIfPossible(currencyRegistry);
+    }
+
+    @Test
+    void getCatalog_ShouldLoadCurrenciesSortedByCode() {
+        when(currencyRepository.findAll(Sort.by("code"))).thenReturn(List.of(eurCurrency, usdCurrency));
+
+        assertThat(currencyRegistry.getCatalog().currencies()).containsExactly(eurCurrency, usdCurrency);
+    }
+
+    @Test
+    void getCatalog_WhenReloadedWhileWaitingForLock_ShouldNotReloadAgain() throws Exception {
+        when(currencyRepository.findAll(any(Sort.class))).thenReturn(List.of(usdCurrency));
+        currencyRegistry.getCatalog();
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(6)));
+        CurrencyCatalog[] seen = new CurrencyCatalog[2];
+
+        Thread first = new Thread(() -> seen[0] = currencyRegistry.getCatalog());
+        Thread second = new Thread(() -> seen[1] = currencyRegistry.getCatalog());
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+
+        assertThat(seen[1]).isSameAs(seen[0]);
+        verify(currencyRepository, times(2)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void reload_WhenInTransaction_ShouldPublishOnlyAfterCommit() {
+        when(currencyRepository.findAll(any(Sort.class))).thenReturn(List.of(usdCurrency), List.of(usdCurrency, eurCurrency));
+        CurrencyCatalog before = currencyRegistry.getCatalog();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        CurrencyCatalog pending = currencyRegistry.reload();
+        assertThat(pending.contains("EUR")).isTrue();
+        assertThat(currencyRegistry.getCatalog()).isSameAs(pending);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertThat(synchronizations).hasSize(1);
+        assertThat(runOnOtherThread()).isSameAs(before);
+
+        completeTransaction(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(currencyRegistry.getCatalog().contains("EUR")).isTrue();
+        assertThat(currencyRegistry.getCatalog()).isNotSameAs(pending);
+    }
+
+    @Test
+    void reload_WhenTransactionRolledBack_ShouldKeepSharedCatalog() {
+        when(currencyRepository.findAll(any(Sort.class))).thenReturn(List.of(usdCurrency), List.of(usdCurrency, eurCurrency));
+        CurrencyCatalog before = currencyRegistry.getCatalog();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        currencyRegistry.reload();
+        currencyRegistry.reload();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertThat(synchronizations).hasSize(1);
+        completeTransaction(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(currencyRegistry.getCatalog()).isSameAs(before);
+        verify(currencyRepository, times(3)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void getCatalog_ShouldLoadOnceUntilRefreshIntervalPassed() {
+        when(currencyRepository.findAll(any(Sort.class))).thenReturn(List.of(usdCurrency, eurCurrency));
+
+        CurrencyCatalog first = currencyRegistry.getCatalog();
+        CurrencyCatalog second = currencyRegistry.getCatalog();
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(6)));
+        CurrencyCatalog refreshed = currencyRegistry.getCatalog();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.version()).isEqualTo(1);
+        assertThat(first.currencies()).containsExactly(usdCurrency, eurCurrency);
+        assertThat(refreshed.version()).isEqualTo(2);
+        assertThat(refreshed.etag()).isEqualTo(first.etag());
+        verify(currencyRepository, times(2)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void reload_WhenCatalogChanged_ShouldChangeETag() {
+        when(currencyRepository.findAll(any(Sort.class))).thenReturn(List.of(usdCurrency), List.of(usdCurrency, eurCurrency));
+
+        CurrencyCatalog before = currencyRegistry.getCatalog();
+        CurrencyCatalog after = currencyRegistry.reload();
+
+        assertThat(after.version()).isGreaterThan(before.version());
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        assertThat(currencyRegistry.getCatalog()).isSameAs(after);
+    }
+
+    @Test
+    void ensureCurrencies_WhenAllKnown_ShouldNotTouchDatabase() {
+        when(currencyRepository.findAll(any(Sort.class))).thenReturn(List.of(usdCurrency, eurCurrency));
+        currencyRegistry.getCatalog();
+
+        currencyRegistry.ensureCurrencies(Set.of("USD", "EUR"));
+
+        verify(currencyRepository).findAll(any(Sort.class));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void ensureCurrencies_ShouldInsertMissingInOneBatchAndReload() {
+        Currency gbpCurrency = Currency.builder().code("GBP").name("GBP").build();
+        Currency chfCurrency = Currency.builder().code("CHF").name("CHF").build();
+        when(currencyRepository.findAll(any(Sort.class))).thenReturn(List.of(usdCurrency), List.of(usdCurrency, gbpCurrency, chfCurrency));
+
+        CurrencyCatalog catalog = currencyRegistry.ensureCurrencies(List.of("USD", "GBP", "CHF", "GBP"));
+
+        assertThat(catalog.codes()).containsExactlyInAnyOrder("USD", "GBP", "CHF");
+        verify(jdbcTemplate).batchUpdate(startsWith("MERGE INTO currency"), eq(List.of("CHF", "GBP")), eq(2),
+                                         any(ParameterizedPreparedStatementSetter.class));
+        verify(currencyRepository, times(2)).findAll(any(Sort.class));
+    }
+
+    private CurrencyCatalog runOnOtherThread() {
+        CurrencyCatalog[] seen = new CurrencyCatalog[1];
+        Thread thread = new Thread(() -> seen[0] = currencyRegistry.getCatalog());
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return seen[0];
+    }
+
+    private static void completeTransaction(List<TransactionSynchronization> synchronizations, int status) {
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
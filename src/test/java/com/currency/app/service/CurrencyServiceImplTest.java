@@ -10,8 +10,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -24,6 +26,9 @@ class CurrencyServiceImplTest {
     @Mock
     private CurrencyRepository currencyRepository;
 
+    @Mock
+    private CurrencyRegistry currencyRegistry;
+
     @InjectMocks
     private CurrencyServiceImpl currencyService;
 
@@ -39,13 +44,25 @@ class CurrencyServiceImplTest {
     }
 
     @Test
-    void getAllCurrencies_ShouldReturnAllCurrencies() {
-        when(currencyRepository.findAll()).thenReturn(List.of(usdCurrency, eurCurrency));
+    void getAllCurrencies_ShouldServeRegistryCatalog() {
+        when(currencyRegistry.getCatalog()).thenReturn(CurrencyCatalog.of(1, Instant.EPOCH, List.of(usdCurrency, eurCurrency)));
 
         List<Currency> result = currencyService.getAllCurrencies();
 
         assertThat(result).hasSize(2).containsExactly(usdCurrency, eurCurrency);
-        verify(currencyRepository).findAll();
+        verifyNoInteractions(currencyRepository);
+    }
+
+    @Test
+    void addCurrency_ShouldReloadRegistry() {
+        Currency currency = Currency.builder().code("GBP").name("British Pound").build();
+        when(currencyRepository.existsByCode("GBP")).thenReturn(false);
+        when(currencyRepository.save(currency)).thenReturn(currency);
+
+        Currency result = currencyService.addCurrency(currency);
+
+        assertThat(result).isEqualTo(currency);
+        verify(currencyRegistry).reload();
     }
 
     @Test
@@ -59,29 +76,37 @@ class CurrencyServiceImplTest {
         assertThat(exception.getMessage()).isEqualTo("Currency already exists: GBP");
         verify(currencyRepository).existsByCode("GBP");
         verify(currencyRepository, never()).save(any());
+        verify(currencyRegistry, never()).reload();
     }
 
     @Test
-    void getOrCreateCurrency_WhenExists_ShouldReturnExisting() {
-        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(usdCurrency));
+    void getOrCreateCurrency_ShouldEnsureCodeAndReturnReference() {
+        when(currencyRepository.getReferenceById("USD")).thenReturn(usdCurrency);
 
         Currency result = currencyService.getOrCreateCurrency("USD");
 
         assertThat(result).isEqualTo(usdCurrency);
-        verify(currencyRepository).findByCode("USD");
+        verify(currencyRegistry).ensureCurrencies(Set.of("USD"));
+        verify(currencyRepository, never()).findByCode(any());
         verify(currencyRepository, never()).save(any());
     }
 
     @Test
-    void getOrCreateCurrency_WhenNotExists_ShouldCreateNew() {
-        Currency newCurrency = Currency.builder().code("GBP").name("GBP").build();
-        when(currencyRepository.findByCode("GBP")).thenReturn(Optional.empty());
-        when(currencyRepository.save(any(Currency.class))).thenReturn(newCurrency);
-
-        Currency result = currencyService.getOrCreateCurrency("GBP");
-
-        assertThat(result).isEqualTo(newCurrency);
-        verify(currencyRepository).findByCode("GBP");
-        verify(currencyRepository).save(any());
+    void getOrCreateCurrencies_ShouldEnsureCodesOnceAndReturnReferences() {
+        Currency gbpCurrency = Currency.builder().code("GBP").name("GBP").build();
+        Set<String> codes = Set.of("USD", "EUR", "GBP");
+        when(currencyRepository.getReferenceById("USD")).thenReturn(usdCurrency);
+        when(currencyRepository.getReferenceById("EUR")).thenReturn(eurCurrency);
+        when(currencyRepository.getReferenceById("GBP")).thenReturn(gbpCurrency);
+
+        Map<String, Currency> result = currencyService.getOrCreateCurrencies(codes);
+
+        assertThat(result).hasSize(3)
+                          .containsEntry("USD", usdCurrency)
+                          .containsEntry("EUR", eurCurrency)
+                          .containsEntry("GBP", gbpCurrency);
+        verify(currencyRegistry).ensureCurrencies(codes);
+        verify(currencyRepository, never()).findAllById(any());
+        verify(currencyRepository, never()).saveAll(any());
     }
 }
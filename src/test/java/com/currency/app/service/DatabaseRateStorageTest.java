@@ -8,14 +8,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -36,6 +40,9 @@ class DatabaseRateStorageTest {
     @Captor
     private ArgumentCaptor<ExchangeRate> exchangeRateCaptor;
 
+    @Captor
+    private ArgumentCaptor<List<ExchangeRate>> exchangeRatesCaptor;
+
     private Currency usdCurrency;
 
     private Currency eurCurrency;
@@ -172,4 +179,74 @@ class DatabaseRateStorageTest {
                 .isNotNull()
                 .isAfterOrEqualTo(beforeUpdate);
     }
+
+    @Test
+    void updateRates_ShouldResolveCurrenciesOnceAndSaveAllRates() {
+        Currency gbpCurrency = Currency.builder()
+                                       .code("GBP")
+                                       .name("British Pound")
+                                       .build();
+        Map<String, Map<String, BigDecimal>> rates = Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.85"), "GBP", new BigDecimal("0.73")),
+                "EUR", Map.of("USD", new BigDecimal("1.17"), "GBP", new BigDecimal("0.86"))
+        );
+
+        when(currencyService.getOrCreateCurrencies(Set.of("USD", "EUR", "GBP")))
+                .thenReturn(Map.of("USD", usdCurrency, "EUR", eurCurrency, "GBP", gbpCurrency));
+
+        databaseRateStorage.updateRates(rates);
+
+        verify(currencyService).getOrCreateCurrencies(Set.of("USD", "EUR", "GBP"));
+        verify(currencyService, never()).getOrCreateCurrency(any());
+        verify(exchangeRateRepository, never()).save(any());
+        verify(exchangeRateRepository).saveAll(exchangeRatesCaptor.capture());
+
+        List<ExchangeRate> savedRates = exchangeRatesCaptor.getValue();
+        assertThat(savedRates).hasSize(4)
+                              .allSatisfy(savedRate -> assertThat(savedRate.getLastUpdated()).isEqualTo(savedRates.get(0)
+                                                                                                                  .getLastUpdated()));
+        assertThat(savedRates).anySatisfy(savedRate -> {
+            assertThat(savedRate.getBaseCurrency()).isEqualTo(eurCurrency);
+            assertThat(savedRate.getTargetCurrency()).isEqualTo(gbpCurrency);
+            assertThat(savedRate.getRate()).isEqualTo(new BigDecimal("0.86"));
+        });
+    }
+
+    @Test
+    void confirmRates_ShouldExtendValidityPerBaseCurrency() {
+        LocalDateTime beforeConfirm = LocalDateTime.now();
+
+        databaseRateStorage.confirmRates(Map.of("USD", Set.of("EUR", "GBP")));
+
+        ArgumentCaptor<LocalDateTime> validUntilCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(exchangeRateRepository).extendValidity(eq("USD"), eq(Set.of("EUR", "GBP")), validUntilCaptor.capture());
+        assertThat(validUntilCaptor.getValue()).isAfterOrEqualTo(beforeConfirm);
+        verify(exchangeRateRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void write_ShouldStoreEveryWriteWithItsOwnTimeInOrder() {
+        Instant first = Instant.parse("2024-03-01T12:00:00Z");
+        Instant second = first.plusSeconds(3600);
+        when(currencyService.getOrCreateCurrencies(Set.of("USD", "EUR")))
+                .thenReturn(Map.of("USD", usdCurrency, "EUR", eurCurrency));
+
+        databaseRateStorage.write(List.of(
+                new RateWrite.Update(first, Map.of("USD", Map.of("EUR", new BigDecimal("0.85")))),
+                new RateWrite.Confirm(second, Map.of("USD", Set.of("EUR"))),
+                new RateWrite.Update(second, Map.of("EUR", Map.of("USD", new BigDecimal("1.17"))))
+        ));
+
+        InOrder inOrder = inOrder(exchangeRateRepository);
+        inOrder.verify(exchangeRateRepository).saveAll(exchangeRatesCaptor.capture());
+        inOrder.verify(exchangeRateRepository).extendValidity("USD", Set.of("EUR"), LocalDateTime.ofInstant(second, ZoneId.systemDefault()));
+        inOrder.verify(exchangeRateRepository).saveAll(exchangeRatesCaptor.capture());
+        verify(currencyService).getOrCreateCurrencies(Set.of("USD", "EUR"));
+
+        List<List<ExchangeRate>> batches = exchangeRatesCaptor.getAllValues();
+        assertThat(batches.get(0)).singleElement()
+                                  .satisfies(saved -> assertThat(saved.getLastUpdated()).isEqualTo(LocalDateTime.ofInstant(first, ZoneId.systemDefault())));
+        assertThat(batches.get(1)).singleElement()
+                                  .satisfies(saved -> assertThat(saved.getLastUpdated()).isEqualTo(LocalDateTime.ofInstant(second, ZoneId.systemDefault())));
+    }
 }
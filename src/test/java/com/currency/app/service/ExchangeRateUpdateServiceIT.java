@@ -3,6 +3,7 @@ package com.currency.app.service;
 import com.currency.app.AbstractBaseIT;
 import com.currency.app.client.dto.ExternalRateDto;
 import com.currency.app.entity.Currency;
+import com.currency.app.exception.ExchangeRateProviderException;
 import com.currency.app.repository.CurrencyRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,8 +13,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @Transactional
@@ -38,18 +42,33 @@ class ExchangeRateUpdateServiceIT extends AbstractBaseIT {
     void updateRates_ShouldUpdateAllRates() {
         List<ExternalRateDto> mockRates = createMockExternalRates();
         when(exchangeRateClient.getCurrentExchangeRates()).thenReturn(mockRates);
+        doCallRealMethod().when(exchangeRateClient).fetchExchangeRates(any());
 
         updateService.updateRates();
 
         verify(exchangeRateClient).getCurrentExchangeRates();
 
         Map<String, BigDecimal> usdRates = rateStorageService.getAllRatesForCurrency("USD");
-        assertThat(usdRates).containsEntry("USDEUR", new BigDecimal("0.85"))
-                            .containsEntry("USDGBP", new BigDecimal("0.73"));
+        assertThat(usdRates).containsEntry("USDEUR", new BigDecimal("0.850000"))
+                            .containsEntry("USDGBP", new BigDecimal("0.730000"));
 
         Map<String, BigDecimal> eurRates = rateStorageService.getAllRatesForCurrency("EUR");
-        assertThat(eurRates).containsEntry("EURUSD", new BigDecimal("1.17"))
-                            .containsEntry("EURGBP", new BigDecimal("0.86"));
+        assertThat(eurRates).containsEntry("EURUSD", new BigDecimal("1.170000"))
+                            .containsEntry("EURGBP", new BigDecimal("0.860000"));
+    }
+
+    @Test
+    void updateRates_WhenProviderFailsPartWay_ShouldPublishDeliveredBasesAndRethrow() {
+        ExchangeRateProviderException failure = new ExchangeRateProviderException("Provider went away");
+        doAnswer(invocation -> {
+            Consumer<ExternalRateDto> sink = invocation.getArgument(0);
+            sink.accept(createMockExternalRates().get(0));
+            throw failure;
+        }).when(exchangeRateClient).fetchExchangeRates(any());
+
+        assertThatThrownBy(() -> updateService.updateRates()).isSameAs(failure);
+
+        assertThat(rateStorageService.getPublishedSnapshot().getRates("USD")).containsEntry("USDEUR", new BigDecimal("0.850000"));
     }
 
     private void createCurrencies() {
@@ -1,11 +1,13 @@
 package com.currency.app.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -13,6 +15,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class InMemoryRateStorageTest {
 
@@ -32,8 +35,8 @@ class InMemoryRateStorageTest {
         Map<String, BigDecimal> rates = rateStorage.getAllRatesForCurrency(baseCurrency);
 
         assertThat(rates).hasSize(2)
-                         .containsEntry("EUR", new BigDecimal("0.85"))
-                         .containsEntry("GBP", new BigDecimal("0.73"));
+                         .containsEntry("EUR", new BigDecimal("0.850000"))
+                         .containsEntry("GBP", new BigDecimal("0.730000"));
     }
 
     @Test
@@ -44,15 +47,42 @@ class InMemoryRateStorageTest {
     }
 
     @Test
-    void getAllRatesForCurrency_ShouldReturnCopyOfRates() {
+    void getAllRatesForCurrency_ShouldReturnImmutableRates() {
         String baseCurrency = "USD";
         rateStorage.updateRate(baseCurrency, "EUR", new BigDecimal("0.85"));
 
         Map<String, BigDecimal> rates = rateStorage.getAllRatesForCurrency(baseCurrency);
-        rates.put("GBP", new BigDecimal("0.73")); // Try to modify the returned map
 
-        Map<String, BigDecimal> newRates = rateStorage.getAllRatesForCurrency(baseCurrency);
-        assertThat(newRates).hasSize(1).containsEntry("EUR", new BigDecimal("0.85")).doesNotContainKey("GBP");
+        assertThatThrownBy(() -> rates.put("GBP", new BigDecimal("0.73"))).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(rateStorage.getAllRatesForCurrency(baseCurrency)).hasSize(1)
+                                                                   .containsEntry("EUR", new BigDecimal("0.850000"))
+                                                                   .doesNotContainKey("GBP");
+    }
+
+    @Test
+    void updateRates_ShouldPublishWholeSnapshotAtOnce() {
+        rateStorage.updateRate("USD", "EUR", new BigDecimal("0.85"));
+        RateSnapshot previous = rateStorage.getSnapshot();
+        Map<String, BigDecimal> previousUsdRates = rateStorage.getAllRatesForCurrency("USD");
+
+        rateStorage.updateRates(Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.86"), "GBP", new BigDecimal("0.74")),
+                "EUR", Map.of("USD", new BigDecimal("1.16"))
+        ));
+
+        RateSnapshot current = rateStorage.getSnapshot();
+        assertThat(current.version()).isEqualTo(previous.version() + 1);
+        assertThat(current.publishedAt()).isAfterOrEqualTo(previous.publishedAt());
+        assertThat(current.getRates("USD")).hasSize(2).containsEntry("EUR", new BigDecimal("0.860000"));
+        assertThat(current.getRates("EUR")).containsEntry("USD", new BigDecimal("1.160000"));
+        assertThat(previousUsdRates).hasSize(1).containsEntry("EUR", new BigDecimal("0.850000"));
+    }
+
+    @Test
+    void getAllRatesForCurrency_ShouldReturnSameInstanceBetweenUpdates() {
+        rateStorage.updateRate("USD", "EUR", new BigDecimal("0.85"));
+
+        assertThat(rateStorage.getAllRatesForCurrency("USD")).isSameAs(rateStorage.getAllRatesForCurrency("USD"));
     }
 
     @Test
@@ -84,4 +114,39 @@ class InMemoryRateStorageTest {
             assertThat(rates).containsKey(currency);
         }
     }
+
+    @Test
+    void updateRates_ShouldRecordRecentHistory() {
+        rateStorage.updateRate("USD", "EUR", new BigDecimal("0.85"));
+        Instant afterFirstUpdate = Instant.now();
+        rateStorage.updateRate("USD", "EUR", new BigDecimal("0.86"));
+
+        RecentRateHistory history = rateStorage.getRecentHistory();
+
+        assertThat(history.getRatesAt("USD", afterFirstUpdate.minusSeconds(60))).isEmpty();
+        assertThat(history.getRatesAt("USD", Instant.now())).hasValue(Map.of("EUR", new BigDecimal("0.860000")));
+        assertThat(history.getStats("USD").get("EUR").rate()).isEqualByComparingTo("0.86");
+    }
+
+    @Test
+    void bindTo_ShouldReportHistoryFootprint() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        rateStorage.bindTo(registry);
+        rateStorage.updateRates(Map.of("USD", Map.of("EUR", new BigDecimal("0.85"), "GBP", new BigDecimal("0.73"))));
+
+        assertThat(registry.get("currency.rates.history.pairs").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("currency.rates.history.points").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("currency.rates.history.memory").gauge().value())
+                .isEqualTo((double) rateStorage.getRecentHistory().getFootprintBytes())
+                .isPositive();
+    }
+
+    @Test
+    void loadIfAbsent_ShouldNotReplaceRatesAlreadyInMemory() {
+        rateStorage.loadIfAbsent("USD", Map.of("EUR", new BigDecimal("0.85")));
+        rateStorage.loadIfAbsent("USD", Map.of("EUR", new BigDecimal("0.80")));
+
+        assertThat(rateStorage.getAllRatesForCurrency("USD")).isEqualTo(Map.of("EUR", new BigDecimal("0.850000")));
+        assertThat(rateStorage.getSnapshot().version()).isEqualTo(1);
+    }
 }
@@ -0,0 +1,110 @@
+package com.currency.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateHistoryBufferTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    private final RateHistoryBuffer buffer = new RateHistoryBuffer(48, Duration.ofHours(1));
+
+    @Test
+    void rateAt_ShouldReturnRateInEffectAtTime() {
+        buffer.append(10 * HOUR, scaled("0.80"));
+        buffer.append(12 * HOUR, scaled("0.85"));
+        buffer.append(15 * HOUR, scaled("0.90"));
+
+        assertThat(buffer.rateAt(9 * HOUR)).isEqualTo(RateMatrix.ABSENT);
+        assertThat(buffer.rateAt(10 * HOUR)).isEqualTo(scaled("0.80"));
+        assertThat(buffer.rateAt(14 * HOUR)).isEqualTo(scaled("0.85"));
+        assertThat(buffer.rateAt(100 * HOUR)).isEqualTo(scaled("0.90"));
+        assertThat(buffer.covers(9 * HOUR)).isFalse();
+        assertThat(buffer.covers(10 * HOUR)).isTrue();
+    }
+
+    @Test
+    void append_WithinSameSlot_ShouldReplaceLatestPoint() {
+        buffer.append(10 * HOUR, scaled("0.80"));
+        buffer.append(10 * HOUR + 60_000, scaled("0.81"));
+        buffer.append(10 * HOUR + 120_000, scaled("0.81"));
+
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(buffer.rateAt(11 * HOUR)).isEqualTo(scaled("0.81"));
+    }
+
+    @Test
+    void append_WhenFull_ShouldEvictOldestPoints() {
+        RateHistoryBuffer small = new RateHistoryBuffer(3, Duration.ofHours(1));
+        for (int hour = 1; hour <= 5; hour++) {
+            small.append(hour * HOUR, scaled("0.8" + hour));
+        }
+
+        assertThat(small.size()).isEqualTo(3);
+        assertThat(small.covers(2 * HOUR)).isFalse();
+        assertThat(small.rateAt(3 * HOUR)).isEqualTo(scaled("0.83"));
+        assertThat(small.rateAt(5 * HOUR)).isEqualTo(scaled("0.85"));
+    }
+
+    @Test
+    void stats_ShouldCoverLast24Hours() {
+        buffer.append(0, scaled("0.70"));
+        buffer.append(10 * HOUR, scaled("0.80"));
+        buffer.append(20 * HOUR, scaled("0.95"));
+        buffer.append(30 * HOUR, scaled("0.85"));
+
+        RateStats stats = buffer.stats(30 * HOUR);
+
+        assertThat(stats.rate()).isEqualByComparingTo("0.85");
+        assertThat(stats.change()).isEqualByComparingTo("0.15");
+        assertThat(stats.low()).isEqualByComparingTo("0.70");
+        assertThat(stats.high()).isEqualByComparingTo("0.95");
+    }
+
+    @Test
+    void stats_WhenLessThan24HoursKnown_ShouldHaveNoChange() {
+        buffer.append(0, scaled("0.80"));
+        buffer.append(5 * HOUR, scaled("0.75"));
+
+        RateStats stats = buffer.stats(5 * HOUR);
+
+        assertThat(stats.change()).isNull();
+        assertThat(stats.low()).isEqualByComparingTo("0.75");
+        assertThat(stats.high()).isEqualByComparingTo("0.80");
+    }
+
+    @Test
+    void stats_ShouldUseWindowEndingAtReadTime() {
+        buffer.append(0, scaled("0.80"));
+        buffer.append(5 * HOUR, scaled("0.75"));
+
+        RateStats stats = buffer.stats(40 * HOUR);
+
+        assertThat(stats.change()).isEqualByComparingTo("0");
+        assertThat(stats.low()).isEqualByComparingTo("0.75");
+        assertThat(stats.high()).isEqualByComparingTo("0.75");
+    }
+
+    @Test
+    void append_ShouldGrowArraysOnlyUpToCapacity() {
+        RateHistoryBuffer growing = new RateHistoryBuffer(10, Duration.ofHours(1));
+        long initialFootprint = growing.footprintBytes();
+        for (int hour = 1; hour <= 12; hour++) {
+            growing.append(hour * HOUR, scaled("0." + (10 + hour)));
+        }
+
+        assertThat(growing.footprintBytes()).isGreaterThan(initialFootprint);
+        assertThat(growing.size()).isEqualTo(10);
+        assertThat(growing.covers(2 * HOUR)).isFalse();
+        assertThat(growing.rateAt(3 * HOUR)).isEqualTo(scaled("0.13"));
+        assertThat(growing.rateAt(12 * HOUR)).isEqualTo(scaled("0.22"));
+    }
+
+    private static long scaled(String rate) {
+        return RateMatrix.toScaled(new BigDecimal(rate));
+    }
+}
@@ -0,0 +1,153 @@
+package com.currency.app.service;
+
+import com.currency.app.AbstractBaseIT;
+import com.currency.app.entity.Currency;
+import com.currency.app.entity.ExchangeRate;
+import com.currency.app.repository.CurrencyRepository;
+import com.currency.app.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+class RateHistoryMaintenanceServiceIT extends AbstractBaseIT {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Autowired
+    private RateHistoryMaintenanceService maintenanceService;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Currency usd;
+
+    private Currency eur;
+
+    private Currency gbp;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateRepository.deleteAll();
+        currencyRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM exchange_rates_hourly");
+        jdbcTemplate.update("DELETE FROM exchange_rates_daily");
+        usd = currencyRepository.save(Currency.builder().code("USD").name("US Dollar").build());
+        eur = currencyRepository.save(Currency.builder().code("EUR").name("Euro").build());
+        gbp = currencyRepository.save(Currency.builder().code("GBP").name("British Pound").build());
+    }
+
+    @Test
+    void rollUp_ShouldBuildHourlyAndDailyOhlc() {
+        exchangeRateRepository.saveAllAndFlush(List.of(
+                rate(usd, eur, "0.80", DAY.withHour(10).withMinute(5)),
+                rate(usd, eur, "0.90", DAY.withHour(10).withMinute(20)),
+                rate(usd, eur, "0.85", DAY.withHour(10).withMinute(50)),
+                rate(usd, eur, "0.86", DAY.withHour(11).withMinute(10)),
+                rate(usd, gbp, "0.73", DAY.withHour(10).withMinute(30))
+        ));
+
+        maintenanceService.rollUp(DAY.plusDays(1).withHour(1));
+
+        List<Map<String, Object>> hourly = jdbcTemplate.queryForList(
+                "SELECT * FROM exchange_rates_hourly WHERE target_currency_code = 'EUR' ORDER BY bucket_start");
+        assertThat(hourly).hasSize(2);
+        assertOhlc(hourly.get(0), "0.80", "0.90", "0.80", "0.85", 3);
+        assertOhlc(hourly.get(1), "0.86", "0.86", "0.86", "0.86", 1);
+
+        List<Map<String, Object>> daily = jdbcTemplate.queryForList(
+                "SELECT * FROM exchange_rates_daily WHERE target_currency_code = 'EUR'");
+        assertThat(daily).hasSize(1);
+        assertOhlc(daily.get(0), "0.80", "0.90", "0.80", "0.86", 4);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM exchange_rates_hourly", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    void rollUp_WhenRunAgain_ShouldRecomputeLatestBucket() {
+        exchangeRateRepository.saveAndFlush(rate(usd, eur, "0.80", DAY.withHour(10).withMinute(5)));
+        maintenanceService.rollUp(DAY.withHour(11));
+
+        exchangeRateRepository.saveAndFlush(rate(usd, eur, "0.95", DAY.withHour(10).withMinute(55)));
+        maintenanceService.rollUp(DAY.withHour(12));
+
+        List<Map<String, Object>> hourly = jdbcTemplate.queryForList("SELECT * FROM exchange_rates_hourly");
+        assertThat(hourly).hasSize(1);
+        assertOhlc(hourly.get(0), "0.80", "0.95", "0.80", "0.95", 2);
+    }
+
+    @Test
+    void rollUp_WhenRateStaysValid_ShouldFillHoursWithoutSamples() {
+        ExchangeRate confirmed = rate(usd, eur, "0.80", DAY.withHour(10).withMinute(5));
+        confirmed.setValidUntil(DAY.withHour(13).withMinute(20));
+        exchangeRateRepository.saveAllAndFlush(List.of(
+                confirmed,
+                rate(usd, eur, "0.82", DAY.withHour(13).withMinute(40))
+        ));
+
+        maintenanceService.rollUp(DAY.plusDays(1).withHour(1));
+
+        List<Map<String, Object>> hourly = jdbcTemplate.queryForList(
+                "SELECT * FROM exchange_rates_hourly ORDER BY bucket_start");
+        assertThat(hourly).extracting(bucket -> ((Timestamp) bucket.get("BUCKET_START")).toLocalDateTime().getHour())
+                          .containsExactly(10, 11, 12, 13);
+        assertOhlc(hourly.get(0), "0.80", "0.80", "0.80", "0.80", 1);
+        assertOhlc(hourly.get(1), "0.80", "0.80", "0.80", "0.80", 0);
+        assertOhlc(hourly.get(2), "0.80", "0.80", "0.80", "0.80", 0);
+        assertOhlc(hourly.get(3), "0.80", "0.82", "0.80", "0.82", 1);
+
+        List<Map<String, Object>> daily = jdbcTemplate.queryForList("SELECT * FROM exchange_rates_daily");
+        assertThat(daily).hasSize(1);
+        assertOhlc(daily.get(0), "0.80", "0.82", "0.80", "0.82", 2);
+    }
+
+    @Test
+    void applyRetention_ShouldDeleteExpiredRatesButKeepLatestRatePerPair() {
+        LocalDateTime now = LocalDateTime.now();
+        ExchangeRate expired = rate(usd, eur, "0.80", now.minusDays(100));
+        ExchangeRate current = rate(usd, eur, "0.85", now.minusDays(1));
+        ExchangeRate expiredButLatest = rate(usd, gbp, "0.73", now.minusDays(100));
+        exchangeRateRepository.saveAllAndFlush(List.of(expired, current, expiredButLatest));
+        jdbcTemplate.update("INSERT INTO exchange_rates_hourly (base_currency_code, target_currency_code, bucket_start, samples) VALUES ('USD', 'EUR', ?, 1)",
+                now.minusDays(500));
+
+        maintenanceService.applyRetention(now);
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM exchange_rates", Long.class))
+                .containsExactlyInAnyOrder(current.getId(), expiredButLatest.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM exchange_rates_hourly", Integer.class)).isZero();
+    }
+
+    private void assertOhlc(Map<String, Object> bucket, String open, String high, String low, String close, int samples) {
+        assertThat((BigDecimal) bucket.get("OPEN_RATE")).isEqualByComparingTo(open);
+        assertThat((BigDecimal) bucket.get("HIGH_RATE")).isEqualByComparingTo(high);
+        assertThat((BigDecimal) bucket.get("LOW_RATE")).isEqualByComparingTo(low);
+        assertThat((BigDecimal) bucket.get("CLOSE_RATE")).isEqualByComparingTo(close);
+        assertThat(bucket.get("SAMPLES")).isEqualTo(samples);
+    }
+
+    private ExchangeRate rate(Currency base, Currency target, String rate, LocalDateTime lastUpdated) {
+        return ExchangeRate.builder()
+                           .baseCurrency(base)
+                           .targetCurrency(target)
+                           .rate(new BigDecimal(rate))
+                           .lastUpdated(lastUpdated)
+                           .validUntil(lastUpdated)
+                           .build();
+    }
+}
@@ -0,0 +1,104 @@
+package com.currency.app.service;
+
+import com.currency.app.AbstractBaseIT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the partition maintenance against a real PostgreSQL, where {@code exchange_rates} is partitioned by month.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"
+})
+class RateHistoryMaintenanceServicePostgresIT extends AbstractBaseIT {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private RateHistoryMaintenanceService maintenanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM exchange_rates");
+        jdbcTemplate.update("DELETE FROM currency");
+        jdbcTemplate.update("INSERT INTO currency (code, name) VALUES ('USD', 'US Dollar'), ('EUR', 'Euro')");
+    }
+
+    @Test
+    void createPartitions_WhenDefaultPartitionHoldsRatesOfTheMonth_ShouldMoveThemIntoTheNewPartition() {
+        LocalDateTime future = LocalDateTime.now().plusMonths(6).truncatedTo(ChronoUnit.SECONDS);
+        insertRate("0.85", future, future);
+        assertThat(countIn("exchange_rates_default")).isEqualTo(1);
+
+        maintenanceService.createPartitions(future);
+
+        assertThat(countIn(partitionName(YearMonth.from(future)))).isEqualTo(1);
+        assertThat(countIn("exchange_rates_default")).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_inherits " +
+                "JOIN pg_class child ON child.oid = pg_inherits.inhrelid WHERE child.relname = 'exchange_rates_default'", Integer.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void applyRetention_WhenLatestRateIsInExpiredPartition_ShouldCarryItForwardWithValidityClamped() {
+        LocalDateTime now = LocalDateTime.now();
+        YearMonth expiredMonth = YearMonth.from(now.minusMonths(8));
+        LocalDateTime lastUpdated = expiredMonth.atDay(10).atTime(12, 0);
+        maintenanceService.createPartitions(lastUpdated);
+        insertRate("0.85", lastUpdated, lastUpdated.plusHours(1));
+
+        maintenanceService.applyRetention(now);
+
+        List<Map<String, Object>> rates = jdbcTemplate.queryForList("SELECT rate, last_updated, valid_until FROM exchange_rates");
+        assertThat(rates).hasSize(1);
+        LocalDateTime carriedTo = ((Timestamp) rates.get(0).get("last_updated")).toLocalDateTime();
+        assertThat(carriedTo).isAfter(lastUpdated).isEqualTo(carriedTo.toLocalDate().withDayOfMonth(1).atStartOfDay());
+        assertThat(((Timestamp) rates.get(0).get("valid_until")).toLocalDateTime()).isEqualTo(carriedTo);
+        assertThat((BigDecimal) rates.get(0).get("rate")).isEqualByComparingTo("0.85");
+        assertThat(countIn(partitionName(expiredMonth))).isNull();
+    }
+
+    private void insertRate(String rate, LocalDateTime lastUpdated, LocalDateTime validUntil) {
+        jdbcTemplate.update("INSERT INTO exchange_rates (id, base_currency_code, target_currency_code, rate, last_updated, valid_until) " +
+                "VALUES (nextval('exchange_rates_seq'), 'USD', 'EUR', ?, ?, ?)",
+                new BigDecimal(rate), Timestamp.valueOf(lastUpdated), Timestamp.valueOf(validUntil));
+    }
+
+    /**
+     * Counts the rows of a partition, or returns {@code null} if it does not exist.
+     */
+    private Integer countIn(String partition) {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_class WHERE relname = ?)", Boolean.class, partition))) {
+            return null;
+        }
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition, Integer.class);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("exchange_rates_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+}
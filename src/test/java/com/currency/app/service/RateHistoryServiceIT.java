@@ -0,0 +1,138 @@
+package com.currency.app.service;
+
+import com.currency.app.AbstractBaseIT;
+import com.currency.app.entity.Currency;
+import com.currency.app.entity.ExchangeRate;
+import com.currency.app.repository.CurrencyRepository;
+import com.currency.app.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+class RateHistoryServiceIT extends AbstractBaseIT {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Autowired
+    private RateHistoryService rateHistoryService;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Currency usd;
+
+    private Currency eur;
+
+    private Currency gbp;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateRepository.deleteAll();
+        currencyRepository.deleteAll();
+        usd = currencyRepository.save(Currency.builder().code("USD").name("US Dollar").build());
+        eur = currencyRepository.save(Currency.builder().code("EUR").name("Euro").build());
+        gbp = currencyRepository.save(Currency.builder().code("GBP").name("British Pound").build());
+        exchangeRateRepository.saveAllAndFlush(List.of(
+                rate(usd, eur, "0.80", DAY.withHour(1).withMinute(30)),
+                rate(usd, eur, "0.85", DAY.withHour(3)),
+                rate(usd, eur, "0.90", DAY.withHour(3).withMinute(30)),
+                rate(usd, gbp, "0.73", DAY.withHour(2)),
+                rate(usd, gbp, "0.75", DAY.withHour(5))
+        ));
+    }
+
+    @Test
+    void getRatesAt_ShouldReturnRatesInEffectAtTime() {
+        assertThat(rateHistoryService.getRatesAt("USD", DAY.withHour(3)))
+                .containsOnlyKeys("EUR", "GBP")
+                .hasEntrySatisfying("EUR", rate -> assertThat(rate).isEqualByComparingTo("0.85"))
+                .hasEntrySatisfying("GBP", rate -> assertThat(rate).isEqualByComparingTo("0.73"));
+        assertThat(rateHistoryService.getRatesAt("USD", DAY.withHour(1))).isEmpty();
+    }
+
+    @Test
+    void sampleHistory_ShouldCarryLastRateForwardAndSkipPointsBeforeFirstRate() {
+        List<RatePoint> points = new ArrayList<>();
+
+        rateHistoryService.sampleHistory("USD", "EUR", DAY, DAY.withHour(5), Duration.ofHours(1), points::add);
+
+        assertThat(points).extracting(RatePoint::time)
+                          .containsExactly(DAY.withHour(2), DAY.withHour(3), DAY.withHour(4), DAY.withHour(5));
+        assertThat(points).extracting(point -> point.rate().toPlainString())
+                          .containsExactly("0.800000", "0.850000", "0.900000", "0.900000");
+    }
+
+    @Test
+    void sampleHistory_WhenRangeStartsAfterLastChange_ShouldUseRateInEffect() {
+        List<RatePoint> points = new ArrayList<>();
+
+        rateHistoryService.sampleHistory("USD", "GBP", DAY.withHour(6), DAY.withHour(7), Duration.ofMinutes(30), points::add);
+
+        assertThat(points).hasSize(3)
+                          .allSatisfy(point -> assertThat(point.rate()).isEqualByComparingTo("0.75"));
+    }
+
+    @Test
+    void sampleHistory_WhenHistorySpansSeveralPages_ShouldReadEveryChange() {
+        LocalDateTime start = DAY.plusDays(1);
+        List<ExchangeRate> changes = new ArrayList<>();
+        for (int minute = 0; minute < 2500; minute++) {
+            changes.add(rate(usd, eur, String.valueOf(minute + 1), start.plusMinutes(minute)));
+        }
+        exchangeRateRepository.saveAllAndFlush(changes);
+        List<RatePoint> points = new ArrayList<>();
+
+        rateHistoryService.sampleHistory("USD", "EUR", start, start.plusMinutes(2499), Duration.ofMinutes(1), points::add);
+
+        assertThat(points).hasSize(2500);
+        assertThat(points).extracting(point -> point.rate().intValue())
+                          .containsExactlyElementsOf(IntStream.rangeClosed(1, 2500).boxed().toList());
+    }
+
+    @Test
+    void sampleHistory_WhenIdsAreNotInTimeOrder_ShouldReadEveryChangeOnce() {
+        LocalDateTime start = DAY.plusDays(1);
+        List<Object[]> changes = new ArrayList<>();
+        for (int minute = 0; minute < 2500; minute++) {
+            Timestamp changedAt = Timestamp.valueOf(start.plusMinutes(minute));
+            changes.add(new Object[]{1_000_000L - minute, new BigDecimal(minute + 1), changedAt, changedAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO exchange_rates (id, base_currency_code, target_currency_code, rate, last_updated, valid_until) " +
+                "VALUES (?, 'USD', 'EUR', ?, ?, ?)", changes);
+        List<RatePoint> points = new ArrayList<>();
+
+        rateHistoryService.sampleHistory("USD", "EUR", start, start.plusMinutes(2499), Duration.ofMinutes(1), points::add);
+
+        assertThat(points).extracting(point -> point.rate().intValue())
+                          .containsExactlyElementsOf(IntStream.rangeClosed(1, 2500).boxed().toList());
+    }
+
+    private ExchangeRate rate(Currency base, Currency target, String rate, LocalDateTime lastUpdated) {
+        return ExchangeRate.builder()
+                           .baseCurrency(base)
+                           .targetCurrency(target)
+                           .rate(new BigDecimal(rate))
+                           .lastUpdated(lastUpdated)
+                           .validUntil(lastUpdated)
+                           .build();
+    }
+}
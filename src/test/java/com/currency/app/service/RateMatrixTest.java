@@ -0,0 +1,100 @@
+package com.currency.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateMatrixTest {
+
+    @Test
+    void merge_ShouldEncodeRatesAsScaledLongs() {
+        RateMatrix matrix = RateMatrix.EMPTY.merge(Map.of("USD", Map.of("EUR", new BigDecimal("0.8512345678"))), 1);
+
+        int usd = matrix.indexOf("USD");
+        int eur = matrix.indexOf("EUR");
+
+        assertThat(matrix.size()).isEqualTo(2);
+        assertThat(matrix.getScaled(usd, eur)).isEqualTo(851235L);
+        assertThat(matrix.getScaled(eur, usd)).isEqualTo(RateMatrix.ABSENT);
+    }
+
+    @Test
+    void merge_ShouldKeepIndicesAndExistingRatesStable() {
+        RateMatrix first = RateMatrix.EMPTY.merge(Map.of("USD", Map.of("EUR", new BigDecimal("0.85"))), 1);
+
+        RateMatrix second = first.merge(Map.of("GBP", Map.of("USD", new BigDecimal("1.37"))), 2);
+
+        assertThat(second.indexOf("USD")).isEqualTo(first.indexOf("USD"));
+        assertThat(second.indexOf("EUR")).isEqualTo(first.indexOf("EUR"));
+        assertThat(second.row("USD")).containsExactly(Map.entry("EUR", new BigDecimal("0.850000")));
+        assertThat(second.row("GBP")).containsExactly(Map.entry("USD", new BigDecimal("1.370000")));
+        assertThat(first.row("GBP")).isEmpty();
+    }
+
+    @Test
+    void merge_ShouldStampOnlyRowsWithChangedRates() {
+        RateMatrix first = RateMatrix.EMPTY.merge(Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.85")),
+                "EUR", Map.of("USD", new BigDecimal("1.17"))
+        ), 1);
+
+        RateMatrix second = first.merge(Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.850000")),
+                "EUR", Map.of("USD", new BigDecimal("1.18"))
+        ), 2);
+
+        assertThat(second.getRowVersion("USD")).isEqualTo(1);
+        assertThat(second.getRowVersion("EUR")).isEqualTo(2);
+        assertThat(second.getRowVersion("GBP")).isZero();
+    }
+
+    @Test
+    void merge_ShouldShareRowsThatDidNotChange() {
+        RateMatrix first = RateMatrix.EMPTY.merge(Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.85")),
+                "EUR", Map.of("USD", new BigDecimal("1.17"))
+        ), 1);
+
+        RateMatrix second = first.merge(Map.of("USD", Map.of("EUR", new BigDecimal("0.86"))), 2);
+        RateMatrix third = second.merge(Map.of("USD", Map.of("GBP", new BigDecimal("0.73"))), 3);
+
+        assertThat(second.row("EUR")).isSameAs(first.row("EUR"));
+        assertThat(third.row("EUR")).isSameAs(first.row("EUR"))
+                                    .doesNotContainKey("GBP");
+        assertThat(third.getScaled(third.indexOf("EUR"), third.indexOf("GBP"))).isEqualTo(RateMatrix.ABSENT);
+        assertThat(third.row("USD")).containsOnlyKeys("EUR", "GBP");
+        assertThat(third.pairCount()).isEqualTo(3);
+        assertThat(first.row("USD")).containsEntry("EUR", new BigDecimal("0.850000"));
+    }
+
+    @Test
+    void row_ShouldExposeRatesAsMapView() {
+        RateMatrix matrix = RateMatrix.EMPTY.merge(Map.of("USD", Map.of(
+                "EUR", new BigDecimal("0.850000"),
+                "JPY", new BigDecimal("110.000000")
+        )), 1);
+
+        Map<String, BigDecimal> rates = matrix.row("USD");
+
+        assertThat(rates).hasSize(2)
+                         .containsEntry("EUR", new BigDecimal("0.850000"))
+                         .containsEntry("JPY", new BigDecimal("110.000000"))
+                         .doesNotContainKey("USD")
+                         .isEqualTo(Map.of("EUR", new BigDecimal("0.850000"), "JPY", new BigDecimal("110.000000")));
+        assertThat(rates.get("GBP")).isNull();
+    }
+
+    @Test
+    void row_WhenBaseUnknown_ShouldReturnEmptyMap() {
+        assertThat(RateMatrix.EMPTY.row("USD")).isEmpty();
+    }
+
+    @Test
+    void fromScaled_ShouldKeepDatabaseScale() {
+        assertThat(RateMatrix.fromScaled(110_000_000L).toString()).isEqualTo("110.000000");
+        assertThat(RateMatrix.fromScaled(850_000L).toString()).isEqualTo("0.850000");
+    }
+}
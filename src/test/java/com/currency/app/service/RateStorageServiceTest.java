@@ -1,15 +1,37 @@
 package com.currency.app.service;
 
+import com.currency.app.config.RateProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.Ordered;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,11 +43,15 @@ class RateStorageServiceTest {
     @Mock
     private InMemoryRateStorage inMemoryRateStorage;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private RateStorageService rateStorageService;
 
     @BeforeEach
     void setUp() {
-        rateStorageService = new RateStorageService(databaseRateStorage, inMemoryRateStorage);
+        lenient().when(inMemoryRateStorage.getOrder()).thenReturn(Ordered.HIGHEST_PRECEDENCE);
+        lenient().when(databaseRateStorage.getOrder()).thenReturn(Ordered.LOWEST_PRECEDENCE);
+        rateStorageService = new RateStorageService(List.of(databaseRateStorage, inMemoryRateStorage), inMemoryRateStorage, new RateProperties(), meterRegistry);
     }
 
     @Test
@@ -40,6 +66,69 @@ class RateStorageServiceTest {
         verify(databaseRateStorage).updateRate(baseCurrency, targetCurrency, rate);
     }
 
+    @Test
+    void updateRates_ShouldUpdateBothStorages() {
+        Map<String, Map<String, BigDecimal>> rates = Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.85"))
+        );
+        when(inMemoryRateStorage.getSnapshot()).thenReturn(RateSnapshot.EMPTY);
+
+        rateStorageService.updateRates(rates);
+
+        verify(inMemoryRateStorage).updateRates(rates);
+        verify(databaseRateStorage).updateRates(rates);
+    }
+
+    @Test
+    void updateRates_ShouldOnlyStoreChangedRatesAndConfirmTheRest() {
+        RateSnapshot published = RateSnapshot.EMPTY.merge(Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.85"), "GBP", new BigDecimal("0.73"), "JPY", new BigDecimal("110"))
+        ), Instant.now());
+        when(inMemoryRateStorage.getSnapshot()).thenReturn(published);
+
+        rateStorageService.updateRates(Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.8500004"), "GBP", new BigDecimal("0.74"), "CHF", new BigDecimal("0.92"), "JPY", new BigDecimal("110.000000"))
+        ));
+
+        Map<String, Map<String, BigDecimal>> changed = Map.of("USD", Map.of("GBP", new BigDecimal("0.74"), "CHF", new BigDecimal("0.92")));
+        Map<String, Set<String>> unchanged = Map.of("USD", Set.of("EUR", "JPY"));
+        verify(inMemoryRateStorage).updateRates(changed);
+        verify(databaseRateStorage).updateRates(changed);
+        verify(inMemoryRateStorage).confirmRates(unchanged);
+        verify(databaseRateStorage).confirmRates(unchanged);
+    }
+
+    @Test
+    void updateRates_WhenNothingChanged_ShouldNotStoreRates() {
+        RateSnapshot published = RateSnapshot.EMPTY.merge(Map.of("USD", Map.of("EUR", new BigDecimal("0.85"))), Instant.now());
+        when(inMemoryRateStorage.getSnapshot()).thenReturn(published);
+
+        rateStorageService.updateRates(Map.of("USD", Map.of("EUR", new BigDecimal("0.85"))));
+
+        verify(inMemoryRateStorage, never()).updateRates(any());
+        verify(databaseRateStorage, never()).updateRates(any());
+        verify(databaseRateStorage).confirmRates(Map.of("USD", Set.of("EUR")));
+    }
+
+    @Test
+    void startRefresh_ShouldStoreEachBaseRightAwayAndPublishInMemoryOnce() {
+        RateSnapshot published = RateSnapshot.EMPTY.merge(Map.of("EUR", Map.of("USD", new BigDecimal("1.17"))), Instant.now());
+        when(inMemoryRateStorage.getSnapshot()).thenReturn(published);
+        RateStorageService.RateRefresh refresh = rateStorageService.startRefresh();
+
+        refresh.store("USD", Map.of("EUR", new BigDecimal("0.85")));
+        refresh.store("EUR", Map.of("USD", new BigDecimal("1.17")));
+
+        verify(databaseRateStorage).updateRates(Map.of("USD", Map.of("EUR", new BigDecimal("0.85"))));
+        verify(databaseRateStorage).confirmRates(Map.of("EUR", Set.of("USD")));
+        verify(inMemoryRateStorage, never()).updateRates(any());
+
+        refresh.publish();
+
+        verify(inMemoryRateStorage).updateRates(Map.of("USD", Map.of("EUR", new BigDecimal("0.85"))));
+        verify(inMemoryRateStorage, never()).confirmRates(any());
+    }
+
     @Test
     void getAllRatesForCurrency_ShouldPreferInMemoryStorage() {
         String baseCurrency = "USD";
@@ -53,7 +142,7 @@ class RateStorageServiceTest {
 
         assertThat(result).isEqualTo(expectedRates);
         verify(inMemoryRateStorage).getAllRatesForCurrency(baseCurrency);
-        verifyNoInteractions(databaseRateStorage);
+        verify(databaseRateStorage, never()).getAllRatesForCurrency(any());
     }
 
     @Test
@@ -84,4 +173,182 @@ class RateStorageServiceTest {
         verify(inMemoryRateStorage).getAllRatesForCurrency(baseCurrency);
         verify(databaseRateStorage).getAllRatesForCurrency(baseCurrency);
     }
+
+    @Test
+    void getAllRatesForCurrency_WhenLoadedFromDatabase_ShouldPublishToInMemoryStorage() {
+        Map<String, BigDecimal> rates = Map.of("EUR", new BigDecimal("0.85"));
+        when(inMemoryRateStorage.getAllRatesForCurrency("USD")).thenReturn(Map.of());
+        when(databaseRateStorage.getAllRatesForCurrency("USD")).thenReturn(rates);
+
+        rateStorageService.getAllRatesForCurrency("USD");
+
+        verify(inMemoryRateStorage).loadIfAbsent("USD", rates);
+    }
+
+    @Test
+    void getAllRatesForCurrency_WhenConcurrentMisses_ShouldLoadOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Map<String, BigDecimal> rates = Map.of("EUR", new BigDecimal("0.85"));
+        AtomicReference<Map<String, BigDecimal>> inMemoryRates = new AtomicReference<>(Map.of());
+        when(inMemoryRateStorage.getAllRatesForCurrency("USD")).thenAnswer(invocation -> inMemoryRates.get());
+        doAnswer(invocation -> {
+            inMemoryRates.set(rates);
+            return null;
+        }).when(inMemoryRateStorage).loadIfAbsent("USD", rates);
+        when(databaseRateStorage.getAllRatesForCurrency("USD")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return rates;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, BigDecimal>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> rateStorageService.getAllRatesForCurrency("USD")));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> rateStorageService.getAllRatesForCurrency("USD")));
+            }
+            verify(inMemoryRateStorage, timeout(5000).atLeast(8)).getAllRatesForCurrency("USD");
+            release.countDown();
+
+            for (Future<Map<String, BigDecimal>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(rates);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(databaseRateStorage, times(1)).getAllRatesForCurrency("USD");
+    }
+
+    @Test
+    void getAllRatesForCurrency_WhenUnknown_ShouldNotQueryDatabaseUntilNegativeEntryExpires() {
+        MutableClock clock = new MutableClock();
+        RateProperties rateProperties = new RateProperties();
+        rateProperties.setNegativeCacheTtl(Duration.ofMinutes(1));
+        rateStorageService = new RateStorageService(List.of(databaseRateStorage, inMemoryRateStorage), inMemoryRateStorage, rateProperties, meterRegistry, clock);
+        when(inMemoryRateStorage.getAllRatesForCurrency("XXX")).thenReturn(Map.of());
+        when(databaseRateStorage.getAllRatesForCurrency("XXX")).thenReturn(Map.of());
+
+        rateStorageService.getAllRatesForCurrency("XXX");
+        rateStorageService.getAllRatesForCurrency("XXX");
+        verify(databaseRateStorage, times(1)).getAllRatesForCurrency("XXX");
+
+        clock.advance(Duration.ofMinutes(2));
+        rateStorageService.getAllRatesForCurrency("XXX");
+        verify(databaseRateStorage, times(2)).getAllRatesForCurrency("XXX");
+    }
+
+    @Test
+    void updateRate_ShouldForgetUnknownBaseCurrency() {
+        when(inMemoryRateStorage.getAllRatesForCurrency("XXX")).thenReturn(Map.of());
+        when(databaseRateStorage.getAllRatesForCurrency("XXX")).thenReturn(Map.of());
+        rateStorageService.getAllRatesForCurrency("XXX");
+
+        rateStorageService.updateRate("XXX", "EUR", new BigDecimal("1.5"));
+        rateStorageService.getAllRatesForCurrency("XXX");
+
+        verify(databaseRateStorage, times(2)).getAllRatesForCurrency("XXX");
+    }
+
+    @Test
+    void getAllRatesForCurrency_ShouldReadThroughTiersInOrderAndFillEarlierTiers() {
+        RateStorageTier fileTier = mock(RateStorageTier.class);
+        when(fileTier.getOrder()).thenReturn(0);
+        Map<String, BigDecimal> rates = Map.of("EUR", new BigDecimal("0.85"));
+        when(inMemoryRateStorage.getAllRatesForCurrency("USD")).thenReturn(Map.of());
+        when(fileTier.getAllRatesForCurrency("USD")).thenReturn(rates);
+        rateStorageService = new RateStorageService(List.of(databaseRateStorage, fileTier, inMemoryRateStorage), inMemoryRateStorage, new RateProperties(), meterRegistry);
+
+        Map<String, BigDecimal> result = rateStorageService.getAllRatesForCurrency("USD");
+
+        assertThat(result).isEqualTo(rates);
+        verify(inMemoryRateStorage).loadIfAbsent("USD", rates);
+        verify(fileTier, never()).loadIfAbsent(any(), any());
+        verify(databaseRateStorage, never()).getAllRatesForCurrency(any());
+    }
+
+    @Test
+    void constructor_WhenJournalDirIsRelative_ShouldFail() {
+        when(databaseRateStorage.isWriteBehind()).thenReturn(true);
+        RateProperties rateProperties = new RateProperties();
+        rateProperties.setWriteBehindJournalDir(Path.of("data", "write-behind"));
+
+        assertThatThrownBy(() -> new RateStorageService(List.of(databaseRateStorage, inMemoryRateStorage), inMemoryRateStorage, rateProperties, meterRegistry))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("absolute");
+    }
+
+    @Test
+    void updateRate_WithWriteBehindTier_ShouldQueueWritesInOrder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<RateWrite> written = new CopyOnWriteArrayList<>();
+        when(databaseRateStorage.isWriteBehind()).thenReturn(true);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            written.addAll(invocation.getArgument(0));
+            return null;
+        }).when(databaseRateStorage).write(anyList());
+        rateStorageService = new RateStorageService(List.of(databaseRateStorage, inMemoryRateStorage), inMemoryRateStorage, new RateProperties(), meterRegistry);
+
+        try {
+            rateStorageService.updateRate("USD", "EUR", new BigDecimal("0.85"));
+            rateStorageService.updateRate("USD", "EUR", new BigDecimal("0.86"));
+
+            verify(inMemoryRateStorage).updateRate("USD", "EUR", new BigDecimal("0.86"));
+            verify(databaseRateStorage, never()).updateRate(any(), any(), any());
+            assertThat(written).isEmpty();
+        } finally {
+            release.countDown();
+            rateStorageService.shutdown();
+        }
+
+        assertThat(written).extracting(write -> ((RateWrite.Update) write).rates())
+                           .containsExactly(Map.of("USD", Map.of("EUR", new BigDecimal("0.85"))),
+                                            Map.of("USD", Map.of("EUR", new BigDecimal("0.86"))));
+    }
+
+    @Test
+    void getAllRatesForCurrency_ShouldCountHitsAndMissesPerTier() {
+        when(inMemoryRateStorage.getAllRatesForCurrency("USD")).thenReturn(Map.of("EUR", new BigDecimal("0.85")));
+        when(inMemoryRateStorage.getAllRatesForCurrency("XXX")).thenReturn(Map.of());
+        when(databaseRateStorage.getAllRatesForCurrency("XXX")).thenReturn(Map.of());
+
+        rateStorageService.getAllRatesForCurrency("USD");
+        rateStorageService.getAllRatesForCurrency("XXX");
+        rateStorageService.getAllRatesForCurrency("XXX");
+
+        String memoryTier = inMemoryRateStorage.getClass().getSimpleName();
+        String databaseTier = databaseRateStorage.getClass().getSimpleName();
+        assertThat(meterRegistry.get("currency.rates.tier.lookups").tags("tier", memoryTier, "result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("currency.rates.tier.lookups").tags("tier", memoryTier, "result", "miss").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("currency.rates.tier.lookups").tags("tier", databaseTier, "result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("currency.rates.tier.reads").tags("tier", databaseTier).timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("currency.rates.negative-cache.hits").counter().count()).isEqualTo(1);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
 }
@@ -0,0 +1,158 @@
+package com.currency.app.service;
+
+import com.currency.app.config.RateProperties;
+import com.currency.app.repository.ExchangeRateRepository;
+import com.currency.app.repository.LatestRate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateWarmupServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T12:00:00Z");
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @TempDir
+    private Path directory;
+
+    private InMemoryRateStorage inMemoryRateStorage;
+
+    private RateProperties rateProperties;
+
+    private RateWarmupService rateWarmupService;
+
+    @BeforeEach
+    void setUp() {
+        inMemoryRateStorage = new InMemoryRateStorage();
+        rateProperties = new RateProperties();
+        rateWarmupService = new RateWarmupService(exchangeRateRepository, inMemoryRateStorage, rateProperties);
+    }
+
+    @Test
+    void warmUp_WithoutSnapshotFile_ShouldLoadLatestRatesOfAllBasesFromDatabase() {
+        LocalDateTime lastUpdated = LocalDateTime.ofInstant(NOW.minusSeconds(600), ZoneId.systemDefault());
+        when(exchangeRateRepository.findAllLatestRates()).thenReturn(List.of(
+                latestRate("USD", "EUR", "0.85", lastUpdated.minusHours(1)),
+                latestRate("USD", "GBP", "0.73", lastUpdated),
+                latestRate("EUR", "USD", "1.17", lastUpdated)
+        ));
+
+        rateWarmupService.warmUp(NOW);
+
+        assertThat(rateWarmupService.getSource()).isEqualTo(RateWarmupService.Source.DATABASE);
+        assertThat(inMemoryRateStorage.getAllRatesForCurrency("USD")).isEqualTo(Map.of("EUR", new BigDecimal("0.850000"),
+                                                                                       "GBP", new BigDecimal("0.730000")));
+        assertThat(inMemoryRateStorage.getAllRatesForCurrency("EUR")).isEqualTo(Map.of("USD", new BigDecimal("1.170000")));
+        assertThat(inMemoryRateStorage.getSnapshot().publishedAt()).isEqualTo(NOW.minusSeconds(600));
+    }
+
+    @Test
+    void warmUp_WithRecentSnapshotFile_ShouldNotQueryDatabase() throws Exception {
+        rateProperties.setSnapshotFile(directory.resolve("rates.snapshot"));
+        RateSnapshot written = snapshot(NOW.minusSeconds(60));
+        RateSnapshot persisted = new RateSnapshot(7, written.publishedAt(), written.matrix());
+        rateWarmupService.onRatesPublished(new RatesPublishedEvent(RateSnapshot.EMPTY, persisted));
+
+        rateWarmupService.warmUp(NOW);
+
+        verifyNoInteractions(exchangeRateRepository);
+        assertThat(inMemoryRateStorage.getSnapshot().version()).isEqualTo(7);
+        assertThat(rateWarmupService.getSource()).isEqualTo(RateWarmupService.Source.SNAPSHOT_FILE);
+        assertThat(inMemoryRateStorage.getAllRatesForCurrency("USD")).isEqualTo(Map.of("EUR", new BigDecimal("0.850000"),
+                                                                                       "GBP", new BigDecimal("0.730000")));
+        assertThat(inMemoryRateStorage.getAllRatesForCurrency("EUR")).isEqualTo(Map.of("USD", new BigDecimal("1.170000")));
+        assertThat(inMemoryRateStorage.getRecentHistory().getRatesAt("USD", NOW)).isPresent();
+    }
+
+    @Test
+    void warmUp_WithStaleOrCorruptSnapshotFile_ShouldFallBackToDatabase() throws Exception {
+        Path snapshotFile = directory.resolve("rates.snapshot");
+        rateProperties.setSnapshotFile(snapshotFile);
+        rateProperties.setSnapshotMaxAge(Duration.ofHours(2));
+        RateSnapshotFile.write(snapshotFile, snapshot(NOW.minus(Duration.ofHours(3))));
+        when(exchangeRateRepository.findAllLatestRates()).thenReturn(List.of());
+
+        rateWarmupService.warmUp(NOW);
+
+        assertThat(rateWarmupService.getSource()).isEqualTo(RateWarmupService.Source.DATABASE);
+
+        Files.write(snapshotFile, new byte[]{1, 2, 3});
+        assertThat(RateSnapshotFile.read(snapshotFile)).isEmpty();
+    }
+
+    @Test
+    void warmUp_AfterRefreshPublishedRates_ShouldKeepPublishedRates() {
+        inMemoryRateStorage.updateRate("USD", "EUR", new BigDecimal("0.90"));
+        when(exchangeRateRepository.findAllLatestRates()).thenReturn(List.of(
+                latestRate("USD", "EUR", "0.85", LocalDateTime.now())));
+
+        rateWarmupService.warmUp(NOW);
+
+        assertThat(rateWarmupService.getSource()).isEqualTo(RateWarmupService.Source.REFRESH);
+        assertThat(inMemoryRateStorage.getAllRatesForCurrency("USD")).containsEntry("EUR", new BigDecimal("0.900000"));
+    }
+
+    @Test
+    void warmUp_AfterRefreshPublishedSomeBases_ShouldMergeMissingBases() {
+        inMemoryRateStorage.updateRate("USD", "EUR", new BigDecimal("0.90"));
+        when(exchangeRateRepository.findAllLatestRates()).thenReturn(List.of(
+                latestRate("USD", "EUR", "0.85", LocalDateTime.now()),
+                latestRate("GBP", "USD", "1.37", LocalDateTime.now())));
+
+        rateWarmupService.warmUp(NOW);
+
+        assertThat(rateWarmupService.getSource()).isEqualTo(RateWarmupService.Source.DATABASE);
+        assertThat(inMemoryRateStorage.getAllRatesForCurrency("USD")).containsEntry("EUR", new BigDecimal("0.900000"));
+        assertThat(inMemoryRateStorage.getAllRatesForCurrency("GBP")).containsEntry("USD", new BigDecimal("1.370000"));
+        assertThat(inMemoryRateStorage.getSnapshot().version()).isEqualTo(2);
+    }
+
+    @Test
+    void health_ShouldBeOutOfServiceUntilWarmedUp() {
+        RateCacheHealthIndicator healthIndicator = new RateCacheHealthIndicator(rateWarmupService, inMemoryRateStorage);
+        when(exchangeRateRepository.findAllLatestRates()).thenReturn(List.of());
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        rateWarmupService.warmUp(NOW);
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    private static RateSnapshot snapshot(Instant publishedAt) {
+        return RateSnapshot.EMPTY.merge(Map.of(
+                "USD", Map.of("EUR", new BigDecimal("0.85"), "GBP", new BigDecimal("0.73")),
+                "EUR", Map.of("USD", new BigDecimal("1.17"))
+        ), publishedAt);
+    }
+
+    private static LatestRate latestRate(String base, String target, String rate, LocalDateTime lastUpdated) {
+        return new SpelAwareProxyProjectionFactory().createProjection(LatestRate.class, Map.of(
+                "baseCurrencyCode", base,
+                "targetCurrencyCode", target,
+                "rate", new BigDecimal(rate),
+                "lastUpdated", lastUpdated));
+    }
+}
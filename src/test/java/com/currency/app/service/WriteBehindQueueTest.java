@@ -0,0 +1,156 @@
+package com.currency.app.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class WriteBehindQueueTest {
+
+    private static final Instant AT = Instant.parse("2024-03-01T12:00:00Z");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void submit_ShouldApplyWritesInBatchesOfFlushSize() throws Exception {
+        RecordingTier tier = new RecordingTier(0);
+        WriteBehindQueue queue = new WriteBehindQueue("test", tier::write, 100, 3, Duration.ofMillis(200), null);
+        for (int i = 0; i < 7; i++) {
+            queue.submit(update("0.8" + i));
+        }
+
+        assertThat(queue.close(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(tier.batches).extracting(List::size).containsExactly(3, 3, 1);
+        assertThat(tier.batches.stream().flatMap(List::stream).toList()).containsExactlyElementsOf(
+                List.of(update("0.80"), update("0.81"), update("0.82"), update("0.83"), update("0.84"), update("0.85"), update("0.86")));
+        assertThat(queue.getBacklog()).isZero();
+    }
+
+    @Test
+    void submit_WhenTierFails_ShouldRetryBatchUntilApplied() throws Exception {
+        RecordingTier tier = new RecordingTier(2);
+        WriteBehindQueue queue = new WriteBehindQueue("test", tier::write, 100, 10, Duration.ofMillis(50), null);
+
+        queue.submit(update("0.85"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> !tier.batches.isEmpty());
+        assertThat(queue.getFailedFlushes()).isEqualTo(2);
+        assertThat(tier.batches).containsExactly(List.of(update("0.85")));
+        assertThat(queue.getBacklog()).isZero();
+        assertThat(queue.getLag()).isZero();
+        queue.close(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void submit_WhenWriteKeepsFailing_ShouldDeadLetterItAndApplyTheRest() throws Exception {
+        RateWrite poison = update("99999999999999.5");
+        List<List<RateWrite>> applied = new CopyOnWriteArrayList<>();
+        Path deadLetterPath = directory.resolve("test.dead-letter");
+        WriteBehindQueue queue = new WriteBehindQueue("test", batch -> {
+            if (batch.contains(poison)) {
+                throw new IllegalArgumentException("numeric field overflow");
+            }
+            applied.add(batch);
+        }, 100, 10, Duration.ofMillis(20), 2, null, new RateWriteJournal(deadLetterPath), null);
+
+        queue.submit(update("0.85"));
+        queue.submit(poison);
+        queue.submit(update("0.86"));
+        assertThat(queue.close(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(applied).containsExactly(List.of(update("0.85")), List.of(update("0.86")));
+        assertThat(queue.getDeadLetteredWrites()).isEqualTo(1);
+        assertThat(new RateWriteJournal(deadLetterPath).getRecovered()).extracting(RateWriteJournal.Entry::write).containsExactly(poison);
+    }
+
+    @Test
+    void submit_WhenTierFailsTransiently_ShouldRetryBeyondMaxRetries() throws Exception {
+        AtomicInteger failuresLeft = new AtomicInteger(4);
+        List<List<RateWrite>> applied = new CopyOnWriteArrayList<>();
+        WriteBehindQueue queue = new WriteBehindQueue("test", batch -> {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new CannotGetJdbcConnectionException("Connection refused");
+            }
+            applied.add(batch);
+        }, 100, 10, Duration.ofMillis(20), 1, null, null, null);
+
+        queue.submit(update("0.85"));
+        assertThat(queue.close(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(applied).containsExactly(List.of(update("0.85")));
+        assertThat(queue.getDeadLetteredWrites()).isZero();
+    }
+
+    @Test
+    void journal_ShouldReplayUncommittedWritesAfterRestart() throws Exception {
+        Path path = directory.resolve("DatabaseRateStorage.journal");
+        RateWriteJournal journal = new RateWriteJournal(path);
+        long first = journal.append(update("0.85"));
+        journal.append(new RateWrite.Confirm(AT, Map.of("USD", Set.of("EUR", "GBP"))));
+        journal.append(update("0.86"));
+        journal.commit(first);
+        journal.close();
+        Files.write(path, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        RecordingTier tier = new RecordingTier(0);
+        WriteBehindQueue queue = new WriteBehindQueue("test", tier::write, 100, 10, Duration.ofMillis(50), new RateWriteJournal(path));
+        assertThat(queue.close(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(tier.batches).containsExactly(List.of(new RateWrite.Confirm(AT, Map.of("USD", Set.of("EUR", "GBP"))), update("0.86")));
+        assertThat(Files.size(path)).isZero();
+        assertThat(new RateWriteJournal(path).getRecovered()).isEmpty();
+    }
+
+    private static RateWrite update(String rate) {
+        return new RateWrite.Update(AT, Map.of("USD", Map.of("EUR", new BigDecimal(rate))));
+    }
+
+    private static final class RecordingTier implements RateStorageTier {
+
+        private final List<List<RateWrite>> batches = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger failuresLeft;
+
+        private RecordingTier(int failures) {
+            this.failuresLeft = new AtomicInteger(failures);
+        }
+
+        @Override
+        public void write(List<RateWrite> writes) {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            batches.add(writes);
+        }
+
+        @Override
+        public void updateRate(String baseCurrency, String targetCurrency, BigDecimal rate) {
+        }
+
+        @Override
+        public Map<String, BigDecimal> getAllRatesForCurrency(String baseCurrency) {
+            return Map.of();
+        }
+
+        @Override
+        public int getOrder() {
+            return 0;
+        }
+    }
+}